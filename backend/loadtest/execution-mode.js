@@ -0,0 +1,65 @@
+// Prueba de carga para comparar los modos de ejecución (hilos de plataforma y
+// hilos virtuales) contra los endpoints reales. Mezcla validaciones
+// individuales con cargas masivas CSV, como en producción.
+//
+//   k6 run -e BASE_URL=http://localhost:8091 -e TOKEN=<jwt> loadtest/execution-mode.js
+//
+// Sin TOKEN se asume un backend con AUTH_BYPASS=true. Ver DOCKER_SETUP.md.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8091';
+const TOKEN = __ENV.TOKEN;
+const BULK_ROWS = Number(__ENV.BULK_ROWS || 500);
+const DURATION = __ENV.DURATION || '5m';
+
+const headers = TOKEN ? { Authorization: `Bearer ${TOKEN}` } : {};
+
+// Identificaciones repetidas cada 1000 filas para ejercitar la caché y la deduplicación
+const csv = ['Número de Documento;Primer Nombre;Segundo Nombre;Primer Apellido;Segundo Apellido;Razon social']
+    .concat(Array.from({ length: BULK_ROWS }, (_, i) =>
+        `${1000000 + (i % 1000)};NOMBRE${i % 97};;APELLIDO${i % 89};;`))
+    .join('\n');
+
+export const options = {
+    scenarios: {
+        interactive: {
+            executor: 'constant-arrival-rate',
+            exec: 'interactive',
+            rate: Number(__ENV.INTERACTIVE_RATE || 20),
+            timeUnit: '1s',
+            duration: DURATION,
+            preAllocatedVUs: 50,
+            maxVUs: 400,
+        },
+        bulk: {
+            executor: 'constant-vus',
+            exec: 'bulk',
+            vus: Number(__ENV.BULK_VUS || 2),
+            duration: DURATION,
+        },
+    },
+    thresholds: {
+        'http_req_duration{scenario:interactive}': ['p(95)<1000', 'p(99)<2000'],
+        'http_req_failed{scenario:interactive}': ['rate<0.01'],
+        'http_req_failed{scenario:bulk}': ['rate<0.01'],
+    },
+    summaryTrendStats: ['avg', 'med', 'p(95)', 'p(99)', 'max'],
+};
+
+export function interactive() {
+    const id = 1000000 + Math.floor(Math.random() * 100000);
+    const res = http.post(`${BASE_URL}/api/laft/validate`, JSON.stringify({
+        p_IDENTIFICACION: String(id),
+        p_NOMBRE_1: 'NOMBRE',
+        p_APELLIDO_1: 'APELLIDO',
+    }), { headers: Object.assign({ 'Content-Type': 'application/json' }, headers) });
+    check(res, { 'validación 200': (r) => r.status === 200 });
+}
+
+export function bulk() {
+    const res = http.post(`${BASE_URL}/api/laft/validate/bulk`, {
+        file: http.file(csv, 'carga.csv', 'text/csv'),
+    }, { headers, timeout: '10m' });
+    check(res, { 'carga masiva 200': (r) => r.status === 200 });
+}
@@ -0,0 +1,268 @@
+package com.neffi.laft.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.StringJoiner;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import com.neffi.laft.dto.BulkValidateResultDto;
+import com.neffi.laft.dto.RestrictiveListEntry;
+import com.neffi.laft.enums.BulkInputFormat;
+import com.neffi.laft.enums.BulkTemplateColumn;
+
+/**
+ * Datos sintéticos para los benchmarks: coincidencias, archivos de carga masiva
+ * (XLSX, CSV y NDJSON), nombres de personas y un {@link ResultSet} en memoria con las columnas de
+ * BUT_VALIDAR_LISTAS.
+ */
+final class BenchmarkData {
+
+    static final String[] CURSOR_COLUMNS = { "CODIGO_LISTA", "NOMBRE", "TIPO", "PRIORIDAD_VALIDACION",
+            "PERMITE_IDENTIFICACION", "PERMITE_HOMONIMIA", "TIPO_DOCUMENTO", "IDENTIFICACION", "SDN_NAME",
+            "USUARIO", "FECHA_ACTUALIZACION", "COMENTARIOS", "COMENTARIOS2", "ENT_NUM", "TIPO_LISTA",
+            "DESCRI_TIPO_LISTA" };
+
+    private static final ResultSetMetaData META_DATA = (ResultSetMetaData) Proxy.newProxyInstance(
+            BenchmarkData.class.getClassLoader(), new Class<?>[] { ResultSetMetaData.class },
+            (proxy, method, args) -> switch (method.getName()) {
+                case "getColumnCount" -> CURSOR_COLUMNS.length;
+                case "getColumnLabel", "getColumnName" -> CURSOR_COLUMNS[(Integer) args[0] - 1];
+                default -> throw new SQLException("No soportado: " + method.getName());
+            });
+
+    private static final String[] FIRST_NAMES = { "JUAN", "CARLOS", "JOSÉ", "LUIS", "ANDRÉS", "MARÍA", "ANA",
+            "LUZ", "SANDRA", "JORGE", "DIEGO", "CAMILO", "VALENTINA", "SOFÍA", "MIGUEL", "ÁNGEL", "DAVID",
+            "PAULA", "NATALIA", "ALEJANDRO", "FERNANDO", "GLORIA", "MARTHA", "RICARDO", "OSCAR", "ÉDGAR",
+            "HERNÁN", "JAVIER", "CLAUDIA", "PATRICIA", "MÓNICA", "SEBASTIÁN", "NICOLÁS", "DANIELA", "LAURA",
+            "ESTEBAN", "FELIPE", "GUSTAVO", "ROSA", "YOLANDA" };
+
+    private static final String[] LAST_NAMES = { "GÓMEZ", "PÉREZ", "RODRÍGUEZ", "GONZÁLEZ", "MARTÍNEZ",
+            "LÓPEZ", "GARCÍA", "HERNÁNDEZ", "SÁNCHEZ", "RAMÍREZ", "TORRES", "DÍAZ", "VARGAS", "MORENO", "ROJAS",
+            "JIMÉNEZ", "CASTRO", "ORTIZ", "RUIZ", "SUÁREZ", "MUÑOZ", "ÁLVAREZ", "ROMERO", "HERRERA", "MEDINA",
+            "AGUILAR", "CASTAÑEDA", "ARIAS", "OSORIO", "QUINTERO", "CARDONA", "ZAPATA", "VALENCIA", "MEJÍA",
+            "RESTREPO", "OSPINA", "BETANCUR", "GIRALDO", "SALAZAR", "CIFUENTES" };
+
+    private BenchmarkData() {
+    }
+
+    static List<RestrictiveListEntry> matches(int count) {
+        List<RestrictiveListEntry> matches = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            matches.add(RestrictiveListEntry.builder()
+                    .codigoLista((long) (i % 40) + 1)
+                    .nombre("LISTA OFAC SDN " + (i % 40))
+                    .tipo(i % 3 == 0 ? "IDENTIFICACION" : "NOMBRE")
+                    .prioridadValidacion(1L)
+                    .permiteIdentificacion("NO")
+                    .permiteHomonimia("NO")
+                    .tipoDocumento("CC")
+                    .identificacion(String.valueOf(1_000_000_000L + i))
+                    .sdnName("PEREZ GOMEZ JUAN CARLOS ALIAS EL SUJETO NUMERO " + i)
+                    .usuario("BENCH")
+                    .fechaActualizacion(LocalDateTime.of(2024, 1, 1, 0, 0))
+                    .comentarios("Registro sintético de benchmark con comentarios de longitud media " + i)
+                    .comentarios2("Fuente: lista pública consolidada, programa SDGT, actualización periódica")
+                    .entNum((long) i)
+                    .tipoLista("RES")
+                    .descriTipoLista("RESTRICTIVA")
+                    .build());
+        }
+        return matches;
+    }
+
+    static List<BulkValidateResultDto> bulkResults(int rows, int matchEvery) {
+        List<RestrictiveListEntry> match = matches(2);
+        List<BulkValidateResultDto> results = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            List<RestrictiveListEntry> rowMatches = i % matchEvery == 0 ? match : List.of();
+            results.add(BulkValidateResultDto.builder()
+                    .queryDocumentNumber(String.valueOf(80_000_000L + i))
+                    .queryFullName("CLIENTE DE PRUEBA NUMERO " + i)
+                    .matchCount(rowMatches.size())
+                    .matches(rowMatches)
+                    .build());
+        }
+        return results;
+    }
+
+    /**
+     * Nombres completos sintéticos (dos nombres y dos apellidos, algunos con un
+     * sufijo de letras para ampliar el vocabulario), reproducibles por semilla.
+     */
+    static String[] personNames(int count, long seed) {
+        Random random = new Random(seed);
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            StringBuilder sb = new StringBuilder(48)
+                    .append(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]).append(' ')
+                    .append(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]).append(' ')
+                    .append(LAST_NAMES[random.nextInt(LAST_NAMES.length)]).append(' ')
+                    .append(LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+            if (random.nextInt(4) == 0) {
+                sb.append(' ').append((char) ('A' + random.nextInt(26))).append((char) ('A' + random.nextInt(26)))
+                        .append((char) ('A' + random.nextInt(26))).append("EZ");
+            }
+            names[i] = sb.toString();
+        }
+        return names;
+    }
+
+    /**
+     * Consultas derivadas de nombres de la lista: sin tildes, con un carácter
+     * cambiado o con los apellidos antes de los nombres.
+     */
+    static String[] perturbedNames(String[] names, int count, long seed) {
+        Random random = new Random(seed);
+        String[] queries = new String[count];
+        for (int i = 0; i < count; i++) {
+            String name = names[random.nextInt(names.length)];
+            queries[i] = switch (i % 3) {
+                case 0 -> Normalizer.normalize(name, Normalizer.Form.NFD)
+                        .replaceAll("\\p{M}", "").toLowerCase();
+                case 1 -> {
+                    char[] chars = name.toCharArray();
+                    int position = random.nextInt(chars.length);
+                    chars[position] = chars[position] == ' ' ? ' ' : (char) ('A' + random.nextInt(26));
+                    yield new String(chars);
+                }
+                default -> {
+                    String[] parts = name.split(" ");
+                    yield parts[2] + " " + parts[3] + " " + parts[0] + " " + parts[1];
+                }
+            };
+        }
+        return queries;
+    }
+
+    /**
+     * Escribe una plantilla de carga masiva con el número de filas indicado.
+     */
+    static Path bulkWorkbook(int rows) throws IOException {
+        Path file = Files.createTempFile("neffi-bench-", ".xlsx");
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(100);
+                OutputStream out = Files.newOutputStream(file)) {
+            Sheet sheet = workbook.createSheet("Plantilla");
+            Row header = sheet.createRow(0);
+            for (BulkTemplateColumn column : BulkTemplateColumn.values()) {
+                header.createCell(column.index()).setCellValue(column.name());
+            }
+            for (int i = 1; i <= rows; i++) {
+                Row row = sheet.createRow(i);
+                for (BulkTemplateColumn column : BulkTemplateColumn.values()) {
+                    if (column == BulkTemplateColumn.NUMERO_DOCUMENTO) {
+                        row.createCell(column.index()).setCellValue(1_000_000d + i);
+                    } else {
+                        row.createCell(column.index()).setCellValue(column.name() + " " + (i % 500));
+                    }
+                }
+            }
+            workbook.write(out);
+            workbook.dispose();
+        }
+        return file;
+    }
+
+    /**
+     * Escribe en CSV o NDJSON las mismas filas que {@link #bulkWorkbook(int)}.
+     */
+    static Path bulkText(int rows, BulkInputFormat format) throws IOException {
+        Path file = Files.createTempFile("neffi-bench-", format == BulkInputFormat.CSV ? ".csv" : ".ndjson");
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            if (format == BulkInputFormat.CSV) {
+                out.write(String.join(",", BulkTemplateColumn.headers()));
+                out.write('\n');
+            }
+            for (int i = 1; i <= rows; i++) {
+                StringJoiner line = format == BulkInputFormat.CSV
+                        ? new StringJoiner(",")
+                        : new StringJoiner(",", "{", "}");
+                for (BulkTemplateColumn column : BulkTemplateColumn.values()) {
+                    String value = column == BulkTemplateColumn.NUMERO_DOCUMENTO
+                            ? String.valueOf(1_000_000 + i)
+                            : column.name() + " " + (i % 500);
+                    line.add(format == BulkInputFormat.CSV ? value : "\"" + column.name() + "\":\"" + value + "\"");
+                }
+                out.write(line.toString());
+                out.write('\n');
+            }
+        }
+        return file;
+    }
+
+    static Object[][] cursorRows(int rows) {
+        Object[][] data = new Object[rows][];
+        List<RestrictiveListEntry> matches = matches(rows);
+        for (int i = 0; i < rows; i++) {
+            RestrictiveListEntry m = matches.get(i);
+            data[i] = new Object[] { m.getCodigoLista(), m.getNombre(), m.getTipo(), m.getPrioridadValidacion(),
+                    m.getPermiteIdentificacion(), m.getPermiteHomonimia(), m.getTipoDocumento(),
+                    m.getIdentificacion(), m.getSdnName(), m.getUsuario(), m.getFechaActualizacion(),
+                    m.getComentarios(), m.getComentarios2(), m.getEntNum(), m.getTipoLista(),
+                    m.getDescriTipoLista() };
+        }
+        return data;
+    }
+
+    /**
+     * Crea un {@link ResultSet} de solo avance sobre filas en memoria. Como
+     * {@code findColumn} del controlador, una lectura por nombre recorre las
+     * columnas comparando sin distinguir mayúsculas.
+     */
+    static ResultSet resultSet(Object[][] rows) {
+        int[] cursor = { -1 };
+        return (ResultSet) Proxy.newProxyInstance(BenchmarkData.class.getClassLoader(),
+                new Class<?>[] { ResultSet.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "next":
+                            return ++cursor[0] < rows.length;
+                        case "close":
+                        case "setFetchSize":
+                            return null;
+                        case "wasNull":
+                            return false;
+                        case "getMetaData":
+                            return META_DATA;
+                        default:
+                            break;
+                    }
+                    Object value = value(rows[cursor[0]], args[0]);
+                    return switch (method.getName()) {
+                        case "getLong" -> value != null ? ((Number) value).longValue() : 0L;
+                        case "getString" -> value != null ? value.toString() : null;
+                        case "getObject" -> value;
+                        case "getTimestamp" -> value != null ? Timestamp.valueOf((LocalDateTime) value) : null;
+                        default -> throw new SQLException("No soportado: " + method.getName());
+                    };
+                });
+    }
+
+    private static Object value(Object[] row, Object column) throws SQLException {
+        if (column instanceof Integer index) {
+            return row[index - 1];
+        }
+        String name = column.toString();
+        for (int i = 0; i < CURSOR_COLUMNS.length; i++) {
+            if (CURSOR_COLUMNS[i].equalsIgnoreCase(name)) {
+                return row[i];
+            }
+        }
+        throw new SQLException("Columna inválida: " + column);
+    }
+}
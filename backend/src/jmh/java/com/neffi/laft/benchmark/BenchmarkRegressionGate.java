@@ -0,0 +1,101 @@
+package com.neffi.laft.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compara los resultados JSON de JMH con la línea base almacenada y termina con
+ * código de salida distinto de cero si algún benchmark empeora más que el umbral.
+ * En modo {@code thrpt} un puntaje mayor es mejor; en los modos de tiempo un
+ * puntaje menor es mejor. Los benchmarks sin línea base se informan pero no
+ * fallan la verificación.
+ * <p>
+ * Argumentos: {@code <resultados> <línea base> <umbral> [actualizar]}, donde el
+ * umbral es una fracción (0.10 = 10 %).
+ */
+public final class BenchmarkRegressionGate {
+
+    private BenchmarkRegressionGate() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Uso: BenchmarkRegressionGate <resultados> <linea-base> <umbral> [actualizar]");
+            System.exit(2);
+        }
+        Path results = Path.of(args[0]);
+        Path baseline = Path.of(args[1]);
+        double threshold = Double.parseDouble(args[2]);
+        boolean update = args.length > 3 && Boolean.parseBoolean(args[3]);
+
+        if (update || !Files.exists(baseline)) {
+            Files.createDirectories(baseline.toAbsolutePath().getParent());
+            Files.copy(results, baseline, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("Línea base actualizada: " + baseline);
+            return;
+        }
+
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, JsonNode> current = index(mapper.readTree(results.toFile()));
+        Map<String, JsonNode> expected = index(mapper.readTree(baseline.toFile()));
+
+        int regressions = 0;
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode base = expected.get(entry.getKey());
+            if (base == null) {
+                System.out.printf("SIN LÍNEA BASE  %s%n", entry.getKey());
+                continue;
+            }
+            double score = entry.getValue().path("primaryMetric").path("score").asDouble();
+            double baseScore = base.path("primaryMetric").path("score").asDouble();
+            String unit = entry.getValue().path("primaryMetric").path("scoreUnit").asText();
+            boolean higherIsBetter = "thrpt".equals(entry.getValue().path("mode").asText());
+
+            // Cambio relativo expresado como empeoramiento: positivo es peor que la línea base
+            double worse = higherIsBetter ? (baseScore - score) / baseScore : (score - baseScore) / baseScore;
+            boolean regression = worse > threshold;
+            if (regression) {
+                regressions++;
+            }
+            System.out.printf("%-13s %s: %.3f %s (línea base %.3f, %+.1f%%)%n",
+                    regression ? "REGRESIÓN" : "OK", entry.getKey(), score, unit, baseScore, -worse * 100);
+        }
+
+        if (regressions > 0) {
+            System.err.printf("%d benchmark(s) empeoraron más de %.0f%% respecto a la línea base%n",
+                    regressions, threshold * 100);
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, JsonNode> index(JsonNode runs) {
+        Map<String, JsonNode> indexed = new LinkedHashMap<>();
+        for (JsonNode run : runs) {
+            indexed.put(key(run), run);
+        }
+        return indexed;
+    }
+
+    /**
+     * Identifica una ejecución por el benchmark, el modo y sus parámetros.
+     */
+    private static String key(JsonNode run) {
+        Map<String, String> params = new TreeMap<>();
+        JsonNode paramsNode = run.path("params");
+        for (Iterator<Map.Entry<String, JsonNode>> it = paramsNode.fields(); it.hasNext();) {
+            Map.Entry<String, JsonNode> param = it.next();
+            params.put(param.getKey(), param.getValue().asText());
+        }
+        String name = run.path("benchmark").asText().replace("com.neffi.laft.benchmark.", "");
+        return name + " [" + run.path("mode").asText() + "]" + (params.isEmpty() ? "" : " " + params);
+    }
+}
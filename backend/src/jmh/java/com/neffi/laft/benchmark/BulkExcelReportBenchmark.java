@@ -0,0 +1,50 @@
+package com.neffi.laft.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.neffi.laft.dto.BulkValidateResultDto;
+import com.neffi.laft.service.BulkExcelReportService;
+import com.neffi.laft.service.ReportMetrics;
+import com.neffi.laft.utils.Utils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Generación del informe Excel masivo con una coincidencia por cada diez
+ * registros, escrito a un stream descartado.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BulkExcelReportBenchmark {
+
+    @Param({ "1000", "10000" })
+    public int rows;
+
+    private BulkExcelReportService bulkExcelReportService;
+
+    private List<BulkValidateResultDto> results;
+
+    @Setup
+    public void setup() {
+        bulkExcelReportService = new BulkExcelReportService(new Utils(), new ReportMetrics(new SimpleMeterRegistry()));
+        results = BenchmarkData.bulkResults(rows, 10);
+    }
+
+    @Benchmark
+    public void generateBulkReportExcel() throws IOException {
+        bulkExcelReportService.generateBulkReportExcel(results, OutputStream.nullOutputStream());
+    }
+}
@@ -0,0 +1,68 @@
+package com.neffi.laft.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.neffi.laft.enums.BulkInputFormat;
+import com.neffi.laft.service.BulkRowHandler;
+import com.neffi.laft.service.BulkTextReader;
+
+/**
+ * Lectura de un archivo de validación masiva en CSV o NDJSON con las mismas
+ * filas que {@link BulkWorkbookBenchmark}; {@code readText} se compara con
+ * {@code BulkWorkbookBenchmark.readWorkbook}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BulkTextReaderBenchmark {
+
+    @Param({ "CSV", "NDJSON" })
+    public BulkInputFormat format;
+
+    @Param({ "1000", "10000" })
+    public int rows;
+
+    private Path file;
+
+    private BulkTextReader reader;
+
+    @Setup
+    public void setup() throws IOException {
+        file = BenchmarkData.bulkText(rows, format);
+        reader = new BulkTextReader();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void readText(Blackhole blackhole) throws IOException {
+        reader.read(file, format, new BulkRowHandler() {
+            @Override
+            public void header(String[] headers) {
+                blackhole.consume(headers);
+            }
+
+            @Override
+            public void row(int rowNumber, String[] cells) {
+                blackhole.consume(cells);
+            }
+        });
+    }
+}
@@ -0,0 +1,106 @@
+package com.neffi.laft.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.neffi.laft.dto.RestrictiveListEntry;
+import com.neffi.laft.service.BulkRowHandler;
+import com.neffi.laft.service.BulkValidationEngine;
+import com.neffi.laft.service.BulkWorkbookReader;
+import com.neffi.laft.service.ScreeningAdmission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Lectura de la plantilla de validación masiva, igual que en
+ * {@code validateBulk}: lectura SAX del libro y construcción de parámetros en
+ * el {@link BulkValidationEngine}. La consulta a las listas se reemplaza por un
+ * stub sin coincidencias para medir solo el procesamiento del archivo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BulkWorkbookBenchmark {
+
+    @Param({ "1000", "10000" })
+    public int rows;
+
+    private Path workbook;
+
+    private ExecutorService executor;
+
+    private BulkWorkbookReader reader;
+
+    private BulkValidationEngine engine;
+
+    @Setup
+    public void setup() throws IOException {
+        workbook = BenchmarkData.bulkWorkbook(rows);
+        executor = Executors.newFixedThreadPool(2);
+        reader = new BulkWorkbookReader();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ScreeningAdmission admission = new ScreeningAdmission(executor, 2, 10, Duration.ofSeconds(2), 2, registry);
+        engine = new BulkValidationEngine(admission, 2, 20, 100_000, registry);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        executor.shutdownNow();
+        Files.deleteIfExists(workbook);
+    }
+
+    @Benchmark
+    public void readWorkbook(Blackhole blackhole) throws IOException {
+        reader.read(workbook, new BulkRowHandler() {
+            @Override
+            public void header(String[] headers) {
+                blackhole.consume(headers);
+            }
+
+            @Override
+            public void row(int rowNumber, String[] cells) {
+                blackhole.consume(cells);
+            }
+        });
+    }
+
+    @Benchmark
+    public int parseBulk(Blackhole blackhole) throws IOException {
+        try (BulkValidationEngine.Pipeline pipeline = engine.open("bench", dtos -> {
+            List<List<RestrictiveListEntry>> results = new ArrayList<>(dtos.size());
+            dtos.forEach(dto -> results.add(List.of()));
+            return results;
+        }, blackhole::consume)) {
+            reader.read(workbook, new BulkRowHandler() {
+                @Override
+                public void header(String[] headers) {
+                    blackhole.consume(headers);
+                }
+
+                @Override
+                public void row(int rowNumber, String[] cells) {
+                    pipeline.accept(rowNumber, cells);
+                }
+            });
+            return pipeline.finish().getRows();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.neffi.laft.benchmark;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.neffi.laft.dto.RestrictiveListEntry;
+import com.neffi.laft.repository.RestrictiveListEntryMapper;
+
+/**
+ * Conversión del cursor de BUT_VALIDAR_LISTAS a {@link RestrictiveListEntry}
+ * sobre un {@code ResultSet} en memoria: el mapeador por índice contra la
+ * búsqueda por nombre en cada fila ({@link LegacyCursorMapper}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CursorMappingBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    public int rows;
+
+    private Object[][] data;
+
+    @Setup
+    public void setup() {
+        data = BenchmarkData.cursorRows(rows);
+    }
+
+    @Benchmark
+    public List<RestrictiveListEntry> mapCursor() throws SQLException {
+        return RestrictiveListEntryMapper.mapCursor(BenchmarkData.resultSet(data));
+    }
+
+    @Benchmark
+    public List<RestrictiveListEntry> mapCursorByName() throws SQLException {
+        return LegacyCursorMapper.mapCursor(BenchmarkData.resultSet(data));
+    }
+}
@@ -0,0 +1,99 @@
+package com.neffi.laft.benchmark;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.neffi.laft.utils.VirtualThreads;
+
+/**
+ * Carga de validaciones simultáneas que pasan casi todo su tiempo bloqueadas en
+ * la base de datos, como una llamada a BUT_VALIDAR_LISTAS: en hilos de
+ * plataforma (un pool del tamaño máximo por defecto de Tomcat) o en hilos
+ * virtuales. Cada operación es una validación que espera {@code latencyMillis}.
+ * Con {@code pinned} la espera ocurre dentro de un bloque {@code synchronized},
+ * como en un controlador JDBC que fija el hilo portador.
+ * <p>
+ * El modo {@code virtual} requiere Java 21, por eso la línea base solo incluye
+ * el modo de plataforma. La comparación completa se ejecuta con
+ * {@code -p mode=platform,virtual -p pinned=false,true -prof gc}. La
+ * comparación contra los endpoints reales es la prueba de carga
+ * {@code loadtest/execution-mode.js} (ver DOCKER_SETUP.md).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ExecutionModeBenchmark {
+
+    /** Validaciones en vuelo por invocación. */
+    private static final int REQUESTS = 1000;
+
+    /** Hilos máximos por defecto de Tomcat. */
+    private static final int PLATFORM_THREADS = 200;
+
+    @Param({ "platform" })
+    public String mode;
+
+    @Param({ "false" })
+    public boolean pinned;
+
+    @Param({ "5" })
+    public long latencyMillis;
+
+    private ExecutorService executor;
+
+    /** Un monitor por validación, como el de cada conexión del controlador. */
+    private final Object[] connections = new Object[REQUESTS];
+
+    @Setup
+    public void setup() {
+        for (int i = 0; i < REQUESTS; i++) {
+            connections[i] = new Object();
+        }
+        executor = "virtual".equals(mode)
+                ? VirtualThreads.newThreadPerTaskExecutor("bench-virtual-")
+                : Executors.newFixedThreadPool(PLATFORM_THREADS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public void screen() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            Object connection = connections[i];
+            executor.execute(() -> {
+                try {
+                    if (pinned) {
+                        synchronized (connection) {
+                            Thread.sleep(latencyMillis);
+                        }
+                    } else {
+                        Thread.sleep(latencyMillis);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+    }
+}
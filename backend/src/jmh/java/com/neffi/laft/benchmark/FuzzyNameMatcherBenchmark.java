@@ -0,0 +1,52 @@
+package com.neffi.laft.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.neffi.laft.service.FuzzyNameMatcher;
+
+/**
+ * Consultas por nombre aproximado contra una lista sintética de nombres de
+ * personas: consultas sin tildes, con un carácter cambiado o con los apellidos
+ * primero. El resultado es el número de consultas resueltas por segundo en un
+ * hilo, es decir, por núcleo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FuzzyNameMatcherBenchmark {
+
+    private static final int QUERIES = 1024;
+
+    @Param({ "1000000" })
+    public int names;
+
+    private FuzzyNameMatcher matcher;
+
+    private String[] queries;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        String[] list = BenchmarkData.personNames(names, 42L);
+        matcher = new FuzzyNameMatcher(list);
+        queries = BenchmarkData.perturbedNames(list, QUERIES, 7L);
+    }
+
+    @Benchmark
+    public List<FuzzyNameMatcher.Match> match() {
+        String query = queries[next++ & (QUERIES - 1)];
+        return matcher.match(query, 10, FuzzyNameMatcher.DEFAULT_MIN_SCORE, FuzzyNameMatcher.DEFAULT_MIN_TOKEN_RATIO);
+    }
+}
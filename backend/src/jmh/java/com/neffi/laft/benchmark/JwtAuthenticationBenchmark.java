@@ -0,0 +1,140 @@
+package com.neffi.laft.benchmark;
+
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+
+import com.neffi.laft.config.CachingJwtDecoder;
+import com.neffi.laft.config.KeycloakAuthoritiesConverter;
+import com.neffi.laft.config.RefreshingJwkSource;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Autenticación de una solicitud con un token de Keycloak: decodificación y
+ * conversión de roles, como en el filtro del servidor de recursos. Un
+ * {@link HttpServer} local publica el JWK set en lugar de Keycloak.
+ * {@code uncached} es la configuración por defecto de Spring Boot (firma y
+ * roles en cada solicitud) y {@code cached} la de {@code SecurityConfig}, con
+ * el mismo token repetido como en una sesión de la interfaz.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtAuthenticationBenchmark {
+
+    private static final String ISSUER = "http://127.0.0.1/realms/neffiLaft";
+
+    @Param({ "uncached", "cached" })
+    public String mode;
+
+    private HttpServer issuer;
+
+    private String token;
+
+    private JwtDecoder decoder;
+
+    private JwtAuthenticationConverter converter;
+
+    @Setup
+    public void setup() throws Exception {
+        RSAKey key = new RSAKeyGenerator(2048).keyID("bench").generate();
+        byte[] jwkSet = new JWKSet(key.toPublicJWK()).toString().getBytes(StandardCharsets.UTF_8);
+        issuer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        issuer.createContext("/certs", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, jwkSet.length);
+            exchange.getResponseBody().write(jwkSet);
+            exchange.close();
+        });
+        issuer.start();
+        String jwkSetUri = "http://127.0.0.1:" + issuer.getAddress().getPort() + "/certs";
+        token = token(key);
+
+        converter = new JwtAuthenticationConverter();
+        if ("cached".equals(mode)) {
+            DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+            jwtProcessor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256,
+                    new RefreshingJwkSource(new URL(jwkSetUri), Duration.ofHours(1), Duration.ofSeconds(30))));
+            jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> {
+            });
+            NimbusJwtDecoder nimbus = new NimbusJwtDecoder(jwtProcessor);
+            nimbus.setJwtValidator(JwtValidators.createDefaultWithIssuer(ISSUER));
+            decoder = new CachingJwtDecoder(nimbus, 10_000);
+            converter.setJwtGrantedAuthoritiesConverter(new KeycloakAuthoritiesConverter(10_000));
+        } else {
+            NimbusJwtDecoder nimbus = NimbusJwtDecoder.withJwkSetUri(jwkSetUri).build();
+            nimbus.setJwtValidator(JwtValidators.createDefaultWithIssuer(ISSUER));
+            decoder = nimbus;
+            converter.setJwtGrantedAuthoritiesConverter(KeycloakAuthoritiesConverter::extractAuthorities);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        issuer.stop(0);
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken authenticate() {
+        return converter.convert(decoder.decode(token));
+    }
+
+    /** Token con la forma de uno de Keycloak: roles de realm y de dos clientes. */
+    private static String token(RSAKey key) throws JOSEException {
+        Instant now = Instant.now();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer(ISSUER)
+                .subject("5f0c7a52-2f4e-4f7b-9a57-7d2b0c1f9e11")
+                .audience("account")
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plus(Duration.ofHours(8))))
+                .claim("azp", "neffiLaft-app")
+                .claim("preferred_username", "analista.laft")
+                .claim("name", "Analista de Cumplimiento")
+                .claim("realm_access", Map.of("roles",
+                        List.of("offline_access", "uma_authorization", "default-roles-neffilaft", "laft-analista")))
+                .claim("resource_access", Map.of(
+                        "neffiLaft-app", Map.of("roles", List.of("laft:BtnExcelDescargarListaMasivos",
+                                "laft:BtnPdfDescargarListaIndividual", "laft:ValidacionMasiva",
+                                "laft:ValidacionIndividual")),
+                        "account", Map.of("roles", List.of("manage-account", "view-profile"))))
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(),
+                claims);
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+}
@@ -0,0 +1,57 @@
+package com.neffi.laft.benchmark;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.neffi.laft.dto.RestrictiveListEntry;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Conversión del cursor por nombre de columna, como se hacía antes de
+ * {@link com.neffi.laft.repository.RestrictiveListEntryMapper}. Se conserva
+ * como referencia para {@link CursorMappingBenchmark}.
+ */
+@Slf4j
+final class LegacyCursorMapper {
+
+    private LegacyCursorMapper() {
+    }
+
+    static List<RestrictiveListEntry> mapCursor(ResultSet resultSet) throws SQLException {
+        List<RestrictiveListEntry> results = new ArrayList<>();
+        if (resultSet == null) {
+            return results;
+        }
+        while (resultSet.next()) {
+            try {
+                RestrictiveListEntry entry = RestrictiveListEntry.builder()
+                        .codigoLista(resultSet.getLong("CODIGO_LISTA"))
+                        .nombre(resultSet.getString("NOMBRE"))
+                        .tipo(resultSet.getString("TIPO"))
+                        .prioridadValidacion(resultSet.getLong("PRIORIDAD_VALIDACION"))
+                        .permiteIdentificacion(resultSet.getString("PERMITE_IDENTIFICACION"))
+                        .permiteHomonimia(resultSet.getString("PERMITE_HOMONIMIA"))
+                        .tipoDocumento(resultSet.getString("TIPO_DOCUMENTO"))
+                        .identificacion(resultSet.getString("IDENTIFICACION"))
+                        .sdnName(resultSet.getString("SDN_NAME"))
+                        .usuario(resultSet.getString("USUARIO"))
+                        .fechaActualizacion(
+                                resultSet.getObject("FECHA_ACTUALIZACION", LocalDateTime.class))
+                        .comentarios(resultSet.getString("COMENTARIOS"))
+                        .comentarios2(resultSet.getString("COMENTARIOS2"))
+                        .entNum(resultSet.getLong("ENT_NUM"))
+                        .tipoLista(resultSet.getString("TIPO_LISTA"))
+                        .descriTipoLista(resultSet.getString("DESCRI_TIPO_LISTA"))
+                        .build();
+                results.add(entry);
+            } catch (SQLException e) {
+                log.warn("Error procesando fila del resultado", e);
+            }
+        }
+        return results;
+    }
+}
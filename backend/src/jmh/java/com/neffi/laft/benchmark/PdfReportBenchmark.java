@@ -0,0 +1,49 @@
+package com.neffi.laft.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.neffi.laft.dto.RestrictiveListEntry;
+import com.neffi.laft.service.PdfReportService;
+import com.neffi.laft.service.ReportMetrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Generación del certificado PDF de una validación individual según el número
+ * de coincidencias de la tabla.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PdfReportBenchmark {
+
+    @Param({ "0", "10", "100", "1000" })
+    public int matchCount;
+
+    private PdfReportService pdfReportService;
+
+    private List<RestrictiveListEntry> matches;
+
+    @Setup
+    public void setup() {
+        pdfReportService = new PdfReportService(new ReportMetrics(new SimpleMeterRegistry()));
+        matches = BenchmarkData.matches(matchCount);
+    }
+
+    @Benchmark
+    public byte[] generateValidationReport() throws IOException {
+        return pdfReportService.generateValidationReport("1000000001", "natural", "JUAN CARLOS PEREZ GOMEZ",
+                "benchmark", matches);
+    }
+}
@@ -0,0 +1,76 @@
+package com.neffi.laft.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.neffi.laft.dto.BulkValidateResultDto;
+import com.neffi.laft.utils.CompactResults;
+
+/**
+ * Serialización de la respuesta de la validación masiva en el formato original
+ * ({@code json}) y en la forma compacta en JSON, CBOR y Smile. La conversión a
+ * la forma compacta se incluye en el tiempo medido. El tamaño de cada carga se
+ * imprime al preparar el benchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class WireFormatBenchmark {
+
+    @Param({ "json", "compact-json", "compact-cbor", "compact-smile" })
+    public String format;
+
+    @Param({ "1000" })
+    public int rows;
+
+    /** Cada cuántas filas hay una fila con coincidencias. */
+    @Param({ "1", "10" })
+    public int matchEvery;
+
+    private List<BulkValidateResultDto> results;
+
+    private ObjectMapper mapper;
+
+    private boolean compact;
+
+    @Setup
+    public void setup() throws IOException {
+        results = BenchmarkData.bulkResults(rows, matchEvery);
+        compact = format.startsWith("compact-");
+        JsonFactory factory = switch (format) {
+            case "compact-cbor" -> new CBORFactory();
+            case "compact-smile" -> SmileFactory.builder()
+                    .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                    .build();
+            default -> new JsonFactory();
+        };
+        // Como el ObjectMapper de Spring Boot: fechas en ISO-8601
+        mapper = new ObjectMapper(factory)
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        System.out.printf("%n%s, %d filas, coincidencias cada %d: %d bytes%n", format, rows, matchEvery,
+                serialize().length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return mapper.writeValueAsBytes(compact ? CompactResults.ofBulk(results) : results);
+    }
+}
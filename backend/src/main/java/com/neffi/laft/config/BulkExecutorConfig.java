@@ -0,0 +1,93 @@
+package com.neffi.laft.config;
+
+import java.sql.SQLException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.neffi.laft.utils.VirtualThreads;
+import com.zaxxer.hikari.HikariDataSource;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Configuración del pool de hilos usado por la etapa de consulta (screening) de
+ * la validación masiva. El tamaño se deriva del pool de conexiones de la base de
+ * datos para no pedir más conexiones de las que Hikari puede entregar.
+ * <p>
+ * Con {@code spring.threads.virtual.enabled} en Java 21 cada lote se ejecuta en
+ * un hilo virtual en lugar de un pool fijo; el número de lotes simultáneos lo
+ * sigue limitando el carril masivo de
+ * {@link com.neffi.laft.service.ScreeningAdmission}.
+ */
+@Slf4j
+@Configuration
+public class BulkExecutorConfig {
+
+    public static final String BULK_SCREENING_EXECUTOR = "bulkScreeningExecutor";
+
+    public static final String BULK_SCREENING_PARALLELISM = "bulkScreeningParallelism";
+
+    /** Paralelismo fijo; 0 indica que se calcula a partir del pool de conexiones. */
+    @Value("${app.bulk.screening-parallelism:0}")
+    private int configuredParallelism;
+
+    /** Conexiones que se dejan libres para las validaciones individuales. */
+    @Value("${app.bulk.reserved-connections:2}")
+    private int reservedConnections;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Bean(name = BULK_SCREENING_PARALLELISM)
+    public Integer bulkScreeningParallelism(DataSource dataSource) {
+        if (configuredParallelism > 0) {
+            log.info("Paralelismo de validación masiva configurado: {}", configuredParallelism);
+            return configuredParallelism;
+        }
+
+        int poolSize = resolvePoolSize(dataSource);
+        int parallelism = Math.max(1, poolSize - reservedConnections);
+        log.info("Paralelismo de validación masiva derivado del pool ({} conexiones): {}", poolSize, parallelism);
+        return parallelism;
+    }
+
+    @Bean(name = BULK_SCREENING_EXECUTOR, destroyMethod = "shutdownNow")
+    public ExecutorService bulkScreeningExecutor(
+            @Qualifier(BULK_SCREENING_PARALLELISM) Integer parallelism) {
+        if (virtualThreads && VirtualThreads.isSupported()) {
+            log.info("Validación masiva en hilos virtuales");
+            return VirtualThreads.newThreadPerTaskExecutor("bulk-screening-");
+        }
+        return Executors.newFixedThreadPool(parallelism, namedThreadFactory("bulk-screening-"));
+    }
+
+    private int resolvePoolSize(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            log.warn("No se pudo determinar el tamaño del pool de conexiones", e);
+        }
+        // Valor por defecto de Hikari
+        return 10;
+    }
+
+    static ThreadFactory namedThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,71 @@
+package com.neffi.laft.config;
+
+import java.sql.Driver;
+import java.sql.DriverManager;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+import com.neffi.laft.utils.VirtualThreads;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Modo de ejecución con hilos virtuales ({@code spring.threads.virtual.enabled}).
+ * En Java 21 Spring Boot atiende las peticiones de Tomcat y las tareas
+ * programadas en hilos virtuales, y {@link BulkExecutorConfig} hace lo mismo con
+ * los lotes de la validación masiva. En un JDK anterior la aplicación no
+ * arranca: la imagen de Docker usa Java 21, y pedir hilos virtuales sin
+ * tenerlos no debe terminar en hilos de plataforma sin que nadie lo note.
+ * <p>
+ * Un hilo virtual que se bloquea dentro de un bloque {@code synchronized} fija
+ * su hilo portador. Al iniciar se verifica que el controlador JDBC de Oracle sea
+ * de la versión 23 o superior, que usa locks en lugar de monitores en la ruta de
+ * E/S; para diagnosticar bloqueos fijados se puede arrancar con
+ * {@code -Djdk.tracePinnedThreads=short}.
+ */
+@Slf4j
+@Configuration
+public class ExecutionModeConfig {
+
+    /** Primera versión mayor del controlador JDBC de Oracle compatible con hilos virtuales. */
+    private static final int ORACLE_DRIVER_VIRTUAL_THREADS_VERSION = 23;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @PostConstruct
+    void checkExecutionMode() {
+        if (virtualThreads && !VirtualThreads.isSupported()) {
+            throw new IllegalStateException("spring.threads.virtual.enabled requiere Java 21 o superior (actual: "
+                    + Runtime.version() + ")");
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void logExecutionMode() {
+        if (!virtualThreads) {
+            log.info("Modo de ejecución: hilos de plataforma");
+            return;
+        }
+        log.info("Modo de ejecución: hilos virtuales para peticiones, tareas programadas y validación masiva");
+        DriverManager.drivers()
+                .filter(driver -> driver.getClass().getName().startsWith("oracle.jdbc"))
+                .findFirst()
+                .ifPresent(this::checkOracleDriver);
+    }
+
+    private void checkOracleDriver(Driver driver) {
+        if (driver.getMajorVersion() < ORACLE_DRIVER_VIRTUAL_THREADS_VERSION) {
+            log.warn("El controlador JDBC de Oracle {}.{} sincroniza la E/S con monitores y fija los hilos "
+                    + "portadores; use ojdbc11 {} o superior con hilos virtuales",
+                    driver.getMajorVersion(), driver.getMinorVersion(), ORACLE_DRIVER_VIRTUAL_THREADS_VERSION);
+        } else {
+            log.info("Controlador JDBC de Oracle {}.{} compatible con hilos virtuales",
+                    driver.getMajorVersion(), driver.getMinorVersion());
+        }
+    }
+}
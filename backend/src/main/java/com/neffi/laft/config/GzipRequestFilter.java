@@ -0,0 +1,224 @@
+package com.neffi.laft.config;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.zip.GZIPInputStream;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Descomprime los cuerpos de solicitud enviados con
+ * {@code Content-Encoding: gzip}, para que los clientes puedan comprimir los
+ * resultados que suben a los endpoints de informes. El contenido descomprimido
+ * se limita a {@code maxInflatedBytes}: si lo supera, la lectura del cuerpo
+ * falla y la solicitud se rechaza como inválida. Otras codificaciones se
+ * rechazan con 415.
+ * <p>
+ * En lectura asíncrona ({@link ServletInputStream#setReadListener}) el cuerpo
+ * comprimido se acumula sin bloquear y se descomprime al recibirlo completo.
+ */
+public class GzipRequestFilter extends OncePerRequestFilter {
+
+    private final long maxInflatedBytes;
+
+    public GzipRequestFilter(long maxInflatedBytes) {
+        this.maxInflatedBytes = maxInflatedBytes;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String encoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+        if (encoding == null || encoding.isBlank() || "identity".equalsIgnoreCase(encoding.trim())) {
+            chain.doFilter(request, response);
+        } else if ("gzip".equalsIgnoreCase(encoding.trim())) {
+            chain.doFilter(new GzipRequest(request), response);
+        } else {
+            response.sendError(HttpStatus.UNSUPPORTED_MEDIA_TYPE.value(),
+                    "Codificación de contenido no soportada: " + encoding);
+        }
+    }
+
+    /**
+     * Solicitud con el cuerpo descomprimido. Se ocultan {@code Content-Encoding}
+     * y {@code Content-Length}, que describen el cuerpo comprimido.
+     */
+    private final class GzipRequest extends HttpServletRequestWrapper {
+
+        private ServletInputStream body;
+
+        private GzipRequest(HttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (body == null) {
+                body = new InflatedInputStream(super.getInputStream());
+            }
+            return body;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return isHidden(name) ? null : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return isHidden(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            return Collections.enumeration(Collections.list(super.getHeaderNames()).stream()
+                    .filter(name -> !isHidden(name))
+                    .toList());
+        }
+
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1;
+        }
+
+        private boolean isHidden(String name) {
+            return HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name)
+                    || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name);
+        }
+    }
+
+    private final class InflatedInputStream extends ServletInputStream {
+
+        private final ServletInputStream compressed;
+
+        /** Se crea en la primera lectura: su constructor lee la cabecera GZIP. */
+        private InputStream inflated;
+
+        /** Cuerpo comprimido acumulado en lectura asíncrona; null en lectura bloqueante. */
+        private ByteArrayOutputStream pending;
+
+        private volatile boolean received;
+
+        private long count;
+
+        private boolean finished;
+
+        private InflatedInputStream(ServletInputStream compressed) {
+            this.compressed = compressed;
+        }
+
+        private InputStream inflated() throws IOException {
+            if (inflated == null) {
+                inflated = new GZIPInputStream(pending != null
+                        ? new ByteArrayInputStream(pending.toByteArray())
+                        : compressed);
+            }
+            return inflated;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = inflated().read();
+            if (b < 0) {
+                finished = true;
+            } else {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = inflated().read(buffer, offset, length);
+            if (read < 0) {
+                finished = true;
+            } else {
+                count(read);
+            }
+            return read;
+        }
+
+        private void count(int bytes) throws IOException {
+            count += bytes;
+            if (count > maxInflatedBytes) {
+                throw new IOException("El cuerpo descomprimido supera el máximo de " + maxInflatedBytes + " bytes");
+            }
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return pending == null || received;
+        }
+
+        /**
+         * Acumula el cuerpo comprimido a medida que el contenedor lo entrega y,
+         * cuando está completo, avisa al listener para que lo lea descomprimido.
+         */
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            pending = new ByteArrayOutputStream();
+            compressed.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    byte[] buffer = new byte[8192];
+                    while (compressed.isReady()) {
+                        int read = compressed.read(buffer);
+                        if (read < 0) {
+                            return;
+                        }
+                        pending.write(buffer, 0, read);
+                        if (pending.size() > maxInflatedBytes) {
+                            throw new IOException("El cuerpo comprimido supera el máximo de "
+                                    + maxInflatedBytes + " bytes");
+                        }
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() throws IOException {
+                    received = true;
+                    readListener.onDataAvailable();
+                    readListener.onAllDataRead();
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    readListener.onError(t);
+                }
+            });
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (inflated != null) {
+                inflated.close();
+            } else {
+                compressed.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.neffi.laft.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Compresión HTTP. Las respuestas JSON se comprimen en Tomcat según
+ * {@code server.compression.*} (tipos y tamaño mínimo); los flujos NDJSON y SSE
+ * no se incluyen para no retener los registros. Los cuerpos comprimidos con
+ * gzip se aceptan en los endpoints de informes, que reciben los resultados de
+ * una validación masiva.
+ */
+@Configuration
+public class HttpCompressionConfig {
+
+    @Bean
+    public FilterRegistrationBean<GzipRequestFilter> gzipRequestFilter(
+            @Value("${app.http.gzip-request.max-inflated-size:256MB}") DataSize maxInflatedSize) {
+        FilterRegistrationBean<GzipRequestFilter> registration = new FilterRegistrationBean<>(
+                new GzipRequestFilter(maxInflatedSize.toBytes()));
+        registration.addUrlPatterns("/api/laft/validate/report/*");
+        return registration;
+    }
+}
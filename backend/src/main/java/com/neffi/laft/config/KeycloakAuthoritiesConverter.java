@@ -0,0 +1,77 @@
+package com.neffi.laft.config;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Convierte los roles de Keycloak ({@code realm_access} y
+ * {@code resource_access}) en autoridades {@code ROLE_*}. El resultado se
+ * recuerda por instancia de {@link Jwt}: con {@link CachingJwtDecoder} todas las
+ * solicitudes de un mismo token reciben la misma instancia, y la entrada
+ * desaparece cuando el token sale de esa caché.
+ */
+public class KeycloakAuthoritiesConverter implements Converter<Jwt, Collection<GrantedAuthority>> {
+
+    private final Cache<Jwt, Collection<GrantedAuthority>> authorities;
+
+    public KeycloakAuthoritiesConverter(long maxEntries) {
+        // weakKeys compara por identidad
+        this.authorities = Caffeine.newBuilder()
+                .weakKeys()
+                .maximumSize(maxEntries)
+                .build();
+    }
+
+    @Override
+    public Collection<GrantedAuthority> convert(Jwt jwt) {
+        return authorities.get(jwt, KeycloakAuthoritiesConverter::extractAuthorities);
+    }
+
+    public static Collection<GrantedAuthority> extractAuthorities(Jwt jwt) {
+        List<GrantedAuthority> authorities = new ArrayList<>();
+
+        // Extract realm roles from Keycloak token
+        Map<String, Object> realmAccess = jwt.getClaimAsMap("realm_access");
+        if (realmAccess != null) {
+            Object rolesObj = realmAccess.get("roles");
+            if (rolesObj instanceof List<?>) {
+                List<?> rawRoles = (List<?>) rolesObj;
+                for (Object role : rawRoles) {
+                    if (role instanceof String) {
+                        authorities.add(new SimpleGrantedAuthority("ROLE_" + ((String) role).toUpperCase()));
+                    }
+                }
+            }
+        }
+
+        // Extract resource roles from Keycloak token
+        Map<String, Object> resourceAccess = jwt.getClaimAsMap("resource_access");
+        if (resourceAccess != null) {
+            resourceAccess.values().forEach(resource -> {
+                if (resource instanceof Map) {
+                    Object rolesObj = ((Map<?, ?>) resource).get("roles");
+                    if (rolesObj instanceof List<?>) {
+                        List<?> rawRoles = (List<?>) rolesObj;
+                        for (Object role : rawRoles) {
+                            if (role instanceof String) {
+                                authorities.add(new SimpleGrantedAuthority("ROLE_" + ((String) role).toUpperCase()));
+                            }
+                        }
+                    }
+                }
+            });
+        }
+
+        return List.copyOf(authorities);
+    }
+}
@@ -0,0 +1,78 @@
+package com.neffi.laft.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import com.neffi.laft.service.RestrictiveListReplica;
+import com.neffi.laft.service.ScreeningResultCache;
+import com.neffi.laft.service.TiposDocumentosService;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Registra como métricas las estadísticas que ya llevan los componentes en
+ * memoria: el catálogo de tipos de documento, la caché de resultados de
+ * validación, la caché de tokens verificados y la réplica de listas
+ * restrictivas. Las métricas del pool de
+ * conexiones (hikaricp.*) las registra Spring Boot automáticamente.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder tiposDocumentosCatalogMetrics(TiposDocumentosService tiposDocumentosService) {
+        return registry -> {
+            Gauge.builder("laft.catalog.size", tiposDocumentosService, TiposDocumentosService::getCatalogSize)
+                    .description("Tipos de documento en el catálogo en memoria")
+                    .tag("catalog", "tipos-documentos")
+                    .register(registry);
+            FunctionCounter.builder("laft.catalog.lookups", tiposDocumentosService,
+                    TiposDocumentosService::getCatalogHits)
+                    .tag("catalog", "tipos-documentos")
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("laft.catalog.lookups", tiposDocumentosService,
+                    TiposDocumentosService::getCatalogMisses)
+                    .tag("catalog", "tipos-documentos")
+                    .tag("result", "miss")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder screeningCacheMetrics(ScreeningResultCache screeningResultCache) {
+        return registry -> {
+            CaffeineCacheMetrics.monitor(registry, screeningResultCache.nativeCache(), "screening");
+            Gauge.builder("laft.screening.cache.pending.audits", screeningResultCache,
+                    ScreeningResultCache::pendingAudits)
+                    .description("Auditorías de aciertos en caché pendientes de registrar")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder jwtCacheMetrics(JwtDecoder jwtDecoder) {
+        return registry -> {
+            if (jwtDecoder instanceof CachingJwtDecoder cachingJwtDecoder) {
+                CaffeineCacheMetrics.monitor(registry, cachingJwtDecoder.nativeCache(), "jwt");
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder restrictiveListReplicaMetrics(RestrictiveListReplica replica) {
+        return registry -> {
+            Gauge.builder("laft.replica.rows", replica, RestrictiveListReplica::size)
+                    .description("Filas en la réplica local de listas restrictivas")
+                    .register(registry);
+            Gauge.builder("laft.replica.sync.age", replica, RestrictiveListReplica::secondsSinceSync)
+                    .description("Segundos desde la última sincronización de la réplica; -1 si nunca se ha sincronizado")
+                    .baseUnit("seconds")
+                    .register(registry);
+        };
+    }
+}
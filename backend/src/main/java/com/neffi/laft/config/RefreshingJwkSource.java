@@ -0,0 +1,101 @@
+package com.neffi.laft.config;
+
+import java.io.IOException;
+import java.net.URL;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Claves públicas de Keycloak (JWK set) en memoria. Se vuelven a descargar
+ * cada {@code refreshInterval} y, cuando llega un token firmado con una clave
+ * desconocida (rotación de claves en Keycloak), de inmediato, pero no más de
+ * una vez cada {@code minRefreshInterval}: un token con un {@code kid}
+ * inventado no provoca una descarga por solicitud. Si la descarga falla se
+ * conservan las claves anteriores.
+ */
+@Slf4j
+public class RefreshingJwkSource implements JWKSource<SecurityContext> {
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 2000;
+
+    private static final int READ_TIMEOUT_MILLIS = 2000;
+
+    private static final int SIZE_LIMIT_BYTES = 50 * 1024;
+
+    private final URL jwkSetUrl;
+
+    private final long refreshIntervalNanos;
+
+    private final long minRefreshIntervalNanos;
+
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private volatile JWKSet jwkSet;
+
+    /** Momento del último intento de descarga; se escribe solo con {@code refreshLock}. */
+    private volatile long checkedAt;
+
+    public RefreshingJwkSource(URL jwkSetUrl, Duration refreshInterval, Duration minRefreshInterval) {
+        this.jwkSetUrl = jwkSetUrl;
+        this.refreshIntervalNanos = refreshInterval.toNanos();
+        this.minRefreshIntervalNanos = minRefreshInterval.toNanos();
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector selector, SecurityContext context) throws KeySourceException {
+        JWKSet current = jwkSet;
+        if (current == null || System.nanoTime() - checkedAt > refreshIntervalNanos) {
+            current = refresh(current, refreshIntervalNanos);
+        }
+        List<JWK> keys = selector.select(current);
+        if (keys.isEmpty()) {
+            JWKSet refreshed = refresh(current, minRefreshIntervalNanos);
+            if (refreshed != current) {
+                keys = selector.select(refreshed);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Descarga el JWK set si nadie lo actualizó desde {@code seen} y el último
+     * intento es más antiguo que {@code maxAgeNanos}.
+     */
+    private JWKSet refresh(JWKSet seen, long maxAgeNanos) throws KeySourceException {
+        refreshLock.lock();
+        try {
+            JWKSet current = jwkSet;
+            if (current != seen || (current != null && System.nanoTime() - checkedAt <= maxAgeNanos)) {
+                return current;
+            }
+            checkedAt = System.nanoTime();
+            try {
+                jwkSet = JWKSet.load(jwkSetUrl, CONNECT_TIMEOUT_MILLIS, READ_TIMEOUT_MILLIS, SIZE_LIMIT_BYTES);
+                log.info("JWK set de {} actualizado: {} claves", jwkSetUrl, jwkSet.getKeys().size());
+                return jwkSet;
+            } catch (IOException | ParseException e) {
+                if (current == null) {
+                    throw new KeySourceException("No se pudo descargar el JWK set de " + jwkSetUrl, e);
+                }
+                // Se reintenta después del intervalo mínimo, no del periódico
+                checkedAt = System.nanoTime() - refreshIntervalNanos + minRefreshIntervalNanos;
+                log.warn("No se pudo actualizar el JWK set de {}; se conservan las claves anteriores: {}",
+                        jwkSetUrl, e.getMessage());
+                return current;
+            }
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.neffi.laft.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Configuración del pool de hilos que genera los informes PDF de una validación
+ * masiva. La generación es solo CPU, por lo que el tamaño se deriva de los
+ * procesadores disponibles y no del pool de conexiones.
+ */
+@Slf4j
+@Configuration
+public class ReportExecutorConfig {
+
+    public static final String PDF_REPORT_EXECUTOR = "pdfReportExecutor";
+
+    /** Hilos fijos; 0 indica que se usa el número de procesadores. */
+    @Value("${app.report.pdf.parallelism:0}")
+    private int configuredParallelism;
+
+    @Bean(name = PDF_REPORT_EXECUTOR, destroyMethod = "shutdownNow")
+    public ExecutorService pdfReportExecutor() {
+        int parallelism = configuredParallelism > 0
+                ? configuredParallelism
+                : Runtime.getRuntime().availableProcessors();
+        log.info("Paralelismo de generación de informes PDF: {}", parallelism);
+        return Executors.newFixedThreadPool(parallelism,
+                BulkExecutorConfig.namedThreadFactory("pdf-report-"));
+    }
+}
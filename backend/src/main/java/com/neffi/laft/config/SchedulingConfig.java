@@ -0,0 +1,12 @@
+package com.neffi.laft.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita las tareas programadas (recarga de catálogos en memoria).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,23 +1,28 @@
 package com.neffi.laft.config;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
-import java.util.Map;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.time.Duration;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.web.SecurityFilterChain;
 
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+
 import lombok.RequiredArgsConstructor;
 
 @Configuration
@@ -29,6 +34,29 @@ public class SecurityConfig {
     @Value("${app.bypass-auth:false}")
     private boolean bypassAuth;
 
+    /** Puerto de actuator; -1 si comparte el puerto de la aplicación. */
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
+    /** Rol de Keycloak (en mayúsculas, sin {@code ROLE_}) de las operaciones de administración. */
+    @Value("${app.security.admin-role:ADMIN}")
+    private String adminRole;
+
+    @Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri}")
+    private String jwkSetUri;
+
+    @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}")
+    private String issuerUri;
+
+    @Value("${app.security.jwt-cache.max-entries:10000}")
+    private long jwtCacheMaxEntries;
+
+    @Value("${app.security.jwk.refresh-interval:PT1H}")
+    private Duration jwkRefreshInterval;
+
+    @Value("${app.security.jwk.min-refresh-interval:PT30S}")
+    private Duration jwkMinRefreshInterval;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         if (bypassAuth) {
@@ -42,7 +70,11 @@ public class SecurityConfig {
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
                     .requestMatchers("/actuator/health").permitAll()
+                    // Las métricas solo son públicas en el puerto de administración, que no se expone
+                    .requestMatchers(request -> request.getLocalPort() == managementPort
+                            && "/actuator/prometheus".equals(request.getRequestURI())).permitAll()
                     .requestMatchers("/api/auth/keycloak-config").permitAll()
+                    .requestMatchers(HttpMethod.POST, "/api/laft/tipos-documentos/refresh").hasRole(adminRole)
                     .anyRequest().authenticated()
                 )
                 .oauth2ResourceServer(oauth2 -> oauth2
@@ -53,48 +85,32 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * Decodificador de los tokens de Keycloak: verifica la firma con el JWK set
+     * en memoria ({@link RefreshingJwkSource}) y el emisor, y recuerda los
+     * tokens verificados hasta su expiración ({@link CachingJwtDecoder}).
+     * Con {@code app.security.jwt-cache.max-entries} en 0 cada solicitud se
+     * verifica completa.
+     */
+    @Bean
+    public JwtDecoder jwtDecoder() throws MalformedURLException {
+        DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256,
+                new RefreshingJwkSource(new URL(jwkSetUri), jwkRefreshInterval, jwkMinRefreshInterval)));
+        // Las validaciones de tiempos y emisor las hace Spring Security
+        jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+        NimbusJwtDecoder decoder = new NimbusJwtDecoder(jwtProcessor);
+        decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(issuerUri));
+        return jwtCacheMaxEntries > 0 ? new CachingJwtDecoder(decoder, jwtCacheMaxEntries) : decoder;
+    }
+
     @Bean
     public JwtAuthenticationConverter jwtAuthenticationConverter() {
         JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
-        converter.setJwtGrantedAuthoritiesConverter(this::extractAuthorities);
+        converter.setJwtGrantedAuthoritiesConverter(jwtCacheMaxEntries > 0
+                ? new KeycloakAuthoritiesConverter(jwtCacheMaxEntries)
+                : KeycloakAuthoritiesConverter::extractAuthorities);
         return converter;
     }
-
-    private Collection<GrantedAuthority> extractAuthorities(Jwt jwt) {
-        List<GrantedAuthority> authorities = new ArrayList<>();
-
-        // Extract realm roles from Keycloak token
-        Map<String, Object> realmAccess = jwt.getClaimAsMap("realm_access");
-        if (realmAccess != null) {
-            Object rolesObj = realmAccess.get("roles");
-            if (rolesObj instanceof List<?>) {
-                List<?> rawRoles = (List<?>) rolesObj;
-                for (Object role : rawRoles) {
-                    if (role instanceof String) {
-                        authorities.add(new SimpleGrantedAuthority("ROLE_" + ((String) role).toUpperCase()));
-                    }
-                }
-            }
-        }
-
-        // Extract resource roles from Keycloak token
-        Map<String, Object> resourceAccess = jwt.getClaimAsMap("resource_access");
-        if (resourceAccess != null) {
-            resourceAccess.values().forEach(resource -> {
-                if (resource instanceof Map) {
-                    Object rolesObj = ((Map<?, ?>) resource).get("roles");
-                    if (rolesObj instanceof List<?>) {
-                        List<?> rawRoles = (List<?>) rolesObj;
-                        for (Object role : rawRoles) {
-                            if (role instanceof String) {
-                                authorities.add(new SimpleGrantedAuthority("ROLE_" + ((String) role).toUpperCase()));
-                            }
-                        }
-                    }
-                }
-            });
-        }
-
-        return authorities;
-    }
 }
@@ -1,31 +1,57 @@
 package com.neffi.laft.controller;
 
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 
-import org.apache.poi.ss.usermodel.Workbook;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.neffi.laft.dto.BulkJobStatusDto;
+import com.neffi.laft.dto.BulkRunSummaryDto;
+import com.neffi.laft.dto.BulkStreamRecordDto;
 import com.neffi.laft.dto.BulkValidateResultDto;
+import com.neffi.laft.dto.CompactValidationDto;
 import com.neffi.laft.dto.RestrictiveListEntry;
 import com.neffi.laft.dto.TiposDocumentosDTO;
 import com.neffi.laft.dto.ValidateClientDto;
+import com.neffi.laft.enums.BulkJobState;
+import com.neffi.laft.exception.AdmissionRejectedException;
+import com.neffi.laft.service.BulkExcelReportService;
+import com.neffi.laft.service.BulkPdfReportService;
+import com.neffi.laft.service.BulkResultStore;
+import com.neffi.laft.service.BulkResultStreamWriter;
 import com.neffi.laft.service.PdfReportService;
+import com.neffi.laft.service.RestrictiveListReplica;
 import com.neffi.laft.service.RestrictiveListService;
+import com.neffi.laft.service.ScreeningAdmission;
+import com.neffi.laft.service.ScreeningResultCache;
 import com.neffi.laft.service.TiposDocumentosService;
+import com.neffi.laft.utils.CompactResults;
 import com.neffi.laft.utils.Utils;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -40,30 +66,98 @@ public class RestrictiveListController {
 
     private final RestrictiveListService restrictiveListService;
     private final PdfReportService pdfReportService;
+    private final BulkPdfReportService bulkPdfReportService;
+    private final BulkExcelReportService bulkExcelReportService;
+    private final BulkResultStore bulkResultStore;
     private final TiposDocumentosService tiposDocumentosService;
+    private final ScreeningResultCache screeningResultCache;
+    private final RestrictiveListReplica restrictiveListReplica;
+    private final ScreeningAdmission screeningAdmission;
+    private final ObjectMapper objectMapper;
     private final Utils utils;
 
     @Value("${app.bypass-auth:false}")
     private boolean bypassAuth;
 
+    @Value("${app.bulk.stream.progress-interval:PT1S}")
+    private Duration bulkStreamProgressInterval;
+
     /**
      * Valida un cliente contra las listas restrictivas ejecutando la función
      * BUT_VALIDAR_LISTAS con los parámetros proporcionados.
+     * <p>
+     * Con un {@code Accept} compacto (ver {@link CompactResults}) las
+     * coincidencias se envían en la forma {@link CompactValidationDto}.
      * 
      * @param dto
+     * @param accept  tipos aceptados por el cliente
      * @param request
-     * @return
+     * @return coincidencias, o 503 si el carril interactivo está saturado
      */
     @PostMapping
-    public ResponseEntity<List<RestrictiveListEntry>> validateClient(
-            @RequestBody ValidateClientDto dto, HttpServletRequest request) {
+    public ResponseEntity<?> validateClient(
+            @RequestBody ValidateClientDto dto,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            HttpServletRequest request) {
         String clientIp = utils.getClientIp(request);
         log.info("Peticion recibida desde IP: {} - Documento: {}, Nombre: {}",
                 clientIp, dto.getP_IDENTIFICACION(), dto.getP_NOMBRE_1());
 
-        List<RestrictiveListEntry> results = restrictiveListService.validateClient(dto,
-                request.getRequestURL().toString());
-        return ResponseEntity.ok(results);
+        try {
+            List<RestrictiveListEntry> results = restrictiveListService.validateClient(dto,
+                    request.getRequestURL().toString());
+            return ResponseEntity.ok(CompactResults.isRequested(accept) ? CompactResults.of(results) : results);
+        } catch (AdmissionRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Consulta previa de un cliente en la réplica local de las listas. No
+     * ejecuta BUT_VALIDAR_LISTAS ni registra auditoría: sirve para
+     * prevalidaciones y vistas previas, no como validación oficial.
+     * 
+     * @param dto datos del cliente
+     * @return coincidencias por identificación o nombre
+     */
+    @PostMapping("/preview")
+    public ResponseEntity<?> previewClient(@RequestBody ValidateClientDto dto) {
+        try {
+            return ResponseEntity.ok(restrictiveListReplica.search(dto));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Busca en la réplica local los nombres parecidos al del cliente, para
+     * detectar homónimos con otro orden de nombres y apellidos, sin tildes o con
+     * errores de digitación. No ejecuta BUT_VALIDAR_LISTAS ni registra
+     * auditoría.
+     * 
+     * @param dto datos del cliente
+     * @return coincidencias con su puntaje, de mayor a menor
+     */
+    @PostMapping("/preview/names")
+    public ResponseEntity<?> previewSimilarNames(@RequestBody ValidateClientDto dto) {
+        try {
+            return ResponseEntity.ok(restrictiveListReplica.searchSimilarNames(dto));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Consulta el estado de la réplica local de las listas.
+     * 
+     * @return filas, versión y fecha de la última sincronización
+     */
+    @GetMapping("/replica/stats")
+    public ResponseEntity<Map<String, Object>> getReplicaStats() {
+        return ResponseEntity.ok(restrictiveListReplica.stats());
     }
 
     /**
@@ -79,14 +173,7 @@ public class RestrictiveListController {
             @RequestBody List<RestrictiveListEntry> data,
             @AuthenticationPrincipal Jwt jwt) {
         try {
-            String userName = "Usuario del sistema";
-            if (bypassAuth || jwt == null) {
-                userName = "Usuario de Desarrollo";
-            } else if (jwt.getClaimAsString("name") != null) {
-                userName = jwt.getClaimAsString("name");
-            } else if (jwt.getClaimAsString("preferred_username") != null) {
-                userName = jwt.getClaimAsString("preferred_username");
-            }
+            String userName = resolveUserName(jwt);
 
             TiposDocumentosDTO tiposDocumentos = tiposDocumentosService
                     .getTiposDocumentosByCodHomologa(data.get(0).getTipoDocumento());
@@ -108,29 +195,209 @@ public class RestrictiveListController {
         }
     }
 
-    @GetMapping("/bulk/template")
-    public ResponseEntity<byte[]> downloadTemplate() {
-        try (Workbook workbook = restrictiveListService.generateBulkTemplate();
-                ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            workbook.write(out);
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=plantilla_validacion_listas.xlsx")
-                    .contentType(MediaType
-                            .parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
-                    .body(out.toByteArray());
-        } catch (Exception e) {
-            log.error("Error generando plantilla", e);
+    /**
+     * Genera un informe PDF por cada sujeto de una validación masiva y los
+     * entrega en un archivo ZIP. Los informes se generan en paralelo y se
+     * escriben en la respuesta a medida que terminan.
+     * 
+     * @param data    resultados de la validación masiva
+     * @param jwt     token del usuario autenticado
+     * @param request la solicitud HTTP
+     * @return archivo ZIP con los informes PDF
+     */
+    @PostMapping("/report/pdf/bulk")
+    public ResponseEntity<StreamingResponseBody> generateBulkReportPdf(
+            @RequestBody List<BulkValidateResultDto> data,
+            @AuthenticationPrincipal Jwt jwt,
+            HttpServletRequest request) {
+        String clientIp = utils.getClientIp(request);
+        log.info("Generando informes PDF masivos desde IP: {} - Sujetos: {}", clientIp, data.size());
+        return bulkReportPdf(data, resolveUserName(jwt));
+    }
+
+    /**
+     * Genera los informes PDF por sujeto de una validación masiva guardada en
+     * el servidor, sin que el cliente vuelva a enviar los resultados.
+     * 
+     * @param resultId identificador retornado por {@code /bulk} en
+     *                 {@code X-Bulk-Result-Id}; solo lo puede usar el usuario
+     *                 que hizo la validación, para los demás responde 404
+     * @param jwt      token del usuario autenticado
+     * @param request  la solicitud HTTP
+     * @return archivo ZIP con los informes PDF, o 404 si el resultado expiró
+     */
+    @GetMapping("/report/pdf/bulk/{resultId}")
+    public ResponseEntity<StreamingResponseBody> generateBulkReportPdf(@PathVariable String resultId,
+            @AuthenticationPrincipal Jwt jwt,
+            HttpServletRequest request) {
+        List<BulkValidateResultDto> data;
+        try {
+            data = bulkResultStore.get(resultId, utils.getCurrentUsername());
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IOException e) {
+            log.error("Error leyendo resultado de validación masiva {}", resultId, e);
             return ResponseEntity.internalServerError().build();
         }
+        log.info("Generando informes PDF masivos desde IP: {} - Resultado: {}, Sujetos: {}",
+                utils.getClientIp(request), resultId, data.size());
+        return bulkReportPdf(data, resolveUserName(jwt));
+    }
+
+    private ResponseEntity<StreamingResponseBody> bulkReportPdf(List<BulkValidateResultDto> data,
+            String userName) {
+        StreamingResponseBody body = out -> {
+            try {
+                bulkPdfReportService.writeZip(data, userName, out);
+            } catch (IOException | RuntimeException e) {
+                log.error("Error generando informes PDF masivos", e);
+                throw e;
+            }
+        };
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=informes_validacion_listas.zip")
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(body);
+    }
+
+    /**
+     * Genera un único informe PDF con los resultados de una validación masiva:
+     * un resumen de todos los sujetos seguido del detalle de coincidencias de
+     * cada uno. El documento se escribe en streaming sobre la respuesta.
+     * 
+     * @param data    resultados de la validación masiva
+     * @param jwt     token del usuario autenticado
+     * @param request la solicitud HTTP
+     * @return informe PDF consolidado
+     */
+    @PostMapping("/report/pdf/bulk/consolidated")
+    public ResponseEntity<StreamingResponseBody> generateConsolidatedReportPdf(
+            @RequestBody List<BulkValidateResultDto> data,
+            @AuthenticationPrincipal Jwt jwt,
+            HttpServletRequest request) {
+        String clientIp = utils.getClientIp(request);
+        log.info("Generando informe PDF consolidado desde IP: {} - Sujetos: {}", clientIp, data.size());
+        return consolidatedReportPdf(data, resolveUserName(jwt));
+    }
+
+    /**
+     * Genera el informe PDF consolidado de una validación masiva guardada en el
+     * servidor.
+     * 
+     * @param resultId identificador retornado por {@code /bulk} en
+     *                 {@code X-Bulk-Result-Id}; solo lo puede usar el usuario
+     *                 que hizo la validación, para los demás responde 404
+     * @param jwt      token del usuario autenticado
+     * @param request  la solicitud HTTP
+     * @return informe PDF consolidado, o 404 si el resultado expiró
+     */
+    @GetMapping("/report/pdf/bulk/consolidated/{resultId}")
+    public ResponseEntity<StreamingResponseBody> generateConsolidatedReportPdf(@PathVariable String resultId,
+            @AuthenticationPrincipal Jwt jwt,
+            HttpServletRequest request) {
+        List<BulkValidateResultDto> data;
+        try {
+            data = bulkResultStore.get(resultId, utils.getCurrentUsername());
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IOException e) {
+            log.error("Error leyendo resultado de validación masiva {}", resultId, e);
+            return ResponseEntity.internalServerError().build();
+        }
+        log.info("Generando informe PDF consolidado desde IP: {} - Resultado: {}, Sujetos: {}",
+                utils.getClientIp(request), resultId, data.size());
+        return consolidatedReportPdf(data, resolveUserName(jwt));
+    }
+
+    private ResponseEntity<StreamingResponseBody> consolidatedReportPdf(List<BulkValidateResultDto> data,
+            String userName) {
+        StreamingResponseBody body = out -> {
+            try {
+                pdfReportService.generateBulkReport(data, userName, out);
+            } catch (IOException | RuntimeException e) {
+                log.error("Error generando informe PDF consolidado", e);
+                throw e;
+            }
+        };
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=informe_validacion_listas_masivo.pdf")
+                .contentType(MediaType.APPLICATION_PDF)
+                .body(body);
+    }
+
+    /**
+     * Nombre del usuario que aparece en los informes, tomado del token.
+     */
+    private String resolveUserName(Jwt jwt) {
+        if (bypassAuth || jwt == null) {
+            return "Usuario de Desarrollo";
+        }
+        if (jwt.getClaimAsString("name") != null) {
+            return jwt.getClaimAsString("name");
+        }
+        if (jwt.getClaimAsString("preferred_username") != null) {
+            return jwt.getClaimAsString("preferred_username");
+        }
+        return "Usuario del sistema";
+    }
+
+    /**
+     * Descarga la plantilla de validación masiva, generada al iniciar la
+     * aplicación. La respuesta lleva ETag: si el cliente ya tiene la plantilla
+     * ({@code If-None-Match}) se responde 304 sin contenido.
+     * 
+     * @return plantilla XLSX
+     */
+    @GetMapping("/bulk/template")
+    public ResponseEntity<byte[]> downloadTemplate() {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=plantilla_validacion_listas.xlsx")
+                .contentType(MediaType
+                        .parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
+                .eTag(restrictiveListService.getBulkTemplateETag())
+                .cacheControl(CacheControl.noCache())
+                .body(restrictiveListService.getBulkTemplate());
     }
 
+    /**
+     * Valida masivamente un archivo (XLSX, CSV o NDJSON). Los resultados
+     * quedan guardados en el servidor y su identificador se retorna en
+     * {@code X-Bulk-Result-Id}, para pedir los informes sin volver a enviarlos.
+     * Con un {@code Accept} compacto (ver {@link CompactResults}) los
+     * resultados se envían en la forma {@link CompactValidationDto}.
+     * 
+     * @param file    archivo con los datos a validar
+     * @param accept  tipos aceptados por el cliente
+     * @param request la solicitud HTTP
+     * @return resultados de la validación en el orden de las filas, o 400 si
+     *         el archivo no tiene encabezados válidos o un registro supera el
+     *         tamaño máximo
+     */
     @PostMapping("/bulk")
     public ResponseEntity<?> validateBulk(@RequestParam("file") MultipartFile file,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
             HttpServletRequest request) {
         try {
             String clientIp = utils.getClientIp(request);
-            List<BulkValidateResultDto> results = restrictiveListService.validateBulk(file, clientIp);
-            return ResponseEntity.ok(results);
+            BulkRunSummaryDto[] summary = new BulkRunSummaryDto[1];
+            List<BulkValidateResultDto> results = restrictiveListService.validateBulk(file, clientIp,
+                    run -> summary[0] = run);
+            return ResponseEntity.ok()
+                    .header("X-Bulk-Result-Id", bulkResultStore.put(utils.getCurrentUsername(), results))
+                    .header("X-Bulk-Rows", String.valueOf(summary[0].getRows()))
+                    .header("X-Bulk-Screenings", String.valueOf(summary[0].getScreenings()))
+                    .header("X-Bulk-Calls-Saved", String.valueOf(summary[0].getCallsSaved()))
+                    .body(CompactResults.isRequested(accept) ? CompactResults.ofBulk(results) : results);
+        } catch (AdmissionRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             log.error("Error procesando archivo Excel", e);
             return ResponseEntity.internalServerError()
@@ -138,40 +405,234 @@ public class RestrictiveListController {
         }
     }
 
+    /**
+     * Valida masivamente un archivo (XLSX, CSV o NDJSON) y envía cada resultado
+     * en cuanto se obtiene, en NDJSON o, si el cliente acepta
+     * {@code text/event-stream}, como eventos SSE. Se intercalan registros de avance y al final se envía el
+     * resumen; un error después de iniciada la respuesta se informa con un
+     * registro de tipo {@code error}.
+     * 
+     * @param file    archivo XLSX, CSV o NDJSON con los datos a validar
+     * @param accept  tipos aceptados por el cliente
+     * @param request la solicitud HTTP
+     * @return flujo de registros {@link BulkStreamRecordDto}
+     */
+    @PostMapping("/bulk/stream")
+    public ResponseEntity<?> streamBulk(@RequestParam("file") MultipartFile file,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            HttpServletRequest request) {
+        String clientIp = utils.getClientIp(request);
+        boolean sse = accept != null && MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(MediaType.TEXT_EVENT_STREAM::equalsTypeAndSubtype);
+        InputStream input;
+        try {
+            screeningAdmission.acquireBulkRequest();
+        } catch (AdmissionRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", e.getMessage()));
+        }
+        try {
+            // Se abre antes de responder: el archivo temporal de la carga se
+            // libera al terminar la petición original
+            input = file.getInputStream();
+        } catch (IOException e) {
+            screeningAdmission.releaseBulkRequest();
+            log.error("Error leyendo archivo Excel", e);
+            return ResponseEntity.internalServerError()
+                    .body(Map.of("error", e.getMessage()));
+        }
+
+        StreamingResponseBody body = out -> {
+            BulkResultStreamWriter writer = new BulkResultStreamWriter(objectMapper, out, sse,
+                    bulkStreamProgressInterval);
+            try (InputStream in = input) {
+                writer.summary(restrictiveListService.streamBulk(in, file.getOriginalFilename(), clientIp,
+                        writer::result));
+            } catch (UncheckedIOException e) {
+                log.warn("Validación masiva en streaming cancelada: el cliente cerró la conexión");
+            } catch (IOException | RuntimeException e) {
+                log.error("Error procesando archivo Excel en streaming", e);
+                writer.error(e.getMessage());
+            } finally {
+                screeningAdmission.releaseBulkRequest();
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(sse ? MediaType.TEXT_EVENT_STREAM : MediaType.APPLICATION_NDJSON)
+                .cacheControl(CacheControl.noCache())
+                .header("X-Accel-Buffering", "no")
+                .body(body);
+    }
+
+    /**
+     * Registra un trabajo asíncrono de validación masiva y retorna su
+     * identificador sin esperar a que termine.
+     * 
+     * @param file    archivo XLSX, CSV o NDJSON con los datos a validar
+     * @param request la solicitud HTTP
+     * @return estado inicial del trabajo
+     */
+    @PostMapping("/bulk/jobs")
+    public ResponseEntity<?> submitBulkJob(@RequestParam("file") MultipartFile file,
+            HttpServletRequest request) {
+        try {
+            String clientIp = utils.getClientIp(request);
+            BulkJobStatusDto status = restrictiveListService.submitBulkJob(file, clientIp);
+            return ResponseEntity.accepted().body(status);
+        } catch (AdmissionRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error registrando trabajo de validación masiva", e);
+            return ResponseEntity.internalServerError()
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Consulta el progreso de un trabajo de validación masiva: filas procesadas,
+     * filas totales, coincidencias encontradas y tiempo restante estimado. Solo
+     * el usuario que registró el trabajo lo puede consultar; para los demás
+     * responde 404.
+     * 
+     * @param jobId identificador del trabajo
+     * @return estado del trabajo
+     */
+    @GetMapping("/bulk/jobs/{jobId}")
+    public ResponseEntity<BulkJobStatusDto> getBulkJob(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(restrictiveListService.getBulkJob(jobId));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Cancela un trabajo de validación masiva en cola o en ejecución del usuario
+     * actual.
+     * 
+     * @param jobId identificador del trabajo
+     * @return estado del trabajo
+     */
+    @DeleteMapping("/bulk/jobs/{jobId}")
+    public ResponseEntity<BulkJobStatusDto> cancelBulkJob(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(restrictiveListService.cancelBulkJob(jobId));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Retorna los resultados de un trabajo terminado del usuario actual, con el
+     * mismo formato que la validación masiva síncrona.
+     * 
+     * @param jobId identificador del trabajo
+     * @return resultados de la validación
+     */
+    @GetMapping("/bulk/jobs/{jobId}/results")
+    public ResponseEntity<?> getBulkJobResults(@PathVariable String jobId) {
+        BulkJobStatusDto status;
+        try {
+            status = restrictiveListService.getBulkJob(jobId);
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        }
+
+        if (status.getState() != BulkJobState.COMPLETED) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "El trabajo no ha terminado. Estado actual: " + status.getState()));
+        }
+
+        StreamingResponseBody body = out -> restrictiveListService.writeBulkJobResults(jobId, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
     /**
      * Genera un informe Excel con los resultados de la validación masiva contra
      * listas restrictivas.
-     * Procesa el archivo Excel proporcionado y retorna un Excel con los resultados
-     * en dos hojas:
-     * una con el resumen de coincidencias y otra con los detalles de las
-     * coincidencias encontradas.
+     * El archivo se escribe en streaming directamente sobre la respuesta, con
+     * dos hojas: una con el resumen de coincidencias y otra con los detalles de
+     * las coincidencias encontradas.
      * 
-     * @param file    archivo Excel con los datos a validar
+     * @param data    resultados de la validación masiva
      * @param request la solicitud HTTP
      * @return archivo Excel con los resultados de la validación
      */
     @PostMapping("/report/excel")
-    public ResponseEntity<byte[]> generateBulkReportExcel(@RequestBody List<BulkValidateResultDto> data,
+    public ResponseEntity<StreamingResponseBody> generateBulkReportExcel(
+            @RequestBody List<BulkValidateResultDto> data,
+            HttpServletRequest request) {
+        String clientIp = utils.getClientIp(request);
+        log.info("Generando reporte Excel masivo desde IP: {}", clientIp);
+        return bulkReportExcel(data);
+    }
+
+    /**
+     * Genera el informe Excel de una validación masiva guardada en el servidor,
+     * sin que el cliente vuelva a enviar los resultados.
+     * 
+     * @param resultId identificador retornado por {@code /bulk} en
+     *                 {@code X-Bulk-Result-Id}; solo lo puede usar el usuario
+     *                 que hizo la validación, para los demás responde 404
+     * @param request  la solicitud HTTP
+     * @return archivo Excel con los resultados, o 404 si el resultado expiró
+     */
+    @GetMapping("/report/excel/{resultId}")
+    public ResponseEntity<StreamingResponseBody> generateBulkReportExcel(@PathVariable String resultId,
             HttpServletRequest request) {
+        List<BulkValidateResultDto> data;
         try {
-            String clientIp = utils.getClientIp(request);
-            log.info("Generando reporte Excel masivo desde IP: {}", clientIp);
-
-            // Generar Excel con resultados
-            try (Workbook workbook = restrictiveListService.generateBulkReportExcel(data);
-                    ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-                workbook.write(out);
-
-                return ResponseEntity.ok()
-                        .header(HttpHeaders.CONTENT_DISPOSITION,
-                                "attachment; filename=informe_validacion_listas_masivo.xlsx")
-                        .contentType(MediaType
-                                .parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
-                        .body(out.toByteArray());
-            }
-        } catch (Exception e) {
-            log.error("Error generando reporte Excel masivo", e);
+            data = bulkResultStore.get(resultId, utils.getCurrentUsername());
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IOException e) {
+            log.error("Error leyendo resultado de validación masiva {}", resultId, e);
             return ResponseEntity.internalServerError().build();
         }
+        log.info("Generando reporte Excel masivo desde IP: {} - Resultado: {}", utils.getClientIp(request),
+                resultId);
+        return bulkReportExcel(data);
+    }
+
+    private ResponseEntity<StreamingResponseBody> bulkReportExcel(List<BulkValidateResultDto> data) {
+        StreamingResponseBody body = out -> {
+            try {
+                bulkExcelReportService.generateBulkReportExcel(data, out);
+            } catch (IOException | RuntimeException e) {
+                log.error("Error generando reporte Excel masivo", e);
+                throw e;
+            }
+        };
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=informe_validacion_listas_masivo.xlsx")
+                .contentType(MediaType
+                        .parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
+                .body(body);
+    }
+
+    /**
+     * Consulta las estadísticas de la caché de resultados de validación.
+     * 
+     * @return aciertos, fallos, tamaño y versión de las listas en caché
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        CacheStats stats = screeningResultCache.stats();
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("enabled", screeningResultCache.isEnabled());
+        response.put("hitCount", stats.hitCount());
+        response.put("missCount", stats.missCount());
+        response.put("hitRate", stats.hitRate());
+        response.put("evictionCount", stats.evictionCount());
+        response.put("size", screeningResultCache.size());
+        response.put("listsVersion", screeningResultCache.getListsVersion());
+        response.put("pendingAudits", screeningResultCache.pendingAudits());
+        return ResponseEntity.ok(response);
     }
 }
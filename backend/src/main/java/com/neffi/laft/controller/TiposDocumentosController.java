@@ -0,0 +1,53 @@
+package com.neffi.laft.controller;
+
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.neffi.laft.service.TiposDocumentosService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/laft/tipos-documentos")
+@RequiredArgsConstructor
+public class TiposDocumentosController {
+
+    private final TiposDocumentosService tiposDocumentosService;
+
+    /**
+     * Recarga bajo demanda el catálogo en memoria de tipos de documento. Solo
+     * para el rol {@code app.security.admin-role}.
+     * 
+     * @return estadísticas del catálogo después de la recarga
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<Map<String, Object>> refresh() {
+        log.info("Recarga manual del catálogo de tipos de documento");
+        tiposDocumentosService.refresh();
+        return ResponseEntity.ok(stats());
+    }
+
+    /**
+     * Consulta el tamaño del catálogo y sus contadores de aciertos y fallos.
+     * 
+     * @return estadísticas del catálogo
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(stats());
+    }
+
+    private Map<String, Object> stats() {
+        return Map.of(
+                "size", tiposDocumentosService.getCatalogSize(),
+                "hits", tiposDocumentosService.getCatalogHits(),
+                "misses", tiposDocumentosService.getCatalogMisses());
+    }
+}
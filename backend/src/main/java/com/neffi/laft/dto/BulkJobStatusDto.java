@@ -0,0 +1,36 @@
+package com.neffi.laft.dto;
+
+import java.time.LocalDateTime;
+
+import com.neffi.laft.enums.BulkJobState;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Estado y progreso de un trabajo asíncrono de validación masiva. Se persiste en
+ * disco para que el trabajo sobreviva a un reinicio de la aplicación.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkJobStatusDto {
+    private String jobId;
+    private String fileName;
+    private BulkJobState state;
+    private String usuario;
+    private String terminal;
+    private Long rowsTotal;
+    private long rowsDone;
+    private long matches;
+    /** Filas repetidas que reutilizaron la consulta de otra fila. */
+    private long callsSaved;
+    private Long etaSeconds;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+}
@@ -0,0 +1,20 @@
+package com.neffi.laft.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resumen de una ejecución de validación masiva: filas procesadas, consultas
+ * enviadas a la base de datos y consultas evitadas por filas repetidas.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRunSummaryDto {
+    private int rows;
+    private int screenings;
+    private int callsSaved;
+}
@@ -0,0 +1,29 @@
+package com.neffi.laft.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Registro de la validación masiva en streaming. Según {@code type} lleva el
+ * resultado de una fila ({@code result}), el avance de la ejecución
+ * ({@code progress}), el resumen final ({@code summary}) o el error que la
+ * interrumpió ({@code error}).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkStreamRecordDto {
+    private String type;
+    private BulkValidateResultDto result;
+    private Long rowsDone;
+    private Long matches;
+    private Long elapsedMillis;
+    private BulkRunSummaryDto summary;
+    private String error;
+}
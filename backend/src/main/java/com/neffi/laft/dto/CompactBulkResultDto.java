@@ -0,0 +1,26 @@
+package com.neffi.laft.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de una fila de la validación masiva en una respuesta compacta.
+ * {@code matches} se omite cuando la fila no tiene coincidencias.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class CompactBulkResultDto {
+    private String queryDocumentNumber;
+    private String queryFullName;
+    private int matchCount;
+    private List<CompactMatchDto> matches;
+}
@@ -0,0 +1,35 @@
+package com.neffi.laft.dto;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Coincidencia de una respuesta compacta: los campos de
+ * {@link RestrictiveListEntry} propios del registro, incluido {@code tipo}, que
+ * indica si coincidió por identificación o por nombre. Los datos de la lista se
+ * buscan por {@code codigoLista} en el diccionario {@code lists}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CompactMatchDto {
+    private Long codigoLista;
+    private String tipo;
+    private Long prioridadValidacion;
+    private String tipoDocumento;
+    private String identificacion;
+    private String sdnName;
+    private String usuario;
+    private LocalDateTime fechaActualizacion;
+    private String comentarios;
+    private String comentarios2;
+    private Long entNum;
+}
@@ -0,0 +1,27 @@
+package com.neffi.laft.dto;
+
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Respuesta compacta de la validación: los datos de cada lista van una sola vez
+ * en {@code lists}, indexados por {@code codigoLista}. La validación individual
+ * llena {@code matches} y la masiva {@code results}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CompactValidationDto {
+    private Map<Long, ListMetadataDto> lists;
+    private List<CompactMatchDto> matches;
+    private List<CompactBulkResultDto> results;
+}
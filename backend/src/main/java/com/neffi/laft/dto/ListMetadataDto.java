@@ -0,0 +1,25 @@
+package com.neffi.laft.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Datos de una lista restrictiva que se repiten en todas sus coincidencias. En
+ * las respuestas compactas se envían una sola vez por {@code codigoLista}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ListMetadataDto {
+    private String nombre;
+    private String tipoLista;
+    private String descriTipoLista;
+    private String permiteHomonimia;
+    private String permiteIdentificacion;
+}
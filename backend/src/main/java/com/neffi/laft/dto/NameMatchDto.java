@@ -0,0 +1,15 @@
+package com.neffi.laft.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NameMatchDto {
+    private double score;
+    private RestrictiveListEntry entry;
+}
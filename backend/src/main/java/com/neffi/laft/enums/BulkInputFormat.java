@@ -0,0 +1,33 @@
+package com.neffi.laft.enums;
+
+import java.util.Locale;
+
+/**
+ * Formatos aceptados para el archivo de validación masiva. Todos usan las
+ * columnas de {@link BulkTemplateColumn}.
+ */
+public enum BulkInputFormat {
+    XLSX,
+    /** Texto separado por comas, punto y coma o tabuladores, con fila de encabezados. */
+    CSV,
+    /** Un objeto JSON por línea con las columnas como claves, sin encabezados. */
+    NDJSON;
+
+    /**
+     * Determina el formato por la extensión del archivo; sin extensión conocida
+     * se asume XLSX.
+     */
+    public static BulkInputFormat fromFileName(String fileName) {
+        if (fileName == null) {
+            return XLSX;
+        }
+        String name = fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv") || name.endsWith(".txt")) {
+            return CSV;
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        return XLSX;
+    }
+}
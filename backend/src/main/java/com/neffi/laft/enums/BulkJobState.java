@@ -0,0 +1,16 @@
+package com.neffi.laft.enums;
+
+/**
+ * Estados de un trabajo asíncrono de validación masiva.
+ */
+public enum BulkJobState {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED,
+    CANCELLED;
+
+    public boolean isFinished() {
+        return this == COMPLETED || this == FAILED || this == CANCELLED;
+    }
+}
@@ -0,0 +1,14 @@
+package com.neffi.laft.exception;
+
+/**
+ * Una consulta se rechazó por falta de capacidad (carril de admisión saturado,
+ * cola llena o sin cupo en el límite de concurrencia de la base de datos). Es
+ * la única falla que los controladores responden con 503: el cliente puede
+ * reintentar más tarde.
+ */
+public class AdmissionRejectedException extends RuntimeException {
+
+    public AdmissionRejectedException(String message) {
+        super(message);
+    }
+}
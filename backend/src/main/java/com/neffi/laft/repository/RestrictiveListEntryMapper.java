@@ -0,0 +1,152 @@
+package com.neffi.laft.repository;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import com.neffi.laft.dto.RestrictiveListEntry;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Convierte el cursor retornado por BUT_VALIDAR_LISTAS en
+ * {@link RestrictiveListEntry}. Las posiciones de las columnas se resuelven una
+ * sola vez por cursor a partir de {@link ResultSetMetaData}, y cada fila se lee
+ * por índice. Las filas que no se pueden leer se omiten; un error del cursor,
+ * incluida una columna esperada que no existe, se propaga al llamador.
+ */
+@Slf4j
+public final class RestrictiveListEntryMapper {
+
+    private final int codigoLista;
+    private final int nombre;
+    private final int tipo;
+    private final int prioridadValidacion;
+    private final int permiteIdentificacion;
+    private final int permiteHomonimia;
+    private final int tipoDocumento;
+    private final int identificacion;
+    private final int sdnName;
+    private final int usuario;
+    private final int fechaActualizacion;
+    private final int comentarios;
+    private final int comentarios2;
+    private final int entNum;
+    private final int tipoLista;
+    private final int descriTipoLista;
+
+    private RestrictiveListEntryMapper(ResultSetMetaData metaData) throws SQLException {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = metaData.getColumnCount(); i >= 1; i--) {
+            // Si una etiqueta se repite gana la primera, como en la búsqueda por nombre
+            columns.put(metaData.getColumnLabel(i).toUpperCase(Locale.ROOT), i);
+        }
+        codigoLista = index(columns, "CODIGO_LISTA");
+        nombre = index(columns, "NOMBRE");
+        tipo = index(columns, "TIPO");
+        prioridadValidacion = index(columns, "PRIORIDAD_VALIDACION");
+        permiteIdentificacion = index(columns, "PERMITE_IDENTIFICACION");
+        permiteHomonimia = index(columns, "PERMITE_HOMONIMIA");
+        tipoDocumento = index(columns, "TIPO_DOCUMENTO");
+        identificacion = index(columns, "IDENTIFICACION");
+        sdnName = index(columns, "SDN_NAME");
+        usuario = index(columns, "USUARIO");
+        fechaActualizacion = index(columns, "FECHA_ACTUALIZACION");
+        comentarios = index(columns, "COMENTARIOS");
+        comentarios2 = index(columns, "COMENTARIOS2");
+        entNum = index(columns, "ENT_NUM");
+        tipoLista = index(columns, "TIPO_LISTA");
+        descriTipoLista = index(columns, "DESCRI_TIPO_LISTA");
+    }
+
+    /**
+     * Lee todas las filas de un cursor.
+     *
+     * @param resultSet cursor de BUT_VALIDAR_LISTAS; puede ser null
+     * @return coincidencias del cursor
+     */
+    public static List<RestrictiveListEntry> mapCursor(ResultSet resultSet) throws SQLException {
+        return mapCursor(resultSet, 0);
+    }
+
+    /**
+     * Lee todas las filas de un cursor, pidiendo al controlador
+     * {@code fetchSize} filas por viaje a la base de datos.
+     *
+     * @param resultSet cursor de BUT_VALIDAR_LISTAS; puede ser null
+     * @param fetchSize filas por viaje; 0 conserva el valor del controlador
+     * @return coincidencias del cursor
+     */
+    public static List<RestrictiveListEntry> mapCursor(ResultSet resultSet, int fetchSize) throws SQLException {
+        List<RestrictiveListEntry> results = new ArrayList<>();
+        forEachRow(resultSet, fetchSize, results::add);
+        return results;
+    }
+
+    /**
+     * Lee las filas de un resultado con las columnas de BUT_VALIDAR_LISTAS y las
+     * entrega una a una, sin acumularlas.
+     *
+     * @param resultSet resultado a leer; puede ser null
+     * @param fetchSize filas por viaje; 0 conserva el valor del controlador
+     * @param consumer  receptor de cada fila
+     * @return filas entregadas
+     */
+    public static int forEachRow(ResultSet resultSet, int fetchSize, Consumer<RestrictiveListEntry> consumer)
+            throws SQLException {
+        if (resultSet == null) {
+            return 0;
+        }
+        if (fetchSize > 0) {
+            resultSet.setFetchSize(fetchSize);
+        }
+        RestrictiveListEntryMapper mapper = new RestrictiveListEntryMapper(resultSet.getMetaData());
+        int rows = 0;
+        while (resultSet.next()) {
+            try {
+                consumer.accept(mapper.mapRow(resultSet));
+                rows++;
+            } catch (SQLException e) {
+                log.warn("Error procesando fila del resultado", e);
+            }
+        }
+        return rows;
+    }
+
+    private RestrictiveListEntry mapRow(ResultSet resultSet) throws SQLException {
+        Timestamp fecha = resultSet.getTimestamp(fechaActualizacion);
+        return RestrictiveListEntry.builder()
+                .codigoLista(resultSet.getLong(codigoLista))
+                .nombre(resultSet.getString(nombre))
+                .tipo(resultSet.getString(tipo))
+                .prioridadValidacion(resultSet.getLong(prioridadValidacion))
+                .permiteIdentificacion(resultSet.getString(permiteIdentificacion))
+                .permiteHomonimia(resultSet.getString(permiteHomonimia))
+                .tipoDocumento(resultSet.getString(tipoDocumento))
+                .identificacion(resultSet.getString(identificacion))
+                .sdnName(resultSet.getString(sdnName))
+                .usuario(resultSet.getString(usuario))
+                .fechaActualizacion(fecha != null ? fecha.toLocalDateTime() : null)
+                .comentarios(resultSet.getString(comentarios))
+                .comentarios2(resultSet.getString(comentarios2))
+                .entNum(resultSet.getLong(entNum))
+                .tipoLista(resultSet.getString(tipoLista))
+                .descriTipoLista(resultSet.getString(descriTipoLista))
+                .build();
+    }
+
+    private static int index(Map<String, Integer> columns, String column) throws SQLException {
+        Integer index = columns.get(column);
+        if (index == null) {
+            throw new SQLException("El resultado no contiene la columna de BUT_VALIDAR_LISTAS " + column);
+        }
+        return index;
+    }
+}
@@ -1,10 +1,20 @@
 package com.neffi.laft.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 import com.neffi.laft.dto.ButValidarListasParams;
 import com.neffi.laft.dto.RestrictiveListEntry;
 
 public interface RestrictiveListRepositoryCustom {
     List<RestrictiveListEntry> butValidarListas(ButValidarListasParams params);
+
+    List<List<RestrictiveListEntry>> butValidarListasBatch(List<ButValidarListasParams> params);
+
+    LocalDateTime findListsVersion();
+
+    void registrarAuditoria(ButValidarListasParams params);
+
+    int streamListEntries(LocalDateTime since, Consumer<RestrictiveListEntry> consumer);
 }
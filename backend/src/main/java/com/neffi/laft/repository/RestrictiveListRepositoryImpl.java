@@ -2,97 +2,468 @@ package com.neffi.laft.repository;
 
 import java.sql.CallableStatement;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import javax.sql.DataSource;
 
 import org.hibernate.dialect.OracleTypes;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
 import com.neffi.laft.dto.ButValidarListasParams;
 import com.neffi.laft.dto.RestrictiveListEntry;
+import com.neffi.laft.exception.AdmissionRejectedException;
+import com.neffi.laft.utils.AdaptiveConcurrencyLimit;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Acceso directo por JDBC a BUT_VALIDAR_LISTAS y a la tabla de listas
+ * restrictivas.
+ * <p>
+ * Las llamadas a la función pasan por un {@link AdaptiveConcurrencyLimit}: si
+ * Oracle se vuelve lento el número de llamadas simultáneas se reduce, y crece
+ * de nuevo cuando la latencia se recupera, en lugar de ocupar todo el pool y
+ * agravar la lentitud. Una validación individual espera un cupo como máximo
+ * {@code app.restrictiveList.concurrency-limit.max-wait} y sin cupo falla con
+ * {@link AdmissionRejectedException}. Los lotes de la validación masiva, que ya
+ * llegan con concurrencia acotada, esperan en su propia cola hasta
+ * {@code background-max-wait}, nunca ocupan los
+ * {@code interactive-reserved} cupos de las validaciones individuales y, sin
+ * cupo, reintentan con espera exponencial (hasta {@code background-max-backoff})
+ * en lugar de hacer fallar la validación masiva.
+ */
 @Slf4j
 @Repository
 @RequiredArgsConstructor
 public class RestrictiveListRepositoryImpl implements RestrictiveListRepositoryCustom {
 
+    private static final String CALL_SQL = "{ ? = call BUT_VALIDAR_LISTAS(?, ?, ?, ?, ?, ?, ?, ?, ?, ?) }";
+
+    /** Parámetros por llamada: el cursor de retorno y los 10 de entrada. */
+    private static final int PARAMS_PER_CALL = 11;
+
+    /** En lote se agrega un parámetro de salida con el error de cada llamada. */
+    private static final int BATCH_PARAMS_PER_CALL = PARAMS_PER_CALL + 1;
+
     private final DataSource dataSource;
 
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.restrictiveList.table}")
+    private String listsTable;
+
+    /** Filas por viaje al leer el cursor; el valor por defecto de Oracle es 10. */
+    @Value("${app.restrictiveList.cursor-fetch-size:100}")
+    private int cursorFetchSize;
+
+    /** Tabla o vista que se copia a la réplica local; vacía para usar la tabla de listas. */
+    @Value("${app.restrictiveList.replica.source:}")
+    private String replicaSource;
+
+    /** Filas por viaje al copiar las listas a la réplica local. */
+    @Value("${app.restrictiveList.replica.fetch-size:1000}")
+    private int replicaFetchSize;
+
+    /** Sentencia de auditoría para consultas resueltas sin llamar la función. */
+    @Value("${app.restrictiveList.cache.audit-sql:}")
+    private String auditSql;
+
+    @Value("${app.restrictiveList.concurrency-limit.enabled:true}")
+    private boolean concurrencyLimitEnabled;
+
+    @Value("${app.restrictiveList.concurrency-limit.min-limit:1}")
+    private int minConcurrency;
+
+    /** Por defecto el tamaño del pool: más llamadas solo esperarían una conexión. */
+    @Value("${app.restrictiveList.concurrency-limit.max-limit:${spring.datasource.hikari.maximum-pool-size:10}}")
+    private int maxConcurrency;
+
+    @Value("${app.restrictiveList.concurrency-limit.max-wait:PT1S}")
+    private Duration concurrencyMaxWait;
+
+    @Value("${app.restrictiveList.concurrency-limit.background-max-wait:PT30S}")
+    private Duration concurrencyBackgroundMaxWait;
+
+    /** Espera máxima entre reintentos de un lote rechazado por el límite. */
+    @Value("${app.restrictiveList.concurrency-limit.background-max-backoff:PT30S}")
+    private Duration concurrencyBackgroundMaxBackoff;
+
+    /** Cupos que los lotes de la validación masiva nunca ocupan. */
+    @Value("${app.restrictiveList.concurrency-limit.interactive-reserved:${app.bulk.reserved-connections:2}}")
+    private int interactiveReserved;
+
+    /** Bloques PL/SQL de lote, cacheados por número de sujetos. */
+    private final Map<Integer, String> batchSqlCache = new ConcurrentHashMap<>();
+
+    private Timer singleExecuteTimer;
+    private Timer batchExecuteTimer;
+    private Timer singleFetchTimer;
+    private Timer batchFetchTimer;
+    private DistributionSummary cursorRows;
+    private Counter failures;
+    private Counter concurrencyRejected;
+    private AdaptiveConcurrencyLimit concurrencyLimit;
+
+    /**
+     * Métricas de BUT_VALIDAR_LISTAS: el tiempo de ejecución en la base de datos
+     * se mide por separado del tiempo de lectura y conversión del cursor.
+     */
+    @PostConstruct
+    void initMetrics() {
+        singleExecuteTimer = screeningTimer("laft.screening.execute", "single",
+                "Ejecución de BUT_VALIDAR_LISTAS en la base de datos");
+        batchExecuteTimer = screeningTimer("laft.screening.execute", "batch",
+                "Ejecución de BUT_VALIDAR_LISTAS en la base de datos");
+        singleFetchTimer = screeningTimer("laft.screening.fetch", "single",
+                "Lectura y conversión del cursor de BUT_VALIDAR_LISTAS");
+        batchFetchTimer = screeningTimer("laft.screening.fetch", "batch",
+                "Lectura y conversión del cursor de BUT_VALIDAR_LISTAS");
+        cursorRows = DistributionSummary.builder("laft.screening.cursor.rows")
+                .description("Filas retornadas por cursor de BUT_VALIDAR_LISTAS")
+                .baseUnit("rows")
+                .publishPercentileHistogram()
+                .maximumExpectedValue(10_000d)
+                .register(meterRegistry);
+        failures = Counter.builder("laft.screening.failures")
+                .description("Sujetos cuya validación falló en la base de datos")
+                .register(meterRegistry);
+
+        if (!concurrencyLimitEnabled) {
+            return;
+        }
+        concurrencyLimit = new AdaptiveConcurrencyLimit(minConcurrency, maxConcurrency, maxConcurrency,
+                interactiveReserved);
+        Gauge.builder("laft.screening.concurrency.limit", concurrencyLimit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Llamadas simultáneas permitidas a BUT_VALIDAR_LISTAS")
+                .register(meterRegistry);
+        Gauge.builder("laft.screening.concurrency.active", concurrencyLimit, AdaptiveConcurrencyLimit::getInFlight)
+                .description("Llamadas en curso a BUT_VALIDAR_LISTAS")
+                .register(meterRegistry);
+        concurrencyRejected = Counter.builder("laft.screening.concurrency.rejected")
+                .description("Llamadas a BUT_VALIDAR_LISTAS rechazadas por el límite de concurrencia")
+                .register(meterRegistry);
+        log.info("Límite de concurrencia adaptativo de BUT_VALIDAR_LISTAS: entre {} y {}, {} reservados a "
+                + "validaciones individuales", minConcurrency, maxConcurrency, interactiveReserved);
+    }
+
+    private Timer screeningTimer(String name, String mode, String description) {
+        return Timer.builder(name)
+                .description(description)
+                .tag("mode", mode)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
     /**
      * Ejecuta la función BUT_VALIDAR_LISTAS usando JDBC directamente
      * Oracle retorna un REF CURSOR que procesamos con JDBC
+     * Retorna null si la consulta falla, para distinguirla de una consulta sin
+     * coincidencias.
+     *
+     * @throws AdmissionRejectedException si no hay cupo en el límite de
+     *                                     concurrencia
      */
     @Override
     public List<RestrictiveListEntry> butValidarListas(ButValidarListasParams params) {
+        return limited(concurrencyMaxWait, false, 1, () -> callSingle(params));
+    }
+
+    private List<RestrictiveListEntry> callSingle(ButValidarListasParams params) {
         try (Connection connection = dataSource.getConnection()) {
 
             // SQL para llamar la función: { ? = call BUT_VALIDAR_LISTAS(...) }
-            String sql = "{ ? = call BUT_VALIDAR_LISTAS(?, ?, ?, ?, ?, ?, ?, ?, ?, ?) }";
-
-            try (CallableStatement cs = connection.prepareCall(sql)) {
-                // Registrar el parámetro de retorno como REF CURSOR
-                cs.registerOutParameter(1, OracleTypes.CURSOR);
-
-                // Establecer parámetros de entrada (posiciones 2-11)
-                cs.setString(2, params.getIdentificacion());
-                cs.setString(3, params.getNombre1());
-                cs.setString(4, params.getNombre2());
-                cs.setString(5, params.getApellido1());
-                cs.setString(6, params.getApellido2());
-                cs.setString(7, params.getProceso());
-                cs.setString(8, params.getRetornaLinf());
-                cs.setString(9, params.getUsuario());
-                cs.setString(10, params.getTerminal());
-                cs.setString(11, params.getDescripcionEvento());
+            try (CallableStatement cs = connection.prepareCall(CALL_SQL)) {
+                // Registrar el parámetro de retorno como REF CURSOR y los de entrada (posiciones 2-11)
+                bindCall(cs, 1, params);
 
                 // Ejecutar
+                long start = System.nanoTime();
                 cs.execute();
+                singleExecuteTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
 
                 // Obtener el cursor (posición 1) y procesar con try-with-resources
-                List<RestrictiveListEntry> results = new ArrayList<>();
-                try (ResultSet resultSet = (ResultSet) cs.getObject(1)) {
-                    if (resultSet != null) {
-                        while (resultSet.next()) {
-                            try {
-                                RestrictiveListEntry entry = RestrictiveListEntry.builder()
-                                        .codigoLista(resultSet.getLong("CODIGO_LISTA"))
-                                        .nombre(resultSet.getString("NOMBRE"))
-                                        .tipo(resultSet.getString("TIPO"))
-                                        .prioridadValidacion(resultSet.getLong("PRIORIDAD_VALIDACION"))
-                                        .permiteIdentificacion(resultSet.getString("PERMITE_IDENTIFICACION"))
-                                        .permiteHomonimia(resultSet.getString("PERMITE_HOMONIMIA"))
-                                        .tipoDocumento(resultSet.getString("TIPO_DOCUMENTO"))
-                                        .identificacion(resultSet.getString("IDENTIFICACION"))
-                                        .sdnName(resultSet.getString("SDN_NAME"))
-                                        .usuario(resultSet.getString("USUARIO"))
-                                        .fechaActualizacion(
-                                                resultSet.getObject("FECHA_ACTUALIZACION", LocalDateTime.class))
-                                        .comentarios(resultSet.getString("COMENTARIOS"))
-                                        .comentarios2(resultSet.getString("COMENTARIOS2"))
-                                        .entNum(resultSet.getLong("ENT_NUM"))
-                                        .tipoLista(resultSet.getString("TIPO_LISTA"))
-                                        .descriTipoLista(resultSet.getString("DESCRI_TIPO_LISTA"))
-                                        .build();
-                                results.add(entry);
-                            } catch (SQLException e) {
-                                log.warn("Error procesando fila del resultado", e);
-                            }
-                        }
-                    }
-                }
-                return results;
+                return fetch(cs, 1, singleFetchTimer);
             }
         } catch (SQLException e) {
             log.error("Error ejecutando BUT_VALIDAR_LISTAS", e);
-            return new ArrayList<>();
+            failures.increment();
+            return null;
+        }
+    }
+
+    /**
+     * Ejecuta BUT_VALIDAR_LISTAS para varios sujetos en un solo viaje a la base de
+     * datos, mediante un bloque PL/SQL anónimo con una llamada a la función por
+     * sujeto. Cada llamada usa los mismos parámetros que la llamada individual,
+     * por lo que la auditoría es idéntica a N llamadas separadas. Cada llamada
+     * captura su propio error, de modo que la falla de un sujeto no afecta a los
+     * demás; igual que en la llamada individual, el resultado del sujeto fallido
+     * es null y lo que la función alcanzó a escribir se revierte (hasta un
+     * savepoint tomado antes de la llamada).
+     * <p>
+     * Si el bloque falla completo (por ejemplo, un error de compilación que
+     * Oracle reporta al ejecutarlo), Oracle revierte todo el bloque y los sujetos
+     * se validan uno por uno.
+     *
+     * @param params parámetros de cada sujeto
+     * @return coincidencias de cada sujeto, en el mismo orden de los parámetros
+     * @throws CancellationException si el hilo se interrumpe mientras espera
+     *                               un cupo
+     */
+    @Override
+    public List<List<RestrictiveListEntry>> butValidarListasBatch(List<ButValidarListasParams> params) {
+        if (params.size() == 1) {
+            return List.of(retried(() -> limited(concurrencyBackgroundMaxWait, true, 1,
+                    () -> callSingle(params.get(0)))));
+        }
+        return retried(() -> limited(concurrencyBackgroundMaxWait, true, params.size(), () -> callBatch(params)));
+    }
+
+    /**
+     * Reintenta un lote rechazado por el límite de concurrencia, con espera
+     * exponencial desde un segundo hasta {@code background-max-backoff}.
+     */
+    private <T> T retried(Supplier<T> call) {
+        long backoff = 1000;
+        while (true) {
+            try {
+                return call.get();
+            } catch (AdmissionRejectedException e) {
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new CancellationException("Validación masiva interrumpida mientras esperaba cupo");
+                }
+                backoff = Math.min(backoff * 2, Math.max(1000, concurrencyBackgroundMaxBackoff.toMillis()));
+            }
         }
     }
+
+    private List<List<RestrictiveListEntry>> callBatch(List<ButValidarListasParams> params) {
+        boolean executed = false;
+        try (Connection connection = dataSource.getConnection();
+                CallableStatement cs = connection.prepareCall(batchSql(params.size()))) {
+
+            for (int i = 0; i < params.size(); i++) {
+                int base = i * BATCH_PARAMS_PER_CALL + 1;
+                bindCall(cs, base, params.get(i));
+                cs.registerOutParameter(base + PARAMS_PER_CALL, Types.VARCHAR);
+            }
+
+            long start = System.nanoTime();
+            cs.execute();
+            batchExecuteTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            executed = true;
+
+            List<List<RestrictiveListEntry>> results = new ArrayList<>(params.size());
+            for (int i = 0; i < params.size(); i++) {
+                int base = i * BATCH_PARAMS_PER_CALL + 1;
+                String error = cs.getString(base + PARAMS_PER_CALL);
+                if (error != null) {
+                    log.error("Error ejecutando BUT_VALIDAR_LISTAS para el sujeto {} del lote: {}", i + 1, error);
+                    failures.increment();
+                    results.add(null);
+                    continue;
+                }
+                try {
+                    results.add(fetch(cs, base, batchFetchTimer));
+                } catch (SQLException e) {
+                    log.error("Error leyendo el cursor del sujeto {} del lote", i + 1, e);
+                    failures.increment();
+                    results.add(null);
+                }
+            }
+            return results;
+        } catch (SQLException e) {
+            if (executed) {
+                log.error("Error ejecutando BUT_VALIDAR_LISTAS en lote de {} sujetos", params.size(), e);
+                failures.increment(params.size());
+                List<List<RestrictiveListEntry>> failed = new ArrayList<>(params.size());
+                params.forEach(p -> failed.add(null));
+                return failed;
+            }
+            // El bloque no se ejecutó o Oracle lo revirtió completo: se valida sujeto por sujeto
+            log.warn("No se pudo ejecutar el lote de {} sujetos; se ejecuta individualmente", params.size(), e);
+            List<List<RestrictiveListEntry>> results = new ArrayList<>(params.size());
+            for (ButValidarListasParams single : params) {
+                results.add(callSingle(single));
+            }
+            return results;
+        }
+    }
+
+    /**
+     * Lee el cursor de una llamada ya ejecutada y registra el tiempo de lectura y
+     * el número de filas.
+     */
+    private List<RestrictiveListEntry> fetch(CallableStatement cs, int cursorIndex, Timer fetchTimer)
+            throws SQLException {
+        long start = System.nanoTime();
+        try (ResultSet resultSet = (ResultSet) cs.getObject(cursorIndex)) {
+            List<RestrictiveListEntry> entries = RestrictiveListEntryMapper.mapCursor(resultSet, cursorFetchSize);
+            fetchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            cursorRows.record(entries.size());
+            return entries;
+        }
+    }
+
+    /**
+     * Obtiene la versión de las listas restrictivas: la fecha de actualización
+     * más reciente de la tabla de listas.
+     */
+    @Override
+    public LocalDateTime findListsVersion() {
+        String sql = "SELECT MAX(FECHA_ACTUALIZACION) FROM " + listsTable;
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement ps = connection.prepareStatement(sql);
+                ResultSet resultSet = ps.executeQuery()) {
+            return resultSet.next() ? resultSet.getObject(1, LocalDateTime.class) : null;
+        } catch (SQLException e) {
+            throw new IllegalStateException("No se pudo consultar la versión de las listas restrictivas", e);
+        }
+    }
+
+    /**
+     * Lee las filas de las listas restrictivas para la réplica local. La fuente
+     * debe exponer las mismas columnas que el cursor de BUT_VALIDAR_LISTAS.
+     *
+     * @param since    si no es null, solo las filas actualizadas desde esa fecha
+     *                 (inclusive, para no perder filas con la misma fecha)
+     * @param consumer receptor de cada fila
+     * @return filas leídas
+     */
+    @Override
+    public int streamListEntries(LocalDateTime since, Consumer<RestrictiveListEntry> consumer) {
+        String source = replicaSource != null && !replicaSource.isBlank() ? replicaSource : listsTable;
+        String sql = "SELECT * FROM " + source + (since != null ? " WHERE FECHA_ACTUALIZACION >= ?" : "");
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement ps = connection.prepareStatement(sql)) {
+            if (since != null) {
+                ps.setTimestamp(1, Timestamp.valueOf(since));
+            }
+            try (ResultSet resultSet = ps.executeQuery()) {
+                return RestrictiveListEntryMapper.forEachRow(resultSet, replicaFetchSize, consumer);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("No se pudieron leer las listas restrictivas de " + source, e);
+        }
+    }
+
+    /**
+     * Registra la auditoría de una consulta resuelta sin ejecutar la validación
+     * completa, con la sentencia {@code app.restrictiveList.cache.audit-sql}. La
+     * sentencia recibe los mismos parámetros de BUT_VALIDAR_LISTAS y en el mismo
+     * orden. No pasa por el límite de concurrencia: su latencia no es la de la
+     * función y falsearía el límite.
+     *
+     * @throws IllegalStateException si no hay sentencia configurada o falla
+     */
+    @Override
+    public void registrarAuditoria(ButValidarListasParams params) {
+        if (auditSql == null || auditSql.isBlank()) {
+            throw new IllegalStateException("No se configuró app.restrictiveList.cache.audit-sql");
+        }
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement ps = connection.prepareStatement(auditSql)) {
+            ps.setString(1, params.getIdentificacion());
+            ps.setString(2, params.getNombre1());
+            ps.setString(3, params.getNombre2());
+            ps.setString(4, params.getApellido1());
+            ps.setString(5, params.getApellido2());
+            ps.setString(6, params.getProceso());
+            ps.setString(7, params.getRetornaLinf());
+            ps.setString(8, params.getUsuario());
+            ps.setString(9, params.getTerminal());
+            ps.setString(10, params.getDescripcionEvento());
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new IllegalStateException("No se pudo registrar la auditoría de la consulta", e);
+        }
+    }
+
+    /**
+     * Ejecuta una llamada a la base de datos dentro del límite de concurrencia y
+     * le informa la duración de la llamada.
+     *
+     * @param maxWait    espera máxima por un cupo
+     * @param background true para los lotes de la validación masiva
+     * @param calls      llamadas a BUT_VALIDAR_LISTAS que hace la operación
+     * @throws AdmissionRejectedException si no hubo cupo a tiempo
+     */
+    private <T> T limited(Duration maxWait, boolean background, int calls, Supplier<T> call) {
+        if (concurrencyLimit == null) {
+            return call.get();
+        }
+        boolean acquired;
+        try {
+            acquired = concurrencyLimit.tryAcquire(maxWait, background);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Validación interrumpida mientras esperaba la base de datos");
+        }
+        if (!acquired) {
+            concurrencyRejected.increment();
+            log.warn("Llamada a BUT_VALIDAR_LISTAS rechazada{}: {} llamadas en curso con límite {}",
+                    background ? " (lote masivo, se reintentará)" : "",
+                    concurrencyLimit.getInFlight(), concurrencyLimit.getLimit());
+            throw new AdmissionRejectedException(
+                    "La base de datos de listas restrictivas está ocupada. Intente más tarde.");
+        }
+        long start = System.nanoTime();
+        try {
+            return call.get();
+        } finally {
+            concurrencyLimit.release(System.nanoTime() - start, calls, background);
+        }
+    }
+
+    private String batchSql(int size) {
+        return batchSqlCache.computeIfAbsent(size, n -> {
+            StringBuilder sql = new StringBuilder("BEGIN ");
+            for (int i = 0; i < n; i++) {
+                // Como en una llamada individual fallida, se revierte lo que la función alcanzó a escribir
+                sql.append("BEGIN SAVEPOINT laft_sujeto; ? := BUT_VALIDAR_LISTAS(?, ?, ?, ?, ?, ?, ?, ?, ?, ?); ")
+                        .append("EXCEPTION WHEN OTHERS THEN ROLLBACK TO laft_sujeto; ? := SQLERRM; END; ");
+            }
+            return sql.append("END;").toString();
+        });
+    }
+
+    private void bindCall(CallableStatement cs, int cursorIndex, ButValidarListasParams params)
+            throws SQLException {
+        cs.registerOutParameter(cursorIndex, OracleTypes.CURSOR);
+        cs.setString(cursorIndex + 1, params.getIdentificacion());
+        cs.setString(cursorIndex + 2, params.getNombre1());
+        cs.setString(cursorIndex + 3, params.getNombre2());
+        cs.setString(cursorIndex + 4, params.getApellido1());
+        cs.setString(cursorIndex + 5, params.getApellido2());
+        cs.setString(cursorIndex + 6, params.getProceso());
+        cs.setString(cursorIndex + 7, params.getRetornaLinf());
+        cs.setString(cursorIndex + 8, params.getUsuario());
+        cs.setString(cursorIndex + 9, params.getTerminal());
+        cs.setString(cursorIndex + 10, params.getDescripcionEvento());
+    }
 }
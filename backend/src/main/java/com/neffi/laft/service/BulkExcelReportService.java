@@ -0,0 +1,267 @@
+package com.neffi.laft.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.stereotype.Service;
+
+import com.neffi.laft.dto.BulkValidateResultDto;
+import com.neffi.laft.dto.RestrictiveListEntry;
+import com.neffi.laft.utils.CountingOutputStream;
+import com.neffi.laft.utils.Utils;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Genera el informe Excel de la validación masiva en modo streaming. Usa un
+ * {@link SXSSFWorkbook} con ventana de filas, de modo que solo las últimas filas
+ * escritas permanecen en memoria y el resto se vuelca a archivos temporales. El
+ * ancho de las columnas se calcula con la longitud de los textos escritos, sin
+ * medir fuentes con {@code autoSizeColumn}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BulkExcelReportService {
+
+    private static final DateTimeFormatter REPORT_DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+
+    private static final int ROW_ACCESS_WINDOW = 100;
+
+    private static final int MAX_ROWS_PER_SHEET = SpreadsheetVersion.EXCEL2007.getMaxRows();
+
+    private static final int MIN_COLUMN_WIDTH = 12;
+
+    private static final int MAX_COLUMN_WIDTH = 100;
+
+    private static final String SUMMARY_SHEET = "Resumen";
+
+    private static final String DETAILS_SHEET = "Detalles";
+
+    private static final String[] SUMMARY_HEADERS = { "Número Documento", "Nombre Completo", "Coincidencias" };
+
+    private static final String[] DETAIL_HEADERS = { "Documento Consultado", "Nombre Consultado", "Código Lista",
+            "Nombre (Lista)", "Tipo", "Identificación (Lista)", "Comentarios" };
+
+    /** Metadatos en A1:B3; la tabla de la hoja Resumen empieza en la fila 5. */
+    private static final String[] SUMMARY_LABELS = { "Registros Procesados", "Fecha de generación del informe",
+            "Usuario generador" };
+
+    private final Utils utils;
+
+    private final ReportMetrics reportMetrics;
+
+    /**
+     * Escribe el informe Excel con los resultados de la validación masiva
+     * directamente en el stream de salida. Incluye la hoja Resumen con los datos
+     * principales y la hoja Detalles con todas las coincidencias; si las
+     * coincidencias superan el límite de filas de Excel se continúan en hojas
+     * adicionales.
+     *
+     * @param results Lista de resultados de validateBulk
+     * @param out     stream donde se escribe el archivo
+     */
+    public void generateBulkReportExcel(List<BulkValidateResultDto> results, OutputStream out) throws IOException {
+        log.debug("Generando reporte Excel para {} registros", results.size());
+        long start = System.nanoTime();
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_ACCESS_WINDOW);
+        workbook.setCompressTempFiles(true);
+
+        try {
+            CellStyle headerStyle = createHeaderStyle(workbook);
+            CellStyle labelStyle = createLabelStyle(workbook);
+
+            // La hoja Resumen se crea primero para conservar el orden de las hojas,
+            // pero se escribe al final, cuando los totales ya se conocen.
+            Sheet summarySheet = workbook.createSheet(SUMMARY_SHEET);
+
+            SheetWriter details = new SheetWriter(workbook, workbook.createSheet(DETAILS_SHEET), DETAILS_SHEET,
+                    DETAIL_HEADERS, headerStyle, 0);
+            SummaryCounts counts = writeDetails(details, results);
+            details.finish();
+
+            SheetWriter summary = new SheetWriter(workbook, summarySheet, SUMMARY_SHEET, SUMMARY_HEADERS,
+                    headerStyle, SUMMARY_LABELS.length + 1);
+            writeSummaryMetadata(summary, summarySheet, counts, labelStyle);
+            writeSummaryRows(summary, results);
+            summary.finish();
+
+            CountingOutputStream counting = new CountingOutputStream(out);
+            workbook.write(counting);
+            counting.flush();
+            reportMetrics.record("xlsx", System.nanoTime() - start, counting.getCount());
+            log.debug("Reporte Excel generado - {} registros, {} coincidencias", counts.records, counts.matches);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private SummaryCounts writeDetails(SheetWriter writer, List<BulkValidateResultDto> results) {
+        SummaryCounts counts = new SummaryCounts();
+        for (BulkValidateResultDto result : results) {
+            counts.records++;
+            List<RestrictiveListEntry> matches = result.getMatches();
+            if (matches == null || matches.isEmpty()) {
+                continue;
+            }
+
+            for (RestrictiveListEntry match : matches) {
+                counts.matches++;
+                Row row = writer.nextRow();
+
+                int colNum = 0;
+                writer.text(row, colNum++, result.getQueryDocumentNumber());
+                writer.text(row, colNum++, result.getQueryFullName());
+                writer.text(row, colNum++, match.getCodigoLista() != null ? match.getCodigoLista().toString() : "");
+                writer.text(row, colNum++, match.getNombre());
+                writer.text(row, colNum++, match.getTipo());
+                writer.text(row, colNum++, match.getIdentificacion());
+                writer.text(row, colNum++, match.getComentarios());
+            }
+        }
+        return counts;
+    }
+
+    private void writeSummaryMetadata(SheetWriter writer, Sheet sheet, SummaryCounts counts,
+            CellStyle labelStyle) {
+        Object[] values = { counts.records, LocalDateTime.now().format(REPORT_DATE_FORMAT),
+                utils.getCurrentUsername() };
+
+        for (int i = 0; i < SUMMARY_LABELS.length; i++) {
+            Row row = sheet.createRow(i);
+            Cell labelCell = row.createCell(0);
+            labelCell.setCellValue(SUMMARY_LABELS[i]);
+            labelCell.setCellStyle(labelStyle);
+            writer.track(0, SUMMARY_LABELS[i]);
+
+            if (values[i] instanceof Long number) {
+                row.createCell(1).setCellValue(number);
+            } else {
+                writer.text(row, 1, values[i] != null ? values[i].toString() : "");
+            }
+        }
+    }
+
+    private void writeSummaryRows(SheetWriter writer, List<BulkValidateResultDto> results) {
+        for (BulkValidateResultDto result : results) {
+            Row row = writer.nextRow();
+            writer.text(row, 0, result.getQueryDocumentNumber());
+            writer.text(row, 1, result.getQueryFullName());
+            row.createCell(2).setCellValue(result.getMatchCount());
+        }
+    }
+
+    private CellStyle createHeaderStyle(Workbook workbook) {
+        CellStyle style = workbook.createCellStyle();
+        Font font = workbook.createFont();
+        font.setBold(true);
+        font.setColor(IndexedColors.WHITE.getIndex());
+        style.setFont(font);
+        style.setFillForegroundColor(IndexedColors.BLUE.getIndex());
+        style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+        return style;
+    }
+
+    private CellStyle createLabelStyle(Workbook workbook) {
+        CellStyle style = workbook.createCellStyle();
+        Font font = workbook.createFont();
+        font.setBold(true);
+        style.setFont(font);
+        return style;
+    }
+
+    private static final class SummaryCounts {
+        private long records;
+        private long matches;
+    }
+
+    /**
+     * Escribe filas secuencialmente en una hoja, continuando en una hoja nueva
+     * con los mismos encabezados cuando se alcanza el límite de filas de Excel.
+     * Registra la longitud máxima de cada columna para fijar su ancho al final.
+     */
+    private static final class SheetWriter {
+
+        private final Workbook workbook;
+        private final String baseName;
+        private final String[] headers;
+        private final CellStyle headerStyle;
+        private final int[] maxLengths;
+
+        private Sheet sheet;
+        private int part = 1;
+        private int rowNum;
+
+        private SheetWriter(Workbook workbook, Sheet sheet, String baseName, String[] headers,
+                CellStyle headerStyle, int headerRow) {
+            this.workbook = workbook;
+            this.sheet = sheet;
+            this.baseName = baseName;
+            this.headers = headers;
+            this.headerStyle = headerStyle;
+            this.maxLengths = new int[headers.length];
+            this.rowNum = headerRow;
+            writeHeaders();
+        }
+
+        private Row nextRow() {
+            if (rowNum >= MAX_ROWS_PER_SHEET) {
+                applyWidths();
+                part++;
+                sheet = workbook.createSheet(baseName + " (" + part + ")");
+                workbook.setSheetOrder(sheet.getSheetName(), workbook.getSheetIndex(baseName) + part - 1);
+                rowNum = 0;
+                writeHeaders();
+            }
+            return sheet.createRow(rowNum++);
+        }
+
+        private void text(Row row, int col, String value) {
+            String text = value != null ? value : "";
+            row.createCell(col).setCellValue(text);
+            track(col, text);
+        }
+
+        private void track(int col, String text) {
+            if (text.length() > maxLengths[col]) {
+                maxLengths[col] = text.length();
+            }
+        }
+
+        private void finish() {
+            applyWidths();
+        }
+
+        private void writeHeaders() {
+            Row headerRow = sheet.createRow(rowNum++);
+            for (int i = 0; i < headers.length; i++) {
+                Cell cell = headerRow.createCell(i);
+                cell.setCellValue(headers[i]);
+                cell.setCellStyle(headerStyle);
+                track(i, headers[i]);
+            }
+        }
+
+        private void applyWidths() {
+            for (int i = 0; i < maxLengths.length; i++) {
+                int chars = Math.min(MAX_COLUMN_WIDTH, Math.max(MIN_COLUMN_WIDTH, maxLengths[i] + 2));
+                sheet.setColumnWidth(i, chars * 256);
+            }
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.neffi.laft.service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.neffi.laft.dto.BulkJobStatusDto;
+import com.neffi.laft.dto.BulkValidateResultDto;
+import com.neffi.laft.enums.BulkInputFormat;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Almacenamiento en disco local de los trabajos de validación masiva. Cada
+ * trabajo tiene su propio directorio con el archivo cargado, el estado en JSON y
+ * los resultados en formato NDJSON (un {@link BulkValidateResultDto} por línea,
+ * en el orden de las filas).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BulkJobStore {
+
+    /** Nombre del archivo cargado, con la extensión de su formato. */
+    private static final String INPUT_FILE = "input.";
+
+    /** Nombre usado antes de aceptar CSV y NDJSON, para reanudar trabajos anteriores. */
+    private static final String LEGACY_INPUT_FILE = "input.xlsx";
+    private static final String STATUS_FILE = "status.json";
+    private static final String RESULTS_FILE = "results.ndjson";
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.bulk.jobs.directory}")
+    private Path directory;
+
+    @Value("${app.bulk.jobs.retention:P7D}")
+    private Duration retention;
+
+    /**
+     * Crea el directorio de un trabajo nuevo y copia en él el archivo cargado.
+     *
+     * @param input  contenido del archivo
+     * @param format formato del archivo, que determina su extensión
+     * @return identificador del trabajo
+     */
+    public String create(InputStream input, BulkInputFormat format) throws IOException {
+        String jobId = UUID.randomUUID().toString();
+        Path jobDir = jobDir(jobId);
+        Files.createDirectories(jobDir);
+        Files.copy(input, jobDir.resolve(inputFileName(format)), StandardCopyOption.REPLACE_EXISTING);
+        return jobId;
+    }
+
+    public Path inputFile(String jobId, BulkInputFormat format) {
+        Path input = jobDir(jobId).resolve(inputFileName(format));
+        Path legacy = jobDir(jobId).resolve(LEGACY_INPUT_FILE);
+        return Files.exists(input) || !Files.exists(legacy) ? input : legacy;
+    }
+
+    private static String inputFileName(BulkInputFormat format) {
+        return INPUT_FILE + format.name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Guarda el estado del trabajo reemplazando el archivo de forma atómica.
+     */
+    public void save(BulkJobStatusDto status) {
+        Path jobDir = jobDir(status.getJobId());
+        try {
+            Path tmp = Files.createTempFile(jobDir, STATUS_FILE, ".tmp");
+            objectMapper.writeValue(tmp.toFile(), status);
+            Files.move(tmp, jobDir.resolve(STATUS_FILE), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error("No se pudo guardar el estado del trabajo {}", status.getJobId(), e);
+        }
+    }
+
+    public Optional<BulkJobStatusDto> load(String jobId) {
+        Path statusFile;
+        try {
+            statusFile = jobDir(jobId).resolve(STATUS_FILE);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        if (!Files.exists(statusFile)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(objectMapper.readValue(statusFile.toFile(), BulkJobStatusDto.class));
+        } catch (IOException e) {
+            log.error("No se pudo leer el estado del trabajo {}", jobId, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Carga el estado de todos los trabajos almacenados.
+     */
+    public List<BulkJobStatusDto> loadAll() {
+        List<BulkJobStatusDto> jobs = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return jobs;
+        }
+        try (Stream<Path> dirs = Files.list(directory)) {
+            dirs.filter(Files::isDirectory)
+                    .map(dir -> load(dir.getFileName().toString()))
+                    .flatMap(Optional::stream)
+                    .forEach(jobs::add);
+        } catch (IOException e) {
+            log.error("No se pudo listar el directorio de trabajos {}", directory, e);
+        }
+        return jobs;
+    }
+
+    /**
+     * Abre el archivo de resultados para agregar líneas al final.
+     */
+    public BufferedWriter openResults(String jobId) throws IOException {
+        return Files.newBufferedWriter(jobDir(jobId).resolve(RESULTS_FILE), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    public void appendResult(BufferedWriter writer, BulkValidateResultDto result) {
+        try {
+            writer.write(objectMapper.writeValueAsString(result));
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Prepara la reanudación de un trabajo interrumpido: descarta una posible
+     * línea incompleta al final del archivo de resultados y recalcula el progreso
+     * a partir de las líneas completas.
+     *
+     * @return estado con las filas y coincidencias ya escritas
+     */
+    public BulkJobStatusDto recoverProgress(BulkJobStatusDto status) throws IOException {
+        Path results = jobDir(status.getJobId()).resolve(RESULTS_FILE);
+        if (!Files.exists(results)) {
+            return status.toBuilder().rowsDone(0).matches(0).build();
+        }
+
+        long rows = 0;
+        long matches = 0;
+        long validBytes = 0;
+        try (BufferedReader reader = Files.newBufferedReader(results, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                BulkValidateResultDto result;
+                try {
+                    result = objectMapper.readValue(line, BulkValidateResultDto.class);
+                } catch (IOException e) {
+                    break;
+                }
+                rows++;
+                matches += result.getMatchCount();
+                validBytes += line.getBytes(StandardCharsets.UTF_8).length + 1;
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(results, StandardOpenOption.WRITE)) {
+            if (channel.size() > validBytes) {
+                channel.truncate(validBytes);
+            }
+        }
+        return status.toBuilder().rowsDone(rows).matches(matches).build();
+    }
+
+    /**
+     * Escribe los resultados de un trabajo como un arreglo JSON, con el mismo
+     * formato que la respuesta de la validación masiva síncrona.
+     */
+    public void writeResultsArray(String jobId, OutputStream out) throws IOException {
+        Path results = jobDir(jobId).resolve(RESULTS_FILE);
+        out.write('[');
+        if (Files.exists(results)) {
+            try (BufferedReader reader = Files.newBufferedReader(results, StandardCharsets.UTF_8)) {
+                String line;
+                boolean first = true;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    if (!first) {
+                        out.write(',');
+                    }
+                    out.write(line.getBytes(StandardCharsets.UTF_8));
+                    first = false;
+                }
+            }
+        }
+        out.write(']');
+    }
+
+    /**
+     * Elimina los trabajos terminados más antiguos que el periodo de retención.
+     */
+    @Scheduled(fixedDelayString = "PT1H", initialDelayString = "PT5M")
+    public void purgeExpired() {
+        LocalDateTime limit = LocalDateTime.now().minus(retention);
+        for (BulkJobStatusDto job : loadAll()) {
+            if (job.getState() != null && job.getState().isFinished()
+                    && job.getFinishedAt() != null && job.getFinishedAt().isBefore(limit)) {
+                delete(job.getJobId());
+            }
+        }
+    }
+
+    public void delete(String jobId) {
+        try (Stream<Path> files = Files.walk(jobDir(jobId))) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            log.info("Trabajo de validación masiva {} eliminado", jobId);
+        } catch (IOException e) {
+            log.warn("No se pudo eliminar el trabajo {}", jobId, e);
+        }
+    }
+
+    private Path jobDir(String jobId) {
+        // Valida el formato para evitar rutas fuera del directorio de trabajos
+        return directory.resolve(UUID.fromString(jobId).toString());
+    }
+}
@@ -0,0 +1,207 @@
+package com.neffi.laft.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.neffi.laft.config.ReportExecutorConfig;
+import com.neffi.laft.dto.BulkValidateResultDto;
+import com.neffi.laft.dto.RestrictiveListEntry;
+import com.neffi.laft.utils.CountingOutputStream;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Genera un informe PDF de validación por cada sujeto de una validación masiva
+ * y los escribe en un archivo ZIP.
+ * <p>
+ * Los informes se generan en el pool {@link ReportExecutorConfig#PDF_REPORT_EXECUTOR},
+ * cada uno con su propio documento, y se escriben en el ZIP en el orden en que
+ * terminan. Solo hay un número acotado de informes en vuelo, por lo que la
+ * memoria usada no depende del número de sujetos.
+ */
+@Slf4j
+@Service
+public class BulkPdfReportService {
+
+    static final String DEFAULT_PERSON_TYPE = "No especificado";
+
+    static final String ERRORS_ENTRY = "errores.txt";
+
+    private final PdfReportService pdfReportService;
+    private final TiposDocumentosService tiposDocumentosService;
+    private final ReportMetrics reportMetrics;
+    private final ExecutorService executor;
+
+    /** Informes generados pendientes de escribir, como máximo. */
+    private final int maxInFlight;
+
+    public BulkPdfReportService(PdfReportService pdfReportService,
+            TiposDocumentosService tiposDocumentosService,
+            ReportMetrics reportMetrics,
+            @Qualifier(ReportExecutorConfig.PDF_REPORT_EXECUTOR) ExecutorService executor,
+            @Value("${app.report.pdf.max-in-flight:0}") int maxInFlight) {
+        this.pdfReportService = pdfReportService;
+        this.tiposDocumentosService = tiposDocumentosService;
+        this.reportMetrics = reportMetrics;
+        this.executor = executor;
+        this.maxInFlight = maxInFlight > 0 ? maxInFlight : 2 * Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Escribe en {@code out} un ZIP con un informe PDF por sujeto. Los sujetos
+     * cuyo informe falla se listan en {@value #ERRORS_ENTRY} y no interrumpen
+     * el resto.
+     *
+     * @param data     resultados de la validación masiva
+     * @param userName usuario que aparece en los informes
+     * @param out      stream de salida; no se cierra
+     */
+    public void writeZip(List<BulkValidateResultDto> data, String userName, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        CountingOutputStream counting = new CountingOutputStream(out);
+        ZipOutputStream zip = new ZipOutputStream(counting);
+        // Los PDF ya van comprimidos; se almacenan sin volver a comprimir
+        zip.setMethod(ZipOutputStream.STORED);
+
+        CompletionService<RenderedReport> completion = new ExecutorCompletionService<>(executor);
+        Set<Future<RenderedReport>> pending = new HashSet<>();
+        Set<String> entryNames = new HashSet<>();
+        List<String> errors = new ArrayList<>();
+
+        try {
+            int next = 0;
+            while (next < data.size() || !pending.isEmpty()) {
+                while (next < data.size() && pending.size() < maxInFlight) {
+                    int index = next++;
+                    BulkValidateResultDto subject = data.get(index);
+                    pending.add(completion.submit(() -> render(index, subject, userName)));
+                }
+
+                RenderedReport report = take(completion, pending);
+                if (report.error != null) {
+                    errors.add(report.error);
+                    continue;
+                }
+                writeEntry(zip, uniqueName(entryNames, report.fileName), report.pdf, report.crc);
+            }
+
+            if (!errors.isEmpty()) {
+                byte[] content = String.join(System.lineSeparator(), errors).getBytes(StandardCharsets.UTF_8);
+                CRC32 crc = new CRC32();
+                crc.update(content);
+                writeEntry(zip, ERRORS_ENTRY, content, crc.getValue());
+            }
+            zip.finish();
+        } finally {
+            // Si el cliente se desconecta no se siguen generando informes
+            pending.forEach(future -> future.cancel(true));
+        }
+
+        reportMetrics.record("zip", System.nanoTime() - start, counting.getCount());
+        log.info("ZIP de informes PDF generado: {} sujetos, {} errores, {} bytes en {} ms",
+                data.size(), errors.size(), counting.getCount(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private RenderedReport render(int index, BulkValidateResultDto subject, String userName) {
+        String documentNumber = subject.getQueryDocumentNumber();
+        try {
+            List<RestrictiveListEntry> matches = subject.getMatches() != null ? subject.getMatches() : List.of();
+            byte[] pdf = pdfReportService.generateValidationReport(
+                    documentNumber,
+                    resolvePersonType(matches),
+                    subject.getQueryFullName(),
+                    userName,
+                    matches);
+            CRC32 crc = new CRC32();
+            crc.update(pdf);
+            return new RenderedReport(fileName(index, documentNumber), pdf, crc.getValue(), null);
+        } catch (IOException | RuntimeException e) {
+            log.error("Error generando informe PDF del sujeto {} (fila {})", documentNumber, index + 1, e);
+            return new RenderedReport(null, null, 0L, "Fila " + (index + 1) + " - documento " + documentNumber
+                    + ": " + e.getMessage());
+        }
+    }
+
+    private String resolvePersonType(List<RestrictiveListEntry> matches) {
+        if (matches.isEmpty() || matches.get(0).getTipoDocumento() == null) {
+            return DEFAULT_PERSON_TYPE;
+        }
+        try {
+            return tiposDocumentosService.getTiposDocumentosByCodHomologa(matches.get(0).getTipoDocumento())
+                    .getDescripcion();
+        } catch (NoSuchElementException e) {
+            return DEFAULT_PERSON_TYPE;
+        }
+    }
+
+    private static RenderedReport take(CompletionService<RenderedReport> completion,
+            Set<Future<RenderedReport>> pending) throws IOException {
+        try {
+            Future<RenderedReport> future = completion.take();
+            pending.remove(future);
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Generación de informes interrumpida", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Error generando informe PDF", e.getCause());
+        }
+    }
+
+    private static void writeEntry(ZipOutputStream zip, String name, byte[] content, long crc) throws IOException {
+        ZipEntry entry = new ZipEntry(name);
+        entry.setSize(content.length);
+        entry.setCompressedSize(content.length);
+        entry.setCrc(crc);
+        zip.putNextEntry(entry);
+        zip.write(content);
+        zip.closeEntry();
+    }
+
+    static String fileName(int index, String documentNumber) {
+        String document = documentNumber == null ? "" : documentNumber.replaceAll("[^A-Za-z0-9_-]", "");
+        return "informe_validacion_" + (document.isEmpty() ? "fila_" + (index + 1) : document) + ".pdf";
+    }
+
+    /** Agrega un sufijo si el documento se repite en el archivo. */
+    private static String uniqueName(Set<String> names, String fileName) {
+        String name = fileName;
+        int suffix = 2;
+        while (!names.add(name)) {
+            name = fileName.substring(0, fileName.length() - 4) + "_" + suffix++ + ".pdf";
+        }
+        return name;
+    }
+
+    private static final class RenderedReport {
+        final String fileName;
+        final byte[] pdf;
+        final long crc;
+        final String error;
+
+        RenderedReport(String fileName, byte[] pdf, long crc, String error) {
+            this.fileName = fileName;
+            this.pdf = pdf;
+            this.crc = crc;
+            this.error = error;
+        }
+    }
+}
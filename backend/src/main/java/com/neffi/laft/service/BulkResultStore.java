@@ -0,0 +1,279 @@
+package com.neffi.laft.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.neffi.laft.dto.BulkValidateResultDto;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Resultados de las validaciones masivas síncronas, guardados en el servidor
+ * para generar los informes sin que el cliente vuelva a enviarlos. Cada
+ * resultado se guarda como NDJSON comprimido con GZIP (un
+ * {@link BulkValidateResultDto} por línea), se identifica con un UUID y solo lo
+ * puede leer el usuario que lo creó.
+ * <p>
+ * En memoria se conservan hasta {@code app.bulk.results.max-memory} bytes
+ * comprimidos; los resultados menos usados que no caben se escriben en
+ * {@code app.bulk.results.directory}, que a su vez se limita a
+ * {@code app.bulk.results.max-disk} bytes eliminando los más antiguos. Los
+ * resultados expiran después de {@code app.bulk.results.retention}, contado
+ * desde que se guardaron, también los que están en disco.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BulkResultStore {
+
+    private static final String FILE_SUFFIX = ".ndjson.gz";
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.bulk.results.directory:data/bulk-results}")
+    private Path directory;
+
+    @Value("${app.bulk.results.max-memory:64MB}")
+    private DataSize maxMemory;
+
+    @Value("${app.bulk.results.max-disk:1GB}")
+    private DataSize maxDisk;
+
+    @Value("${app.bulk.results.retention:PT4H}")
+    private Duration retention;
+
+    private Cache<String, StoredResult> memory;
+
+    @PostConstruct
+    void init() {
+        // El listener se ejecuta dentro de la eliminación: el resultado sigue
+        // visible en memoria hasta que queda escrito en disco
+        memory = Caffeine.newBuilder()
+                .maximumWeight(maxMemory.toBytes())
+                .weigher((String id, StoredResult stored) -> stored.encoded().length)
+                .expireAfterWrite(retention)
+                .evictionListener((String id, StoredResult stored, RemovalCause cause) -> {
+                    if (cause == RemovalCause.SIZE) {
+                        spill(id, stored);
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Guarda los resultados de una validación masiva.
+     *
+     * @param owner   usuario que hizo la validación; el único que puede leerlos
+     * @param results resultados en el orden de las filas
+     * @return identificador de los resultados
+     */
+    public String put(String owner, List<BulkValidateResultDto> results) {
+        String id = UUID.randomUUID().toString();
+        memory.put(id, new StoredResult(ownerKey(owner), encode(results), Instant.now()));
+        return id;
+    }
+
+    /**
+     * Recupera los resultados de una validación masiva, de memoria o de disco.
+     *
+     * @param id    identificador retornado por {@link #put(String, List)}
+     * @param owner usuario que pide los resultados
+     * @return resultados en el orden de las filas
+     * @throws NoSuchElementException si el identificador no existe, ya expiró o
+     *                                es de otro usuario
+     */
+    public List<BulkValidateResultDto> get(String id, String owner) throws IOException {
+        String key;
+        try {
+            // Valida el formato para evitar rutas fuera del directorio
+            key = UUID.fromString(id).toString();
+        } catch (IllegalArgumentException e) {
+            throw new NoSuchElementException("Resultado de validación masiva no encontrado: " + id);
+        }
+        String ownerKey = ownerKey(owner);
+        StoredResult stored = memory.getIfPresent(key);
+        if (stored != null) {
+            // Un resultado de otro usuario se reporta como inexistente
+            if (!stored.owner().equals(ownerKey)) {
+                throw new NoSuchElementException("Resultado de validación masiva no encontrado: " + id);
+            }
+            return decode(new ByteArrayInputStream(stored.encoded()));
+        }
+        Path file = file(key, ownerKey);
+        try {
+            if (Files.getLastModifiedTime(file).toInstant().isBefore(Instant.now().minus(retention))) {
+                Files.deleteIfExists(file);
+                throw new NoSuchElementException("Resultado de validación masiva expirado: " + id);
+            }
+            try (InputStream in = Files.newInputStream(file)) {
+                return decode(in);
+            }
+        } catch (NoSuchFileException e) {
+            throw new NoSuchElementException("Resultado de validación masiva no encontrado o expirado: " + id);
+        }
+    }
+
+    /**
+     * Elimina del disco los resultados más antiguos que el periodo de retención.
+     */
+    @Scheduled(fixedDelayString = "PT10M", initialDelayString = "PT1M")
+    public void purgeExpired() {
+        Instant limit = Instant.now().minus(retention);
+        for (Path file : spilledFiles()) {
+            try {
+                if (Files.getLastModifiedTime(file).toInstant().isBefore(limit)) {
+                    Files.deleteIfExists(file);
+                }
+            } catch (IOException e) {
+                log.warn("No se pudo eliminar el resultado masivo {}", file, e);
+            }
+        }
+    }
+
+    private byte[] encode(List<BulkValidateResultDto> results) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream gzip = new GZIPOutputStream(bytes);
+                SequenceWriter writer = objectMapper.writerFor(BulkValidateResultDto.class)
+                        .withRootValueSeparator("\n")
+                        .writeValues(gzip)) {
+            writer.writeAll(results);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private List<BulkValidateResultDto> decode(InputStream encoded) throws IOException {
+        try (InputStream gzip = new GZIPInputStream(encoded);
+                MappingIterator<BulkValidateResultDto> values = objectMapper
+                        .readerFor(BulkValidateResultDto.class)
+                        .readValues(gzip)) {
+            return values.readAll(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Escribe en disco un resultado que salió de la memoria y elimina los más
+     * antiguos si el directorio supera su límite. La fecha de modificación del
+     * archivo es la de creación del resultado, para contar la retención desde
+     * ahí.
+     */
+    private synchronized void spill(String id, StoredResult stored) {
+        try {
+            Files.createDirectories(directory);
+            Path tmp = Files.createTempFile(directory, id, ".tmp");
+            Files.write(tmp, stored.encoded());
+            Files.setLastModifiedTime(tmp, FileTime.from(stored.createdAt()));
+            Files.move(tmp, file(id, stored.owner()), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Resultado masivo {} escrito en disco ({} bytes)", id, stored.encoded().length);
+        } catch (IOException e) {
+            log.error("No se pudo escribir en disco el resultado masivo {}; se descarta", id, e);
+            return;
+        }
+        trimDisk();
+    }
+
+    private void trimDisk() {
+        List<Path> files = spilledFiles();
+        long total = 0;
+        for (Path file : files) {
+            total += file.toFile().length();
+        }
+        files.sort(Comparator.comparing(BulkResultStore::lastModified));
+        for (Path file : files) {
+            if (total <= maxDisk.toBytes()) {
+                break;
+            }
+            long size = file.toFile().length();
+            try {
+                Files.deleteIfExists(file);
+                total -= size;
+                log.info("Resultado masivo {} eliminado del disco por espacio", file.getFileName());
+            } catch (IOException e) {
+                log.warn("No se pudo eliminar el resultado masivo {}", file, e);
+            }
+        }
+    }
+
+    private List<Path> spilledFiles() {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return files;
+        }
+        try (Stream<Path> paths = Files.list(directory)) {
+            paths.filter(path -> path.getFileName().toString().endsWith(FILE_SUFFIX)).forEach(files::add);
+        } catch (IOException e) {
+            log.error("No se pudo listar el directorio de resultados masivos {}", directory, e);
+        }
+        return files;
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    /**
+     * Archivo de un resultado: el nombre incluye el dueño, así un identificador
+     * pedido por otro usuario no encuentra el archivo.
+     */
+    private Path file(String id, String ownerKey) {
+        return directory.resolve(id + "." + ownerKey + FILE_SUFFIX);
+    }
+
+    /**
+     * Huella del usuario dueño de un resultado, apta para nombres de archivo.
+     */
+    private static String ownerKey(String owner) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest((owner != null ? owner : "").getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private record StoredResult(String owner, byte[] encoded, Instant createdAt) {
+    }
+}
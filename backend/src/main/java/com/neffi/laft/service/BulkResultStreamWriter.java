@@ -0,0 +1,104 @@
+package com.neffi.laft.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.neffi.laft.dto.BulkRunSummaryDto;
+import com.neffi.laft.dto.BulkStreamRecordDto;
+import com.neffi.laft.dto.BulkValidateResultDto;
+
+/**
+ * Escribe los resultados de una validación masiva a medida que se obtienen, en
+ * NDJSON (un {@link BulkStreamRecordDto} por línea) o como eventos SSE cuyo
+ * nombre es el tipo del registro. Cada registro se envía de inmediato al
+ * cliente; entre resultados se intercala un registro de avance como máximo
+ * cada {@code progressInterval}.
+ */
+public class BulkResultStreamWriter {
+
+    public static final String RESULT = "result";
+    public static final String PROGRESS = "progress";
+    public static final String SUMMARY = "summary";
+    public static final String ERROR = "error";
+
+    private static final byte[] NEWLINE = { '\n' };
+
+    private final ObjectMapper objectMapper;
+    private final OutputStream out;
+    private final boolean sse;
+    private final long progressIntervalNanos;
+    private final long startedAt = System.nanoTime();
+    private long lastProgressAt = startedAt;
+    private long lastProgressRows = -1;
+    private long rowsDone;
+    private long matches;
+
+    public BulkResultStreamWriter(ObjectMapper objectMapper, OutputStream out, boolean sse,
+            Duration progressInterval) {
+        this.objectMapper = objectMapper;
+        this.out = out;
+        this.sse = sse;
+        this.progressIntervalNanos = progressInterval.toNanos();
+    }
+
+    /**
+     * Escribe el resultado de una fila y, si corresponde, un registro de avance.
+     *
+     * @throws UncheckedIOException si el cliente cerró la conexión
+     */
+    public void result(BulkValidateResultDto result) {
+        rowsDone++;
+        matches += result.getMatchCount();
+        write(BulkStreamRecordDto.builder().type(RESULT).result(result).build());
+        long now = System.nanoTime();
+        if (now - lastProgressAt >= progressIntervalNanos) {
+            writeProgress(now);
+        }
+    }
+
+    /** Escribe el avance final, si cambió, y el resumen de la ejecución. */
+    public void summary(BulkRunSummaryDto summary) {
+        if (rowsDone != lastProgressRows) {
+            writeProgress(System.nanoTime());
+        }
+        write(BulkStreamRecordDto.builder().type(SUMMARY).summary(summary).build());
+    }
+
+    /** Escribe el error que interrumpió la ejecución, después del último resultado enviado. */
+    public void error(String message) {
+        write(BulkStreamRecordDto.builder().type(ERROR).rowsDone(rowsDone).error(message).build());
+    }
+
+    private void writeProgress(long now) {
+        lastProgressAt = now;
+        lastProgressRows = rowsDone;
+        write(BulkStreamRecordDto.builder()
+                .type(PROGRESS)
+                .rowsDone(rowsDone)
+                .matches(matches)
+                .elapsedMillis((now - startedAt) / 1_000_000)
+                .build());
+    }
+
+    private void write(BulkStreamRecordDto record) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(record);
+            if (sse) {
+                out.write(("event: " + record.getType() + "\ndata: ").getBytes(StandardCharsets.UTF_8));
+                out.write(json);
+                out.write(NEWLINE);
+                out.write(NEWLINE);
+            } else {
+                out.write(json);
+                out.write(NEWLINE);
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
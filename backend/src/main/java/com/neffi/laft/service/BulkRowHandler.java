@@ -0,0 +1,26 @@
+package com.neffi.laft.service;
+
+import com.neffi.laft.enums.BulkTemplateColumn;
+
+/**
+ * Receptor de las filas leídas de un archivo de validación masiva. Los lectores
+ * entregan las filas una a una, sin materializar el archivo completo.
+ */
+public interface BulkRowHandler {
+
+    /**
+     * Recibe la fila de encabezados.
+     *
+     * @param headers celdas del encabezado, o {@code null} si el archivo no tiene
+     *                fila de encabezados
+     */
+    void header(String[] headers);
+
+    /**
+     * Recibe una fila de datos.
+     *
+     * @param rowNumber número de fila en el archivo (base 1)
+     * @param cells     celdas indexadas por {@link BulkTemplateColumn#index()}
+     */
+    void row(int rowNumber, String[] cells);
+}
@@ -0,0 +1,450 @@
+package com.neffi.laft.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.neffi.laft.enums.BulkInputFormat;
+import com.neffi.laft.enums.BulkTemplateColumn;
+
+/**
+ * Lector de archivos de validación masiva en CSV y NDJSON. Lee el archivo por
+ * bloques en un {@link ByteBuffer} y separa los registros directamente sobre
+ * los bytes: en CSV solo se decodifica el texto de cada celda y en NDJSON cada
+ * línea se analiza desde el arreglo del buffer, sin copiarla. La memoria usada
+ * no depende del número de filas: un registro de más de
+ * {@value #MAX_RECORD_BYTES} bytes se rechaza con
+ * {@link IllegalArgumentException}.
+ * <p>
+ * Las celdas se entregan como texto recortado, igual que en
+ * {@link BulkWorkbookReader}, salvo que los números se conservan tal como
+ * vienen: una identificación numérica no pasa por {@code double}.
+ */
+@Component
+public class BulkTextReader {
+
+    private static final int COLUMN_COUNT = BulkTemplateColumn.values().length;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /** Tamaño máximo de un registro; el buffer no crece más allá. */
+    private static final int MAX_RECORD_BYTES = 1024 * 1024;
+
+    /** Columnas por nombre de la constante o texto del encabezado, sin tildes ni mayúsculas. */
+    private static final Map<String, Integer> NDJSON_KEYS = new HashMap<>();
+
+    static {
+        for (BulkTemplateColumn column : BulkTemplateColumn.values()) {
+            NDJSON_KEYS.put(normalizeKey(column.name()), column.index());
+            NDJSON_KEYS.put(normalizeKey(column.header()), column.index());
+        }
+    }
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    /**
+     * Lee un archivo CSV o NDJSON desde un stream.
+     *
+     * @param input   contenido del archivo
+     * @param format  formato del archivo
+     * @param handler receptor de las filas
+     */
+    public void read(InputStream input, BulkInputFormat format, BulkRowHandler handler) throws IOException {
+        read(Channels.newChannel(input), format, handler);
+    }
+
+    /**
+     * Lee un archivo CSV o NDJSON del disco.
+     *
+     * @param file    archivo
+     * @param format  formato del archivo
+     * @param handler receptor de las filas
+     */
+    public void read(Path file, BulkInputFormat format, BulkRowHandler handler) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            read(channel, format, handler);
+        }
+    }
+
+    private void read(ReadableByteChannel channel, BulkInputFormat format, BulkRowHandler handler)
+            throws IOException {
+        RecordParser parser = switch (format) {
+            case CSV -> new CsvParser(handler);
+            case NDJSON -> new NdjsonParser(handler);
+            default -> throw new IllegalArgumentException("Formato no soportado por el lector de texto: " + format);
+        };
+        scan(channel, parser);
+        parser.finish();
+    }
+
+    /**
+     * Recorre el canal entregando al analizador cada registro completo como un
+     * rango del arreglo del buffer. Un registro que no cabe en el buffer lo
+     * hace crecer hasta {@link #MAX_RECORD_BYTES}. El analizador retoma la
+     * búsqueda del fin de registro donde la dejó, sin volver a recorrer los
+     * bytes ya vistos.
+     */
+    private static void scan(ReadableByteChannel channel, RecordParser parser) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        buffer.flip();
+        boolean eof = false;
+        boolean first = true;
+        while (true) {
+            int start = buffer.position();
+            int end = parser.recordEnd(buffer.array(), start, buffer.limit());
+            if (end >= 0) {
+                parser.record(buffer.array(), start, end);
+                buffer.position(end + 1);
+                continue;
+            }
+            if (eof) {
+                if (start < buffer.limit()) {
+                    parser.record(buffer.array(), start, buffer.limit());
+                }
+                return;
+            }
+            buffer.compact();
+            if (!buffer.hasRemaining()) {
+                if (buffer.capacity() > MAX_RECORD_BYTES) {
+                    throw new IllegalArgumentException(String.format(
+                            "El registro de la línea %d supera el máximo de %d bytes.", parser.line,
+                            MAX_RECORD_BYTES));
+                }
+                buffer.flip();
+                buffer = ByteBuffer.allocate(Math.min(buffer.capacity() * 2, MAX_RECORD_BYTES + 1)).put(buffer);
+            }
+            eof = channel.read(buffer) < 0;
+            buffer.flip();
+            if (first) {
+                first = false;
+                skipByteOrderMark(buffer);
+            }
+        }
+    }
+
+    private static void skipByteOrderMark(ByteBuffer buffer) {
+        if (buffer.remaining() >= 3 && buffer.get(0) == (byte) 0xEF && buffer.get(1) == (byte) 0xBB
+                && buffer.get(2) == (byte) 0xBF) {
+            buffer.position(3);
+        }
+    }
+
+    private static String normalizeKey(String key) {
+        return Normalizer.normalize(key, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .replaceAll("[\\s_]+", "")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isBlank(byte[] data, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (data[i] != ' ' && data[i] != '\t' && data[i] != '\r') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private abstract static class RecordParser {
+
+        protected final BulkRowHandler handler;
+
+        /** Línea del archivo en la que empieza el registro actual (base 1). */
+        protected int line = 1;
+
+        protected RecordParser(BulkRowHandler handler) {
+            this.handler = handler;
+        }
+
+        /**
+         * Busca el fin del registro que empieza en {@code start}. Si está
+         * incompleto, la siguiente llamada para el mismo registro continúa desde
+         * {@code limit}.
+         *
+         * @return índice del salto de línea que termina el registro, o -1 si el
+         *         registro está incompleto
+         */
+        abstract int recordEnd(byte[] data, int start, int limit);
+
+        abstract void record(byte[] data, int start, int end) throws IOException;
+
+        abstract void finish();
+    }
+
+    /**
+     * CSV según RFC 4180: campos entre comillas con comillas dobladas y saltos
+     * de línea permitidos. Una comilla solo abre un campo entre comillas al
+     * inicio del campo; dentro de un valor sin comillas ({@code O"Brien}) es un
+     * carácter más. El separador se detecta en la fila de encabezados.
+     */
+    private static final class CsvParser extends RecordParser {
+
+        private byte delimiter;
+        private boolean headerSeen;
+        private byte[] quoted = new byte[256];
+
+        /** Estado de la búsqueda del fin del registro actual, relativo a su inicio. */
+        private int scanned;
+        private boolean inQuotes;
+        private boolean fieldStart = true;
+        private int newlines;
+
+        private CsvParser(BulkRowHandler handler) {
+            super(handler);
+        }
+
+        @Override
+        int recordEnd(byte[] data, int start, int limit) {
+            for (int i = start + scanned; i < limit; i++) {
+                byte b = data[i];
+                if (inQuotes) {
+                    if (b == '"') {
+                        if (i + 1 == limit) {
+                            // Sin el siguiente byte no se sabe si es una comilla doblada
+                            scanned = i - start;
+                            return -1;
+                        }
+                        if (data[i + 1] == '"') {
+                            i++;
+                        } else {
+                            inQuotes = false;
+                        }
+                    } else if (b == '\n') {
+                        newlines++;
+                    }
+                } else if (b == '\n') {
+                    scanned = 0;
+                    fieldStart = true;
+                    return i;
+                } else if (isDelimiter(b)) {
+                    fieldStart = true;
+                } else {
+                    inQuotes = b == '"' && fieldStart;
+                    fieldStart = false;
+                }
+            }
+            scanned = limit - start;
+            return -1;
+        }
+
+        /** Antes de leer el encabezado cualquier separador candidato cierra el campo. */
+        private boolean isDelimiter(byte b) {
+            return delimiter != 0 ? b == delimiter : b == ',' || b == ';' || b == '\t';
+        }
+
+        @Override
+        void record(byte[] data, int start, int end) {
+            int recordLine = line;
+            line += newlines + 1;
+            newlines = 0;
+            if (isBlank(data, start, end)) {
+                return;
+            }
+            if (end > start && data[end - 1] == '\r') {
+                end--;
+            }
+            if (!headerSeen) {
+                headerSeen = true;
+                delimiter = detectDelimiter(data, start, end);
+                handler.header(fields(data, start, end, Integer.MAX_VALUE));
+                return;
+            }
+            String[] cells = fields(data, start, end, COLUMN_COUNT);
+            if (cells.length < COLUMN_COUNT) {
+                int filled = cells.length;
+                cells = Arrays.copyOf(cells, COLUMN_COUNT);
+                Arrays.fill(cells, filled, COLUMN_COUNT, "");
+            }
+            handler.row(recordLine, cells);
+        }
+
+        @Override
+        void finish() {
+            if (!headerSeen) {
+                handler.header(null);
+            }
+        }
+
+        private String[] fields(byte[] data, int start, int end, int maxFields) {
+            String[] fields = new String[Math.min(maxFields, 8)];
+            int count = 0;
+            int i = start;
+            while (count < maxFields) {
+                String value;
+                if (i < end && data[i] == '"') {
+                    int length = 0;
+                    i++;
+                    while (i < end) {
+                        byte b = data[i];
+                        if (b == '"') {
+                            if (i + 1 < end && data[i + 1] == '"') {
+                                i++;
+                            } else {
+                                i++;
+                                break;
+                            }
+                        }
+                        if (length == quoted.length) {
+                            quoted = Arrays.copyOf(quoted, length * 2);
+                        }
+                        quoted[length++] = data[i++];
+                    }
+                    value = text(quoted, 0, length);
+                    while (i < end && data[i] != delimiter) {
+                        i++;
+                    }
+                } else {
+                    int fieldStart = i;
+                    while (i < end && data[i] != delimiter) {
+                        i++;
+                    }
+                    value = text(data, fieldStart, i);
+                }
+                if (count == fields.length) {
+                    fields = Arrays.copyOf(fields, count * 2);
+                }
+                fields[count++] = value;
+                if (i >= end) {
+                    break;
+                }
+                i++;
+            }
+            return count == fields.length ? fields : Arrays.copyOf(fields, count);
+        }
+
+        private static String text(byte[] data, int start, int end) {
+            while (start < end && (data[start] == ' ' || data[start] == '\t')) {
+                start++;
+            }
+            while (end > start && (data[end - 1] == ' ' || data[end - 1] == '\t')) {
+                end--;
+            }
+            return start == end ? "" : new String(data, start, end - start, StandardCharsets.UTF_8);
+        }
+
+        /** El separador más frecuente fuera de comillas entre coma, punto y coma y tabulador. */
+        private static byte detectDelimiter(byte[] data, int start, int end) {
+            int commas = 0;
+            int semicolons = 0;
+            int tabs = 0;
+            boolean inQuotes = false;
+            for (int i = start; i < end; i++) {
+                switch (data[i]) {
+                    case '"' -> inQuotes = !inQuotes;
+                    case ',' -> commas += inQuotes ? 0 : 1;
+                    case ';' -> semicolons += inQuotes ? 0 : 1;
+                    case '\t' -> tabs += inQuotes ? 0 : 1;
+                    default -> {
+                        // otros caracteres
+                    }
+                }
+            }
+            if (semicolons > commas && semicolons >= tabs) {
+                return ';';
+            }
+            return tabs > commas ? (byte) '\t' : (byte) ',';
+        }
+    }
+
+    /**
+     * NDJSON: un objeto plano por línea. Las claves son el nombre de la columna
+     * ({@code NUMERO_DOCUMENTO}) o su encabezado ({@code Número de Documento});
+     * las claves desconocidas se ignoran.
+     */
+    private final class NdjsonParser extends RecordParser {
+
+        /** Máximo de claves distintas resueltas que se recuerdan por archivo. */
+        private static final int MAX_CACHED_KEYS = 64;
+
+        /** Columna de cada clave tal como aparece en el archivo; -1 si no corresponde a ninguna. */
+        private final Map<String, Integer> columns = new HashMap<>();
+
+        private NdjsonParser(BulkRowHandler handler) {
+            super(handler);
+            handler.header(BulkTemplateColumn.headers());
+        }
+
+        /** Bytes ya recorridos del registro actual sin encontrar su fin. */
+        private int scanned;
+
+        @Override
+        int recordEnd(byte[] data, int start, int limit) {
+            for (int i = start + scanned; i < limit; i++) {
+                if (data[i] == '\n') {
+                    scanned = 0;
+                    return i;
+                }
+            }
+            scanned = limit - start;
+            return -1;
+        }
+
+        @Override
+        void record(byte[] data, int start, int end) throws IOException {
+            int recordLine = line++;
+            if (isBlank(data, start, end)) {
+                return;
+            }
+            String[] cells = new String[COLUMN_COUNT];
+            Arrays.fill(cells, "");
+            try (JsonParser parser = jsonFactory.createParser(data, start, end - start)) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    throw new IOException("Fila " + recordLine + ": se esperaba un objeto JSON");
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    int column = column(parser.currentName());
+                    JsonToken value = parser.nextToken();
+                    String text = switch (value) {
+                        case VALUE_STRING -> parser.getText().trim();
+                        // El texto original del número, sin conversión a double
+                        case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> parser.getText();
+                        case START_OBJECT, START_ARRAY -> {
+                            parser.skipChildren();
+                            yield "";
+                        }
+                        default -> "";
+                    };
+                    if (column >= 0) {
+                        cells[column] = text;
+                    }
+                }
+            } catch (JsonProcessingException e) {
+                throw new IOException("Fila " + recordLine + ": JSON inválido - " + e.getOriginalMessage(), e);
+            }
+            handler.row(recordLine, cells);
+        }
+
+        private int column(String key) {
+            Integer column = columns.get(key);
+            if (column == null) {
+                column = NDJSON_KEYS.getOrDefault(normalizeKey(key), -1);
+                if (columns.size() < MAX_CACHED_KEYS) {
+                    columns.put(key, column);
+                }
+            }
+            return column;
+        }
+
+        @Override
+        void finish() {
+            // el encabezado se entrega al crear el analizador
+        }
+    }
+}
@@ -0,0 +1,450 @@
+package com.neffi.laft.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import com.neffi.laft.config.BulkExecutorConfig;
+import com.neffi.laft.dto.BulkRunSummaryDto;
+import com.neffi.laft.dto.BulkValidateResultDto;
+import com.neffi.laft.dto.RestrictiveListEntry;
+import com.neffi.laft.dto.ValidateClientDto;
+import com.neffi.laft.enums.BulkTemplateColumn;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Motor de ejecución de la validación masiva. Divide el trabajo en etapas:
+ * <ol>
+ * <li>lectura: el llamador entrega las celdas de cada fila indexadas por
+ * {@link BulkTemplateColumn};</li>
+ * <li>construcción de parámetros: las celdas se convierten en un
+ * {@link ValidateClientDto};</li>
+ * <li>deduplicación: una fila con la misma identificación y nombres que una
+ * anterior (sin distinguir espacios ni mayúsculas) no se vuelve a consultar si
+ * su auditoría se pudo registrar por otra vía; recibe las coincidencias de la
+ * primera;</li>
+ * <li>consulta: las filas se agrupan en lotes de
+ * {@code app.bulk.screening-batch-size} que se validan en el carril masivo de
+ * {@link ScreeningAdmission}, por turnos entre usuarios y con paralelismo
+ * acotado al tamaño del pool de conexiones;</li>
+ * <li>agregación: los resultados se entregan al consumidor en el orden original
+ * de las filas.</li>
+ * </ol>
+ * El contexto de seguridad del llamador se propaga a los hilos de trabajo para
+ * que la auditoría registre el usuario correcto.
+ * <p>
+ * Métricas: {@code laft.bulk.row.latency} (desde que se lee la fila hasta que
+ * se entrega su resultado), {@code laft.bulk.rows},
+ * {@code laft.bulk.screenings.saved} (filas repetidas que no llamaron
+ * BUT_VALIDAR_LISTAS) y
+ * {@code laft.bulk.throughput} (filas por segundo de cada ejecución).
+ */
+@Slf4j
+@Component
+public class BulkValidationEngine {
+
+    private final ScreeningAdmission admission;
+
+    private final int parallelism;
+
+    private final int batchSize;
+
+    /** Identidades recordadas por ejecución para la deduplicación; 0 la desactiva. */
+    private final int dedupMaxEntries;
+
+    private final Timer rowLatency;
+
+    private final Counter rows;
+
+    private final Counter screeningsSaved;
+
+    private final DistributionSummary throughput;
+
+    public BulkValidationEngine(
+            ScreeningAdmission admission,
+            @Qualifier(BulkExecutorConfig.BULK_SCREENING_PARALLELISM) Integer parallelism,
+            @Value("${app.bulk.screening-batch-size:20}") int batchSize,
+            @Value("${app.bulk.dedup.max-entries:100000}") int dedupMaxEntries,
+            MeterRegistry meterRegistry) {
+        this.admission = admission;
+        this.parallelism = parallelism;
+        this.batchSize = Math.max(1, batchSize);
+        this.dedupMaxEntries = Math.max(0, dedupMaxEntries);
+        this.rowLatency = Timer.builder("laft.bulk.row.latency")
+                .description("Tiempo desde la lectura de una fila hasta la entrega de su resultado")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rows = Counter.builder("laft.bulk.rows")
+                .description("Filas procesadas en validaciones masivas")
+                .register(meterRegistry);
+        this.screeningsSaved = Counter.builder("laft.bulk.screenings.saved")
+                .description("Filas repetidas de validaciones masivas que reutilizaron la consulta de otra fila")
+                .register(meterRegistry);
+        this.throughput = DistributionSummary.builder("laft.bulk.throughput")
+                .description("Filas por segundo de cada validación masiva")
+                .baseUnit("rows/s")
+                .publishPercentileHistogram()
+                .maximumExpectedValue(100_000d)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Abre un pipeline de validación masiva sin deduplicación: cada fila se
+     * consulta en la base de datos.
+     *
+     * @see #open(String, Function, Predicate, Consumer)
+     */
+    public Pipeline open(String usuario,
+            Function<List<ValidateClientDto>, List<List<RestrictiveListEntry>>> screener,
+            Consumer<BulkValidateResultDto> sink) {
+        return open(usuario, screener, query -> false, sink);
+    }
+
+    /**
+     * Abre un pipeline de validación masiva. Debe invocarse desde el hilo que
+     * atiende la petición para capturar su contexto de seguridad.
+     *
+     * @param usuario   usuario dueño de la validación, para repartir turnos
+     * @param screener  función que valida un lote de clientes contra las listas
+     *                  y retorna las coincidencias de cada uno, en el mismo orden
+     * @param duplicate se invoca con la consulta de cada fila repetida al
+     *                  recibirla; debe registrar su auditoría y retornar true
+     *                  para que la fila no se consulte, o false para consultarla
+     *                  como cualquier otra
+     * @param sink      consumidor de los resultados, en el orden de las filas
+     * @return pipeline listo para recibir filas
+     */
+    public Pipeline open(String usuario,
+            Function<List<ValidateClientDto>, List<List<RestrictiveListEntry>>> screener,
+            Predicate<ValidateClientDto> duplicate, Consumer<BulkValidateResultDto> sink) {
+        return open(usuario, screener, duplicate, sink, () -> {
+        });
+    }
+
+    /**
+     * Abre un pipeline de validación masiva que además avisa cada vez que termina
+     * de entregar las filas de un lote, para persistir el avance en ese punto.
+     *
+     * @param batchDelivered se invoca después de entregar al consumidor todas
+     *                       las filas de un lote
+     * @see #open(String, Function, Predicate, Consumer)
+     */
+    public Pipeline open(String usuario,
+            Function<List<ValidateClientDto>, List<List<RestrictiveListEntry>>> screener,
+            Predicate<ValidateClientDto> duplicate, Consumer<BulkValidateResultDto> sink,
+            Runnable batchDelivered) {
+        return new Pipeline(usuario, screener, duplicate, sink, batchDelivered, SecurityContextHolder.getContext());
+    }
+
+    /**
+     * Lotes en vuelo como máximo en un pipeline: las filas de esos lotes pueden
+     * haberse consultado sin haberse entregado todavía.
+     */
+    public int getWindow() {
+        return parallelism * 2;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Pipeline de una ejecución masiva. Mantiene como máximo una ventana de lotes
+     * en vuelo, de modo que la memoria no crece con el tamaño del archivo; las
+     * identidades para la deduplicación se limitan a
+     * {@code app.bulk.dedup.max-entries}, descartando las más antiguas.
+     */
+    public final class Pipeline implements AutoCloseable {
+
+        private final String usuario;
+        private final Function<List<ValidateClientDto>, List<List<RestrictiveListEntry>>> screener;
+        private final Predicate<ValidateClientDto> duplicate;
+        private final Consumer<BulkValidateResultDto> sink;
+        private final Runnable batchDelivered;
+        private final SecurityContext securityContext;
+        private final Deque<Batch> inFlight = new ArrayDeque<>();
+        private final int window = getWindow();
+        private final long startedAt = System.nanoTime();
+        private final Map<ScreeningKey, Screening> screenings = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ScreeningKey, Screening> eldest) {
+                return size() > dedupMaxEntries;
+            }
+        };
+        private Batch current = new Batch(batchSize);
+        private int processed;
+        private int saved;
+
+        private Pipeline(String usuario,
+                Function<List<ValidateClientDto>, List<List<RestrictiveListEntry>>> screener,
+                Predicate<ValidateClientDto> duplicate, Consumer<BulkValidateResultDto> sink,
+                Runnable batchDelivered, SecurityContext securityContext) {
+            this.usuario = usuario;
+            this.screener = screener;
+            this.duplicate = duplicate;
+            this.sink = sink;
+            this.batchDelivered = batchDelivered;
+            this.securityContext = securityContext;
+        }
+
+        /**
+         * Recibe una fila leída del archivo y la agrega al lote en construcción;
+         * cuando el lote se completa se envía a la etapa de consulta. Bloquea
+         * cuando la ventana de lotes en vuelo está llena.
+         *
+         * @param rowNumber número de fila en el archivo (base 1), para los logs
+         * @param cells     celdas indexadas por {@link BulkTemplateColumn#index()}
+         */
+        public void accept(int rowNumber, String[] cells) {
+            PendingRow row = buildRow(rowNumber, cells);
+            ScreeningKey key = dedupMaxEntries > 0 ? ScreeningKey.of(row.query) : null;
+            Screening screening = key != null ? screenings.get(key) : null;
+            if (screening != null && duplicate.test(row.query)) {
+                row.duplicate = true;
+            } else {
+                // Sin auditoría por otra vía la fila repetida se consulta en su lote
+                boolean first = screening == null;
+                screening = new Screening(row.query);
+                current.screenings.add(screening);
+                if (first && key != null) {
+                    screenings.put(key, screening);
+                }
+            }
+            row.screening = screening;
+            current.rows.add(row);
+            if (current.rows.size() >= batchSize) {
+                submitCurrent();
+            }
+
+            while (inFlight.size() >= window) {
+                drainHead();
+            }
+        }
+
+        /**
+         * Envía el lote pendiente, espera a que terminen los lotes en vuelo y
+         * entrega sus filas al consumidor.
+         *
+         * @return filas procesadas, consultas realizadas y consultas evitadas
+         */
+        public BulkRunSummaryDto finish() {
+            if (!current.rows.isEmpty()) {
+                submitCurrent();
+            }
+            while (!inFlight.isEmpty()) {
+                drainHead();
+            }
+            long elapsed = System.nanoTime() - startedAt;
+            if (processed > 0 && elapsed > 0) {
+                throughput.record(processed * 1_000_000_000d / elapsed);
+            }
+            return BulkRunSummaryDto.builder()
+                    .rows(processed)
+                    .screenings(processed - saved)
+                    .callsSaved(saved)
+                    .build();
+        }
+
+        @Override
+        public void close() {
+            for (Batch batch : inFlight) {
+                batch.future.cancel(true);
+            }
+            inFlight.clear();
+        }
+
+        private void submitCurrent() {
+            Batch batch = current;
+            List<ValidateClientDto> queries = new ArrayList<>(batch.screenings.size());
+            for (Screening screening : batch.screenings) {
+                queries.add(screening.query);
+            }
+            batch.future = queries.isEmpty()
+                    ? CompletableFuture.completedFuture(List.of())
+                    : admission.submitBulk(usuario, DelegatingSecurityContextCallable.create(
+                            () -> screener.apply(queries), securityContext));
+            inFlight.addLast(batch);
+            current = new Batch(batchSize);
+        }
+
+        /**
+         * Entrega las filas del lote más antiguo. Las filas repetidas reciben las
+         * coincidencias de su primera aparición, que está en este lote o en uno
+         * anterior y por lo tanto ya terminó.
+         */
+        private void drainHead() {
+            Batch batch = inFlight.removeFirst();
+            List<List<RestrictiveListEntry>> results = await(batch.future);
+            for (int i = 0; i < batch.screenings.size(); i++) {
+                batch.screenings.get(i).matches = results.get(i);
+            }
+            for (PendingRow row : batch.rows) {
+                List<RestrictiveListEntry> matches = row.screening.matches;
+                if (row.duplicate) {
+                    screeningsSaved.increment();
+                    saved++;
+                }
+                sink.accept(BulkValidateResultDto.builder()
+                        .queryDocumentNumber(row.query.getP_IDENTIFICACION())
+                        .queryFullName(row.fullName)
+                        .matchCount(matches.size())
+                        .matches(matches)
+                        .build());
+                rowLatency.record(System.nanoTime() - row.acceptedAt, TimeUnit.NANOSECONDS);
+                rows.increment();
+                processed++;
+            }
+            batchDelivered.run();
+        }
+    }
+
+    private PendingRow buildRow(int rowNumber, String[] cells) {
+        String docNumber = cell(cells, BulkTemplateColumn.NUMERO_DOCUMENTO);
+        String primerNombreCol = cell(cells, BulkTemplateColumn.PRIMER_NOMBRE);
+        String razonSocialCol = cell(cells, BulkTemplateColumn.RAZON_SOCIAL);
+        String primerNombre;
+
+        if (!primerNombreCol.isBlank()) {
+            log.info("Fila {}: Usando Primer Nombre '{}' para documento {}", rowNumber, primerNombreCol, docNumber);
+            primerNombre = primerNombreCol;
+        } else if (!razonSocialCol.isBlank()) {
+            log.info("Fila {}: Usando Razón Social '{}' para documento {}", rowNumber, razonSocialCol, docNumber);
+            primerNombre = razonSocialCol;
+        } else {
+            log.warn("Fila {}: No se proporcionó ni Primer Nombre ni Razón Social. Se omite esta fila.", rowNumber);
+            primerNombre = "";
+        }
+
+        String segundoNombre = cell(cells, BulkTemplateColumn.SEGUNDO_NOMBRE);
+        String primerApellido = cell(cells, BulkTemplateColumn.PRIMER_APELLIDO);
+        String segundoApellido = cell(cells, BulkTemplateColumn.SEGUNDO_APELLIDO);
+
+        String fullName = String.join(" ",
+                Arrays.stream(new String[] { primerNombre, segundoNombre, primerApellido, segundoApellido })
+                        .filter(s -> !s.isBlank())
+                        .toArray(String[]::new));
+
+        ValidateClientDto dto = ValidateClientDto.builder()
+                .p_IDENTIFICACION(docNumber)
+                .p_NOMBRE_1(primerNombre)
+                .p_NOMBRE_2(segundoNombre)
+                .p_APELLIDO_1(primerApellido)
+                .p_APELLIDO_2(segundoApellido)
+                .build();
+
+        return new PendingRow(dto, fullName);
+    }
+
+    private static String cell(String[] cells, BulkTemplateColumn column) {
+        int index = column.index();
+        if (index >= cells.length || cells[index] == null) {
+            return "";
+        }
+        return cells[index];
+    }
+
+    private static List<List<RestrictiveListEntry>> await(Future<List<List<RestrictiveListEntry>>> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Validación masiva interrumpida");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Error validando fila de la carga masiva", cause);
+        }
+    }
+
+    private static final class PendingRow {
+        private final ValidateClientDto query;
+        private final String fullName;
+        private final long acceptedAt = System.nanoTime();
+        private Screening screening;
+        private boolean duplicate;
+
+        private PendingRow(ValidateClientDto query, String fullName) {
+            this.query = query;
+            this.fullName = fullName;
+        }
+    }
+
+    /**
+     * Consulta de una identidad distinta; sus coincidencias se comparten con
+     * todas las filas repetidas.
+     */
+    private static final class Screening {
+        private final ValidateClientDto query;
+        private List<RestrictiveListEntry> matches;
+
+        private Screening(ValidateClientDto query) {
+            this.query = query;
+        }
+    }
+
+    /**
+     * Identidad de una fila para la deduplicación: identificación y partes del
+     * nombre normalizadas igual que en la caché de resultados.
+     */
+    private record ScreeningKey(String identificacion, String nombre1, String nombre2, String apellido1,
+            String apellido2) {
+
+        private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+        private static ScreeningKey of(ValidateClientDto query) {
+            return new ScreeningKey(normalize(query.getP_IDENTIFICACION()), normalize(query.getP_NOMBRE_1()),
+                    normalize(query.getP_NOMBRE_2()), normalize(query.getP_APELLIDO_1()),
+                    normalize(query.getP_APELLIDO_2()));
+        }
+
+        private static String normalize(String value) {
+            if (value == null) {
+                return "";
+            }
+            return WHITESPACE.matcher(value.trim()).replaceAll(" ").toUpperCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * Filas de un lote, en orden, y las consultas distintas que se envían a la
+     * base de datos por ese lote.
+     */
+    private static final class Batch {
+        private final List<PendingRow> rows;
+        private final List<Screening> screenings;
+        private Future<List<List<RestrictiveListEntry>>> future;
+
+        private Batch(int capacity) {
+            this.rows = new ArrayList<>(capacity);
+            this.screenings = new ArrayList<>(capacity);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.neffi.laft.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.springframework.stereotype.Component;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import com.neffi.laft.enums.BulkTemplateColumn;
+
+/**
+ * Lector de la plantilla de validación masiva basado en el modelo de eventos
+ * (SAX) de POI. Recorre el XML de la primera hoja sin construir el DOM del libro,
+ * por lo que la memoria usada no depende del número de filas; solo la tabla de
+ * cadenas compartidas se mantiene en memoria.
+ */
+@Component
+public class BulkWorkbookReader {
+
+    private static final int COLUMN_COUNT = BulkTemplateColumn.values().length;
+
+    /**
+     * Lee un archivo XLSX desde un stream. El contenido se copia a un archivo
+     * temporal para que POI pueda acceder al zip sin cargarlo en memoria.
+     *
+     * @param input   contenido del archivo
+     * @param handler receptor de las filas
+     */
+    public void read(InputStream input, BulkRowHandler handler) throws IOException {
+        Path tempFile = Files.createTempFile("neffi-bulk-", ".xlsx");
+        try {
+            Files.copy(input, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            read(tempFile, handler);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Lee la primera hoja de un archivo XLSX y entrega sus filas al receptor.
+     *
+     * @param file    archivo XLSX
+     * @param handler receptor de las filas
+     */
+    public void read(Path file, BulkRowHandler handler) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable sharedStrings = new ReadOnlySharedStringsTable(pkg, false);
+
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                handler.header(null);
+                return;
+            }
+
+            SheetHandler sheetHandler = new SheetHandler(sharedStrings, handler);
+            try (InputStream sheet = sheets.next()) {
+                XMLReader xmlReader = XMLHelper.newXMLReader();
+                xmlReader.setContentHandler(sheetHandler);
+                xmlReader.parse(new InputSource(sheet));
+            }
+            if (!sheetHandler.headerSeen) {
+                handler.header(null);
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("No se pudo leer el archivo Excel", e);
+        }
+    }
+
+    /**
+     * Manejador SAX del XML de la hoja. Replica las conversiones de
+     * {@code getCellString}: texto recortado, números enteros sin decimales y
+     * cadena vacía para fórmulas, booleanos y errores.
+     */
+    private static final class SheetHandler extends DefaultHandler {
+
+        private final ReadOnlySharedStringsTable sharedStrings;
+        private final BulkRowHandler handler;
+        private final StringBuilder value = new StringBuilder();
+        private final List<String> headerCells = new ArrayList<>();
+
+        private boolean headerSeen;
+        private boolean inHeaderRow;
+        private int rowNumber;
+        private String[] cells;
+        private int nextColumn;
+        private int column;
+        private String cellType;
+        private boolean formula;
+        private boolean collecting;
+
+        private SheetHandler(ReadOnlySharedStringsTable sharedStrings, BulkRowHandler handler) {
+            this.sharedStrings = sharedStrings;
+            this.handler = handler;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "row" -> startRow(attributes);
+                case "c" -> {
+                    String ref = attributes.getValue("r");
+                    column = ref != null ? columnIndex(ref) : nextColumn;
+                    nextColumn = column + 1;
+                    cellType = attributes.getValue("t");
+                    formula = false;
+                    value.setLength(0);
+                    if (inHeaderRow) {
+                        setHeaderCell(column, "");
+                    }
+                }
+                case "f" -> formula = true;
+                case "v", "t" -> collecting = true;
+                default -> {
+                    // elementos sin interés para la lectura
+                }
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+                case "v", "t" -> collecting = false;
+                case "c" -> endCell();
+                case "row" -> endRow();
+                default -> {
+                    // elementos sin interés para la lectura
+                }
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (collecting) {
+                value.append(ch, start, length);
+            }
+        }
+
+        private void startRow(Attributes attributes) {
+            String ref = attributes.getValue("r");
+            rowNumber = ref != null ? Integer.parseInt(ref) : rowNumber + 1;
+            nextColumn = 0;
+
+            if (!headerSeen) {
+                headerSeen = true;
+                if (rowNumber != 1) {
+                    // La primera fila con datos no es el encabezado
+                    handler.header(null);
+                    cells = new String[COLUMN_COUNT];
+                    return;
+                }
+                inHeaderRow = true;
+                return;
+            }
+            cells = new String[COLUMN_COUNT];
+        }
+
+        private void endCell() {
+            String text = cellText();
+            if (inHeaderRow) {
+                setHeaderCell(column, text);
+            } else if (column < COLUMN_COUNT) {
+                cells[column] = text;
+            }
+        }
+
+        private void endRow() {
+            if (inHeaderRow) {
+                inHeaderRow = false;
+                handler.header(headerCells.toArray(String[]::new));
+                return;
+            }
+            for (int i = 0; i < cells.length; i++) {
+                if (cells[i] == null) {
+                    cells[i] = "";
+                }
+            }
+            handler.row(rowNumber, cells);
+        }
+
+        private void setHeaderCell(int index, String text) {
+            while (headerCells.size() <= index) {
+                headerCells.add("");
+            }
+            headerCells.set(index, text);
+        }
+
+        private String cellText() {
+            if (formula) {
+                return "";
+            }
+            if (cellType == null || "n".equals(cellType)) {
+                return numericText(value.toString());
+            }
+            return switch (cellType) {
+                case "s" -> sharedStrings.getItemAt(Integer.parseInt(value.toString().trim())).getString().trim();
+                case "inlineStr", "str" -> value.toString().trim();
+                default -> "";
+            };
+        }
+
+        private static String numericText(String raw) {
+            if (raw.isBlank()) {
+                return "";
+            }
+            double val = Double.parseDouble(raw);
+            if (val == Math.floor(val)) {
+                return String.valueOf((long) val);
+            }
+            return String.valueOf(val);
+        }
+
+        private static int columnIndex(String ref) {
+            int index = 0;
+            for (int i = 0; i < ref.length(); i++) {
+                char c = ref.charAt(i);
+                if (c < 'A' || c > 'Z') {
+                    break;
+                }
+                index = index * 26 + (c - 'A' + 1);
+            }
+            return index - 1;
+        }
+    }
+}
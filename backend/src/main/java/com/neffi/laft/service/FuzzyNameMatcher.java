@@ -0,0 +1,985 @@
+package com.neffi.laft.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Búsqueda aproximada de nombres para la detección de homónimos.
+ * <p>
+ * Los nombres se normalizan (mayúsculas, sin tildes, solo letras y dígitos) y
+ * se guardan como listas ordenadas de tokens de un vocabulario común, de modo
+ * que el orden de nombres y apellidos no afecta el resultado. Los índices son
+ * arreglos de enteros:
+ * <ul>
+ * <li>por trigrama, los tokens del vocabulario que lo contienen;</li>
+ * <li>por token del vocabulario, los nombres que lo contienen.</li>
+ * </ul>
+ * Para cada token de la consulta se buscan con los trigramas los tokens del
+ * vocabulario con similitud Jaro-Winkler de al menos
+ * {@value #TOKEN_MIN_SIMILARITY}. Solo se puntúan los nombres que tienen un
+ * token parecido para al menos {@code minTokenRatio} de los tokens de la
+ * consulta, leyendo primero los tokens menos frecuentes.
+ * <p>
+ * El puntaje de cada candidato es el mayor entre:
+ * <ul>
+ * <li>Monge-Elkan simétrico con Jaro-Winkler: cada token se compara con el
+ * token más parecido del otro nombre, ponderado por su longitud.</li>
+ * <li>Similitud de Levenshtein de los tokens ordenados y unidos sin espacios,
+ * que tolera tokens partidos o unidos ("MARIAJOSE" y "MARIA JOSE").</li>
+ * </ul>
+ * Las consultas no reservan memoria salvo la lista de resultados: usan
+ * buffers por hilo que se reutilizan. La instancia es inmutable y segura entre
+ * hilos.
+ */
+public final class FuzzyNameMatcher {
+
+    /** Puntaje mínimo por defecto para considerar un nombre como homónimo. */
+    public static final double DEFAULT_MIN_SCORE = 0.88;
+
+    /** Fracción por defecto de tokens de la consulta que debe tener un candidato. */
+    public static final double DEFAULT_MIN_TOKEN_RATIO = 0.6;
+
+    /** Similitud Jaro-Winkler mínima para que dos tokens se consideren el mismo. */
+    public static final double TOKEN_MIN_SIMILARITY = 0.85;
+
+    private static final double WINKLER_SCALE = 0.1;
+    private static final int WINKLER_PREFIX = 4;
+
+    /** Trigramas que un token puede perder y seguir siendo candidato: un cambio o una transposición. */
+    private static final int MAX_LOST_TRIGRAMS = 4;
+
+    /** Símbolos de trigrama: relleno, A-Z, 0-9 y cualquier otra letra. */
+    private static final int ALPHABET = 38;
+    private static final int TRIGRAMS = ALPHABET * ALPHABET * ALPHABET;
+
+    /** Tabla de plegado para Latin-1 y Latin Extendido: letra base en mayúscula o 0 si es separador. */
+    private static final char[] FOLD = new char[0x250];
+
+    static {
+        for (char c = 0; c < FOLD.length; c++) {
+            String base = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+            char first = base.charAt(0);
+            FOLD[c] = Character.isLetterOrDigit(first) ? Character.toUpperCase(first) : 0;
+        }
+    }
+
+    /** Pares de tokens en la caché de similitudes de cada hilo. */
+    private static final int SIMILARITY_CACHE_BITS = 13;
+    private static final int SIMILARITY_CACHE = 1 << SIMILARITY_CACHE_BITS;
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private final int size;
+
+    /** Tokens de cada nombre como índices al vocabulario, en orden alfabético. */
+    private final int[] nameTokens;
+    /** Primer token de cada nombre en {@link #nameTokens}; el último elemento marca el final. */
+    private final int[] nameFirstToken;
+
+    /** Vocabulario ordenado: caracteres de todos los tokens e inicio de cada uno. */
+    private final char[] vocabulary;
+    private final int[] vocabularyStart;
+
+    /** Por token del vocabulario, los nombres que lo contienen, en orden. */
+    private final int[] tokenOffsets;
+    private final int[] tokenPostings;
+
+    /** Por trigrama, los tokens del vocabulario que lo contienen, en orden. */
+    private final int[] trigramOffsets;
+    private final int[] trigramPostings;
+
+    public FuzzyNameMatcher(String[] names) {
+        size = names.length;
+        Scratch scratch = new Scratch();
+
+        // Tokens de cada nombre, con índices provisionales en orden de aparición
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> tokens = new ArrayList<>();
+        IntBuffer provisional = new IntBuffer();
+        nameFirstToken = new int[size + 1];
+        for (int i = 0; i < size; i++) {
+            nameFirstToken[i] = provisional.size;
+            int tokenCount = scratch.parse(names[i]);
+            for (int t = 0; t < tokenCount; t++) {
+                String token = new String(scratch.query, scratch.tokenStart[t], scratch.tokenLength(t));
+                Integer id = ids.get(token);
+                if (id == null) {
+                    id = tokens.size();
+                    ids.put(token, id);
+                    tokens.add(token);
+                }
+                provisional.add(id);
+            }
+        }
+        nameFirstToken[size] = provisional.size;
+
+        // Vocabulario en orden alfabético; los tokens de cada nombre ya vienen en ese orden
+        String[] sorted = tokens.toArray(new String[0]);
+        Arrays.sort(sorted);
+        int vocabularySize = sorted.length;
+        int[] remap = new int[vocabularySize];
+        int totalChars = 0;
+        for (int v = 0; v < vocabularySize; v++) {
+            remap[ids.get(sorted[v])] = v;
+            totalChars += sorted[v].length();
+        }
+        vocabulary = new char[totalChars];
+        vocabularyStart = new int[vocabularySize + 1];
+        for (int v = 0; v < vocabularySize; v++) {
+            sorted[v].getChars(0, sorted[v].length(), vocabulary, vocabularyStart[v]);
+            vocabularyStart[v + 1] = vocabularyStart[v] + sorted[v].length();
+        }
+        nameTokens = new int[provisional.size];
+        for (int i = 0; i < provisional.size; i++) {
+            nameTokens[i] = remap[provisional.data[i]];
+        }
+
+        // Nombres por token; un token repetido en un nombre se cuenta una vez
+        tokenOffsets = new int[vocabularySize + 1];
+        for (int i = 0; i < size; i++) {
+            for (int t = nameFirstToken[i]; t < nameFirstToken[i + 1]; t++) {
+                if (t == nameFirstToken[i] || nameTokens[t] != nameTokens[t - 1]) {
+                    tokenOffsets[nameTokens[t] + 1]++;
+                }
+            }
+        }
+        for (int v = 0; v < vocabularySize; v++) {
+            tokenOffsets[v + 1] += tokenOffsets[v];
+        }
+        tokenPostings = new int[tokenOffsets[vocabularySize]];
+        int[] next = Arrays.copyOf(tokenOffsets, vocabularySize);
+        for (int i = 0; i < size; i++) {
+            for (int t = nameFirstToken[i]; t < nameFirstToken[i + 1]; t++) {
+                if (t == nameFirstToken[i] || nameTokens[t] != nameTokens[t - 1]) {
+                    tokenPostings[next[nameTokens[t]]++] = i;
+                }
+            }
+        }
+
+        // Tokens del vocabulario por trigrama
+        int[][] tokenTrigrams = new int[vocabularySize][];
+        trigramOffsets = new int[TRIGRAMS + 1];
+        for (int v = 0; v < vocabularySize; v++) {
+            int count = scratch.trigrams(vocabulary, vocabularyStart[v], vocabularyStart[v + 1] - vocabularyStart[v]);
+            tokenTrigrams[v] = Arrays.copyOf(scratch.trigrams, count);
+            for (int trigram : tokenTrigrams[v]) {
+                trigramOffsets[trigram + 1]++;
+            }
+        }
+        for (int t = 0; t < TRIGRAMS; t++) {
+            trigramOffsets[t + 1] += trigramOffsets[t];
+        }
+        trigramPostings = new int[trigramOffsets[TRIGRAMS]];
+        next = Arrays.copyOf(trigramOffsets, TRIGRAMS);
+        for (int v = 0; v < vocabularySize; v++) {
+            for (int trigram : tokenTrigrams[v]) {
+                trigramPostings[next[trigram]++] = v;
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int vocabularySize() {
+        return vocabularyStart.length - 1;
+    }
+
+    /**
+     * Busca los nombres más parecidos a la consulta formada por las partes del
+     * nombre de {@link com.neffi.laft.dto.ValidateClientDto}; las partes nulas o
+     * vacías se omiten.
+     *
+     * @return hasta {@code limit} coincidencias con puntaje mayor o igual a
+     *         {@code minScore}, de mayor a menor puntaje
+     */
+    public List<Match> match(String nombre1, String nombre2, String apellido1, String apellido2, int limit,
+            double minScore) {
+        return match(join(nombre1, nombre2, apellido1, apellido2), limit, minScore, DEFAULT_MIN_TOKEN_RATIO);
+    }
+
+    /**
+     * Busca los nombres más parecidos a un nombre completo.
+     *
+     * @param name          nombre completo, en cualquier orden
+     * @param limit         máximo de coincidencias
+     * @param minScore      puntaje mínimo, entre 0 y 1
+     * @param minTokenRatio fracción de los tokens distintos de la consulta para
+     *                      los que un candidato debe tener un token parecido
+     * @return coincidencias de mayor a menor puntaje
+     */
+    public List<Match> match(String name, int limit, double minScore, double minTokenRatio) {
+        Scratch s = SCRATCH.get();
+        int queryTokens = s.parse(name);
+        s.nextQuery();
+        if (queryTokens == 0 || limit <= 0 || size == 0) {
+            return List.of();
+        }
+
+        // Un grupo por token distinto de la consulta con los tokens parecidos del vocabulario
+        s.resetGroups(queryTokens);
+        int distinct = 0;
+        for (int q = 0; q < queryTokens; q++) {
+            if (q > 0 && s.sameToken(q - 1, q)) {
+                continue;
+            }
+            distinct++;
+            addSimilarTokens(s, s.tokenStart[q], s.tokenLength(q));
+        }
+        int groups = s.groupCount();
+        int required = Math.max(1, (int) Math.ceil(minTokenRatio * distinct));
+        if (groups < required) {
+            return List.of();
+        }
+        int[] order = s.groupOrder(groups);
+        sortByGroupLength(s, order, groups);
+
+        // Un nombre con 'required' grupos tiene alguno de los 'prefix' grupos menos frecuentes
+        int prefix = groups - required + 1;
+        CandidateCounter candidates = s.names;
+        candidates.reset(size);
+        for (int g = 0; g < prefix; g++) {
+            for (int k = s.groupStart[order[g]]; k < s.groupStart[order[g] + 1]; k++) {
+                int token = s.groupTokens[k];
+                for (int p = tokenOffsets[token]; p < tokenOffsets[token + 1]; p++) {
+                    candidates.increment(tokenPostings[p]);
+                }
+            }
+        }
+
+        // En los demás grupos solo se cuentan los candidatos, recorriendo las listas o buscando cada
+        // candidato según qué sea más barato, y se descartan los que ya no alcanzan el mínimo
+        for (int g = prefix; g < groups; g++) {
+            candidates.retain(required - (groups - g));
+            if (candidates.size() == 0) {
+                break;
+            }
+            int group = order[g];
+            long length = s.groupLength[group];
+            if ((long) candidates.size() * (64 - Long.numberOfLeadingZeros(length)) < length) {
+                probeGroup(s, candidates, group);
+            } else {
+                for (int k = s.groupStart[group]; k < s.groupStart[group + 1]; k++) {
+                    int token = s.groupTokens[k];
+                    candidates.scan(tokenPostings, tokenOffsets[token], tokenOffsets[token + 1]);
+                }
+            }
+        }
+        candidates.retain(required);
+
+        s.top.reset(limit);
+        for (int c = 0; c < candidates.size(); c++) {
+            int candidate = candidates.candidate(c);
+            double score = score(s, queryTokens, candidate, minScore);
+            if (score >= minScore) {
+                s.top.offer(candidate, score);
+            }
+        }
+        return s.top.drain();
+    }
+
+    /**
+     * Agrega un grupo con los tokens del vocabulario parecidos al token de la
+     * consulta. Antes de calcular la similitud se descartan los tokens que no
+     * comparten suficientes trigramas: al menos dos y como máximo
+     * {@value #MAX_LOST_TRIGRAMS} perdidos.
+     */
+    private void addSimilarTokens(Scratch s, int start, int length) {
+        int count = s.trigrams(s.query, start, length);
+        CandidateCounter similar = s.tokens;
+        similar.reset(vocabularySize());
+        for (int k = 0; k < count; k++) {
+            int trigram = s.trigrams[k];
+            for (int p = trigramOffsets[trigram]; p < trigramOffsets[trigram + 1]; p++) {
+                similar.increment(trigramPostings[p]);
+            }
+        }
+        similar.retain(Math.max(Math.min(2, count), count - MAX_LOST_TRIGRAMS));
+
+        s.openGroup();
+        for (int c = 0; c < similar.size(); c++) {
+            int token = similar.candidate(c);
+            int tokenStart = vocabularyStart[token];
+            if (jaroWinkler(s, s.query, start, length, vocabulary, tokenStart,
+                    vocabularyStart[token + 1] - tokenStart) >= TOKEN_MIN_SIMILARITY) {
+                s.addGroupToken(token, tokenOffsets[token + 1] - tokenOffsets[token]);
+            }
+        }
+        s.closeGroup();
+    }
+
+    /** Suma una coincidencia a los candidatos que contienen algún token del grupo, buscando cada uno. */
+    private void probeGroup(Scratch s, CandidateCounter candidates, int group) {
+        for (int c = 0; c < candidates.size(); c++) {
+            int candidate = candidates.candidate(c);
+            for (int k = s.groupStart[group]; k < s.groupStart[group + 1]; k++) {
+                int token = s.groupTokens[k];
+                if (Arrays.binarySearch(tokenPostings, tokenOffsets[token], tokenOffsets[token + 1],
+                        candidate) >= 0) {
+                    candidates.hit(candidate);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Puntaje entre la consulta ya procesada en {@code s} y un nombre del
+     * índice. La similitud de cada par de tokens se calcula una vez y sirve
+     * para las dos direcciones de Monge-Elkan; la distancia de edición solo se
+     * calcula hasta donde podría superar el puntaje por tokens y el mínimo.
+     */
+    private double score(Scratch s, int queryTokens, int candidate, double minScore) {
+        int first = nameFirstToken[candidate];
+        int candidateTokens = nameFirstToken[candidate + 1] - first;
+        if (candidateTokens == 0) {
+            return 0d;
+        }
+
+        double[] best = s.best(candidateTokens);
+        double queryToCandidate = 0d;
+        int queryLength = 0;
+        for (int q = 0; q < queryTokens; q++) {
+            int qLength = s.tokenLength(q);
+            double queryBest = 0d;
+            for (int t = 0; t < candidateTokens; t++) {
+                double similarity = tokenSimilarity(s, q, nameTokens[first + t]);
+                queryBest = Math.max(queryBest, similarity);
+                best[t] = q == 0 ? similarity : Math.max(best[t], similarity);
+            }
+            queryToCandidate += queryBest * qLength;
+            queryLength += qLength;
+        }
+
+        double candidateToQuery = 0d;
+        int candidateLength = 0;
+        char[] joined = s.joined(2 * queryLength);
+        for (int t = 0; t < candidateTokens; t++) {
+            int token = nameTokens[first + t];
+            int tStart = vocabularyStart[token];
+            int tLength = vocabularyStart[token + 1] - tStart;
+            candidateToQuery += best[t] * tLength;
+            if (candidateLength + tLength <= joined.length) {
+                System.arraycopy(vocabulary, tStart, joined, candidateLength, tLength);
+            }
+            candidateLength += tLength;
+        }
+        double score = (queryToCandidate / queryLength + candidateToQuery / candidateLength) / 2d;
+
+        if (candidateLength <= joined.length) {
+            int longest = Math.max(queryLength, candidateLength);
+            int maxDistance = (int) Math.floor((1d - Math.max(score, minScore)) * longest);
+            if (maxDistance >= 0) {
+                int distance = levenshtein(s, s.query, 0, queryLength, joined, 0, candidateLength, maxDistance);
+                if (distance <= maxDistance) {
+                    score = Math.max(score, 1d - (double) distance / longest);
+                }
+            }
+        }
+        return score;
+    }
+
+    /** Similitud entre un token de la consulta y uno del vocabulario, con caché por consulta. */
+    private double tokenSimilarity(Scratch s, int queryToken, int token) {
+        int slot = s.cacheSlot(queryToken, token);
+        if (slot >= 0 && s.cached(slot, queryToken, token)) {
+            return s.cacheValues[slot];
+        }
+        int qStart = s.tokenStart[queryToken];
+        int tStart = vocabularyStart[token];
+        double similarity = jaroWinkler(s, s.query, qStart, s.tokenLength(queryToken), vocabulary, tStart,
+                vocabularyStart[token + 1] - tStart);
+        if (slot >= 0) {
+            s.cache(slot, queryToken, token, similarity);
+        }
+        return similarity;
+    }
+
+    static double jaroWinkler(Scratch s, char[] a, int aStart, int aLength, char[] b, int bStart, int bLength) {
+        if (aLength == 0 || bLength == 0) {
+            return aLength == bLength ? 1d : 0d;
+        }
+        int window = Math.max(0, Math.max(aLength, bLength) / 2 - 1);
+        boolean[] aMatched = s.flags(0, aLength);
+        boolean[] bMatched = s.flags(1, bLength);
+
+        int matches = 0;
+        for (int i = 0; i < aLength; i++) {
+            int from = Math.max(0, i - window);
+            int to = Math.min(bLength, i + window + 1);
+            char c = a[aStart + i];
+            for (int j = from; j < to; j++) {
+                if (!bMatched[j] && b[bStart + j] == c) {
+                    aMatched[i] = true;
+                    bMatched[j] = true;
+                    matches++;
+                    break;
+                }
+            }
+        }
+        if (matches == 0) {
+            return 0d;
+        }
+
+        int transpositions = 0;
+        for (int i = 0, j = 0; i < aLength; i++) {
+            if (!aMatched[i]) {
+                continue;
+            }
+            while (!bMatched[j]) {
+                j++;
+            }
+            if (a[aStart + i] != b[bStart + j]) {
+                transpositions++;
+            }
+            j++;
+        }
+
+        double m = matches;
+        double jaro = (m / aLength + m / bLength + (m - transpositions / 2d) / m) / 3d;
+
+        int prefix = 0;
+        int maxPrefix = Math.min(WINKLER_PREFIX, Math.min(aLength, bLength));
+        while (prefix < maxPrefix && a[aStart + prefix] == b[bStart + prefix]) {
+            prefix++;
+        }
+        return jaro + prefix * WINKLER_SCALE * (1d - jaro);
+    }
+
+    /**
+     * Distancia de Levenshtein calculada solo en la banda de ancho
+     * {@code maxDistance} alrededor de la diagonal.
+     *
+     * @return la distancia, o {@code maxDistance + 1} si la supera
+     */
+    static int levenshtein(Scratch s, char[] a, int aStart, int aLength, char[] b, int bStart, int bLength,
+            int maxDistance) {
+        int limit = maxDistance + 1;
+        if (Math.abs(aLength - bLength) > maxDistance) {
+            return limit;
+        }
+        int[] previous = s.row(0, bLength + 2);
+        int[] current = s.row(1, bLength + 2);
+        for (int j = 0; j <= bLength; j++) {
+            previous[j] = Math.min(j, limit);
+        }
+        previous[bLength + 1] = limit;
+        for (int i = 1; i <= aLength; i++) {
+            int from = Math.max(1, i - maxDistance);
+            int to = Math.min(bLength, i + maxDistance);
+            current[from - 1] = from == 1 ? Math.min(i, limit) : limit;
+            int rowMin = current[from - 1];
+            char c = a[aStart + i - 1];
+            for (int j = from; j <= to; j++) {
+                int cost = c == b[bStart + j - 1] ? 0 : 1;
+                int value = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                current[j] = Math.min(value, limit);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (to < bLength) {
+                current[to + 1] = limit;
+            }
+            if (rowMin >= limit) {
+                return limit;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[bLength];
+    }
+
+    private static void sortByGroupLength(Scratch s, int[] order, int count) {
+        for (int i = 1; i < count; i++) {
+            int group = order[i];
+            long length = s.groupLength[group];
+            int j = i - 1;
+            while (j >= 0 && s.groupLength[order[j]] > length) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = group;
+        }
+    }
+
+    private static String join(String... parts) {
+        StringBuilder sb = new StringBuilder();
+        for (String part : parts) {
+            if (part != null && !part.isBlank()) {
+                if (sb.length() > 0) {
+                    sb.append(' ');
+                }
+                sb.append(part);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Carácter normalizado: letra base en mayúscula, dígito o 0 si es un
+     * separador.
+     */
+    static char fold(char c) {
+        if (c < FOLD.length) {
+            return FOLD[c];
+        }
+        return Character.isLetterOrDigit(c) ? Character.toUpperCase(c) : 0;
+    }
+
+    private static int symbol(char c) {
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A' + 1;
+        }
+        if (c >= '0' && c <= '9') {
+            return c - '0' + 27;
+        }
+        return ALPHABET - 1;
+    }
+
+    /**
+     * Coincidencia de un nombre del índice.
+     *
+     * @param index posición del nombre en el arreglo con que se construyó el índice
+     * @param score puntaje entre 0 y 1
+     */
+    public record Match(int index, double score) {
+    }
+
+    /**
+     * Buffers reutilizables de un hilo: la consulta procesada, los grupos de
+     * tokens parecidos, los contadores de candidatos y los arreglos de trabajo
+     * de las distancias.
+     */
+    static final class Scratch {
+
+        /** Tokens de la consulta en orden alfabético, sin separadores. */
+        char[] query = new char[64];
+        int[] tokenStart = new int[8];
+
+        int[] trigrams = new int[64];
+
+        /** Tokens del vocabulario de cada grupo, inicio de cada grupo y nombres que cubre cada grupo. */
+        int[] groupTokens = new int[64];
+        int[] groupStart = new int[9];
+        long[] groupLength = new long[8];
+        private int groupCount;
+        private int groupSize;
+        private int[] groupOrder = new int[8];
+
+        final CandidateCounter names = new CandidateCounter();
+        final CandidateCounter tokens = new CandidateCounter();
+        final TopMatches top = new TopMatches();
+
+        private final boolean[][] flags = { new boolean[32], new boolean[32] };
+        private final int[][] rows = { new int[64], new int[64] };
+        private char[] joined = new char[128];
+        private double[] best = new double[8];
+
+        /** Caché de similitudes de la consulta actual: consulta, token de la consulta y del vocabulario. */
+        private final long[] cacheKeys = new long[SIMILARITY_CACHE];
+        final double[] cacheValues = new double[SIMILARITY_CACHE];
+        private int queryNumber;
+
+        private char[] raw = new char[64];
+        private int[] rawStart = new int[8];
+        private int[] rawLength = new int[8];
+        private int tokenCount;
+
+        /**
+         * Normaliza un nombre y deja sus tokens ordenados en {@link #query}.
+         *
+         * @return número de tokens
+         */
+        int parse(String name) {
+            tokenCount = 0;
+            if (name == null) {
+                return 0;
+            }
+            if (raw.length < name.length()) {
+                raw = new char[name.length()];
+            }
+            int length = 0;
+            int start = -1;
+            for (int i = 0; i <= name.length(); i++) {
+                char c = i < name.length() ? fold(name.charAt(i)) : 0;
+                if (c != 0) {
+                    if (start < 0) {
+                        start = length;
+                    }
+                    raw[length++] = c;
+                } else if (start >= 0) {
+                    addRawToken(start, length - start);
+                    start = -1;
+                }
+            }
+
+            sortRawTokens();
+            if (query.length < length) {
+                query = new char[Math.max(length, query.length * 2)];
+            }
+            if (tokenStart.length < tokenCount + 1) {
+                tokenStart = new int[Math.max(tokenCount + 1, tokenStart.length * 2)];
+            }
+            int queryLength = 0;
+            for (int t = 0; t < tokenCount; t++) {
+                tokenStart[t] = queryLength;
+                System.arraycopy(raw, rawStart[t], query, queryLength, rawLength[t]);
+                queryLength += rawLength[t];
+            }
+            tokenStart[tokenCount] = queryLength;
+            return tokenCount;
+        }
+
+        int tokenLength(int token) {
+            return tokenStart[token + 1] - tokenStart[token];
+        }
+
+        boolean sameToken(int a, int b) {
+            return Arrays.equals(query, tokenStart[a], tokenStart[a + 1], query, tokenStart[b], tokenStart[b + 1]);
+        }
+
+        /**
+         * Calcula los trigramas distintos de un token, rellenándolo con un
+         * espacio a cada lado.
+         *
+         * @return número de trigramas en {@link #trigrams}
+         */
+        int trigrams(char[] chars, int start, int length) {
+            if (trigrams.length < length) {
+                trigrams = new int[Math.max(length, trigrams.length * 2)];
+            }
+            int count = 0;
+            int previous2 = 0;
+            int previous1 = 0;
+            for (int i = 0; i <= length; i++) {
+                int current = i < length ? symbol(chars[start + i]) : 0;
+                if (i > 0) {
+                    trigrams[count++] = (previous2 * ALPHABET + previous1) * ALPHABET + current;
+                }
+                previous2 = previous1;
+                previous1 = current;
+            }
+            if (count <= 1) {
+                return count;
+            }
+            Arrays.sort(trigrams, 0, count);
+            int distinct = 1;
+            for (int k = 1; k < count; k++) {
+                if (trigrams[k] != trigrams[distinct - 1]) {
+                    trigrams[distinct++] = trigrams[k];
+                }
+            }
+            return distinct;
+        }
+
+        void resetGroups(int maxGroups) {
+            groupCount = 0;
+            groupSize = 0;
+            if (groupLength.length < maxGroups) {
+                groupLength = new long[maxGroups];
+                groupStart = new int[maxGroups + 1];
+            }
+        }
+
+        void openGroup() {
+            groupStart[groupCount] = groupSize;
+            groupLength[groupCount] = 0;
+        }
+
+        void addGroupToken(int token, int names) {
+            if (groupSize == groupTokens.length) {
+                groupTokens = Arrays.copyOf(groupTokens, groupSize * 2);
+            }
+            groupTokens[groupSize++] = token;
+            groupLength[groupCount] += names;
+        }
+
+        /** Cierra el grupo abierto; un grupo sin tokens se descarta. */
+        void closeGroup() {
+            if (groupSize > groupStart[groupCount]) {
+                groupCount++;
+            }
+            groupStart[groupCount] = groupSize;
+        }
+
+        int groupCount() {
+            return groupCount;
+        }
+
+        int[] groupOrder(int count) {
+            if (groupOrder.length < count) {
+                groupOrder = new int[Math.max(count, groupOrder.length * 2)];
+            }
+            for (int g = 0; g < count; g++) {
+                groupOrder[g] = g;
+            }
+            return groupOrder;
+        }
+
+        boolean[] flags(int index, int length) {
+            if (flags[index].length < length) {
+                flags[index] = new boolean[Math.max(length, flags[index].length * 2)];
+            } else {
+                Arrays.fill(flags[index], 0, length, false);
+            }
+            return flags[index];
+        }
+
+        int[] row(int index, int length) {
+            if (rows[index].length < length) {
+                rows[index] = new int[Math.max(length, rows[index].length * 2)];
+            }
+            return rows[index];
+        }
+
+        /** Invalida la caché de similitudes de la consulta anterior. */
+        void nextQuery() {
+            queryNumber++;
+        }
+
+        /** Posición en la caché del par de tokens, o -1 si el par no se guarda. */
+        int cacheSlot(int queryToken, int token) {
+            if (queryToken >= 64) {
+                return -1;
+            }
+            return (token * 64 + queryToken) * 0x9E3779B9 >>> (32 - SIMILARITY_CACHE_BITS);
+        }
+
+        boolean cached(int slot, int queryToken, int token) {
+            return cacheKeys[slot] == cacheKey(queryToken, token);
+        }
+
+        void cache(int slot, int queryToken, int token, double value) {
+            cacheKeys[slot] = cacheKey(queryToken, token);
+            cacheValues[slot] = value;
+        }
+
+        private long cacheKey(int queryToken, int token) {
+            return ((long) queryNumber << 32) | ((long) token << 6) | queryToken;
+        }
+
+        /** Mejor similitud de cada token del candidato con la consulta. */
+        double[] best(int tokens) {
+            if (best.length < tokens) {
+                best = new double[Math.max(tokens, best.length * 2)];
+            }
+            return best;
+        }
+
+        /** Buffer para los tokens unidos de un candidato. */
+        char[] joined(int length) {
+            if (joined.length < length) {
+                joined = new char[length];
+            }
+            return joined;
+        }
+
+        private void addRawToken(int start, int length) {
+            if (rawStart.length == tokenCount) {
+                rawStart = Arrays.copyOf(rawStart, tokenCount * 2);
+                rawLength = Arrays.copyOf(rawLength, tokenCount * 2);
+            }
+            rawStart[tokenCount] = start;
+            rawLength[tokenCount] = length;
+            tokenCount++;
+        }
+
+        private void sortRawTokens() {
+            for (int i = 1; i < tokenCount; i++) {
+                int start = rawStart[i];
+                int length = rawLength[i];
+                int j = i - 1;
+                while (j >= 0 && Arrays.compare(raw, rawStart[j], rawStart[j] + rawLength[j], raw, start,
+                        start + length) > 0) {
+                    rawStart[j + 1] = rawStart[j];
+                    rawLength[j + 1] = rawLength[j];
+                    j--;
+                }
+                rawStart[j + 1] = start;
+                rawLength[j + 1] = length;
+            }
+        }
+    }
+
+    /**
+     * Coincidencias por candidato: un contador por elemento y la lista de
+     * elementos con contador, para vaciarlo sin recorrer todo el arreglo.
+     */
+    static final class CandidateCounter {
+
+        private byte[] counts = new byte[0];
+        private int[] touched = new int[1024];
+        private int size;
+
+        void reset(int elements) {
+            for (int i = 0; i < size; i++) {
+                counts[touched[i]] = 0;
+            }
+            size = 0;
+            if (counts.length < elements) {
+                counts = new byte[elements];
+            }
+        }
+
+        void increment(int element) {
+            int count = counts[element] & 0xFF;
+            if (count == 0) {
+                if (size == touched.length) {
+                    touched = Arrays.copyOf(touched, size * 2);
+                }
+                touched[size++] = element;
+            }
+            add(element, count);
+        }
+
+        /** Suma una coincidencia a un elemento que ya es candidato. */
+        void hit(int element) {
+            add(element, counts[element] & 0xFF);
+        }
+
+        /** Suma una coincidencia a los candidatos que aparecen en la lista, recorriéndola completa. */
+        void scan(int[] postings, int from, int to) {
+            for (int p = from; p < to; p++) {
+                int element = postings[p];
+                int count = counts[element] & 0xFF;
+                if (count != 0) {
+                    add(element, count);
+                }
+            }
+        }
+
+        /** Descarta los candidatos con menos de {@code minCount} coincidencias. */
+        void retain(int minCount) {
+            if (minCount <= 1) {
+                return;
+            }
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int element = touched[i];
+                if ((counts[element] & 0xFF) >= minCount) {
+                    touched[kept++] = element;
+                } else {
+                    counts[element] = 0;
+                }
+            }
+            size = kept;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int candidate(int index) {
+            return touched[index];
+        }
+
+        private void add(int element, int count) {
+            if (count < 0xFF) {
+                counts[element] = (byte) (count + 1);
+            }
+        }
+    }
+
+    /**
+     * Las {@code limit} coincidencias con mayor puntaje, en un montículo de
+     * mínimos sobre arreglos.
+     */
+    static final class TopMatches {
+
+        private int[] indexes = new int[16];
+        private double[] scores = new double[16];
+        private int size;
+        private int limit;
+
+        void reset(int limit) {
+            this.limit = limit;
+            size = 0;
+            if (indexes.length < limit) {
+                indexes = new int[limit];
+                scores = new double[limit];
+            }
+        }
+
+        void offer(int index, double score) {
+            if (size < limit) {
+                indexes[size] = index;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (score > scores[0]) {
+                indexes[0] = index;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        /** Retorna las coincidencias de mayor a menor puntaje y vacía el montículo. */
+        List<Match> drain() {
+            Match[] result = new Match[size];
+            for (int i = size - 1; i >= 0; i--) {
+                result[i] = new Match(indexes[0], scores[0]);
+                size--;
+                indexes[0] = indexes[size];
+                scores[0] = scores[size];
+                siftDown(0);
+            }
+            return new ArrayList<>(Arrays.asList(result));
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (scores[parent] <= scores[i]) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int smallest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && scores[left] < scores[smallest]) {
+                    smallest = left;
+                }
+                if (right < size && scores[right] < scores[smallest]) {
+                    smallest = right;
+                }
+                if (smallest == i) {
+                    return;
+                }
+                swap(i, smallest);
+                i = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int index = indexes[a];
+            indexes[a] = indexes[b];
+            indexes[b] = index;
+            double score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+
+    /** Arreglo de enteros que crece al agregar, usado al construir el índice. */
+    private static final class IntBuffer {
+        int[] data = new int[1024];
+        int size;
+
+        void add(int value) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = value;
+        }
+    }
+}
@@ -1,28 +1,44 @@
 package com.neffi.laft.service;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.PDResources;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.pdmodel.font.PDFont;
 import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.graphics.color.PDColorSpace;
+import org.apache.pdfbox.pdmodel.graphics.color.PDDeviceColorSpace;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
 import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
 import org.springframework.stereotype.Service;
 
+import com.neffi.laft.dto.BulkValidateResultDto;
 import com.neffi.laft.dto.RestrictiveListEntry;
+import com.neffi.laft.utils.CountingOutputStream;
+import com.neffi.laft.utils.NonClosingOutputStream;
 
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class PdfReportService {
 
     private static final float MARGIN = 50;
@@ -42,9 +58,20 @@ public class PdfReportService {
     private static final float HEADER_SUBTITLE_FONT_SIZE = 10.5f;
     private static final float HEADER_SUBTITLE_GAP = 19f;
     private static final float HEADER_BOTTOM_PADDING = 16f;
+    private static final float PAGE_HEIGHT = PDRectangle.LETTER.getHeight();
+    private static final float HEADER_LOGO_TOP_Y = PAGE_HEIGHT - MARGIN + HEADER_TOP_RAISE - LOGO_TOP_OFFSET;
+    private static final float HEADER_TITLE_Y = HEADER_LOGO_TOP_Y - (LOGO_HEIGHT / 2f);
+    private static final float HEADER_SUBTITLE_Y = HEADER_TITLE_Y - HEADER_SUBTITLE_GAP;
+    /** Posición vertical debajo del encabezado, igual en todas las páginas. */
+    private static final float HEADER_BOTTOM_Y = Math.min(HEADER_LOGO_TOP_Y - LOGO_HEIGHT,
+            HEADER_SUBTITLE_Y - HEADER_SUBTITLE_FONT_SIZE) - HEADER_BOTTOM_PADDING;
 
     private static final String[] TABLE_HEADERS = { "Documento", "Nombre", "Lista", "Coincidencia", "Fuente" };
     private static final float[] COL_WIDTHS = { 90, 140, 100, 80, 80 };
+    private static final String[] SUMMARY_HEADERS = { "Documento", "Nombre", "Coincidencias", "Permite Vinculacion" };
+    private static final float[] SUMMARY_COL_WIDTHS = { 90, 220, 80, 100 };
+    /** Alto de los datos y el resultado de un sujeto hasta la primera fila de su tabla. */
+    private static final float SUBJECT_MIN_HEIGHT = 150;
     private static final float ROW_HEIGHT = 18;
     private static final float TABLE_FONT_SIZE = 8f;
     private static final float TABLE_LINE_HEIGHT = 10f;
@@ -52,17 +79,30 @@ public class PdfReportService {
     private static final float CELL_TOP_PADDING = 8f;
     private static final float CELL_BOTTOM_PADDING = 4f;
 
+    /**
+     * Memoria de trabajo de PDFBox por documento antes de usar archivos
+     * temporales. Con el valor por defecto (solo memoria, sin límite) PDFBox
+     * reserva en cada documento la tabla de páginas para 2 GB.
+     */
+    private static final long MAIN_MEMORY_BYTES = 32L * 1024 * 1024;
+
+    private final ReportMetrics reportMetrics;
+
+    /** Logo cargado una sola vez desde el classpath; null si no está disponible. */
+    private final LogoTemplate logo = loadLogo();
+
     public byte[] generateValidationReport(String documentNumber, String personType,
             String fullName, String userName,
             List<RestrictiveListEntry> matches) throws IOException {
-        try (PDDocument document = new PDDocument()) {
+        long start = System.nanoTime();
+        try (PDDocument document = new PDDocument(MemoryUsageSetting.setupMixed(MAIN_MEMORY_BYTES))) {
             PDPage page = new PDPage(PDRectangle.LETTER);
             document.addPage(page);
 
-            ContentStreamHolder holder = new ContentStreamHolder(new PDPageContentStream(document, page));
-            float y = page.getMediaBox().getHeight() - MARGIN;
+            ContentStreamHolder holder = new ContentStreamHolder(new PDPageContentStream(document, page),
+                    createHeaderForm(document));
 
-            y = drawHeader(document, holder.cs, y);
+            float y = drawHeader(holder.cs, holder.header);
             y = drawSeparator(holder.cs, y);
             y = drawValidationInfo(holder.cs, y, documentNumber, personType, fullName, userName);
             y = drawSeparator(holder.cs, y);
@@ -72,33 +112,153 @@ public class PdfReportService {
 
             ByteArrayOutputStream out = new ByteArrayOutputStream();
             document.save(out);
-            return out.toByteArray();
+            byte[] pdf = out.toByteArray();
+            reportMetrics.record("pdf", System.nanoTime() - start, pdf.length);
+            return pdf;
+        }
+    }
+
+    /**
+     * Genera el informe PDF consolidado de una validación masiva: un resumen con
+     * todos los sujetos seguido del detalle de coincidencias de cada uno.
+     * <p>
+     * El documento usa archivos temporales como memoria de trabajo y se escribe
+     * directamente en {@code out}, por lo que el heap usado no depende del
+     * número de páginas.
+     *
+     * @param data     resultados de la validación masiva
+     * @param userName usuario que aparece en el informe
+     * @param out      stream de salida; no se cierra
+     */
+    public void generateBulkReport(List<BulkValidateResultDto> data, String userName, OutputStream out)
+            throws IOException {
+        long start = System.nanoTime();
+        CountingOutputStream counting = new CountingOutputStream(out);
+        try (PDDocument document = new PDDocument(MemoryUsageSetting.setupTempFileOnly())) {
+            PDPage page = new PDPage(PDRectangle.LETTER);
+            document.addPage(page);
+
+            ContentStreamHolder holder = new ContentStreamHolder(new PDPageContentStream(document, page),
+                    createHeaderForm(document));
+
+            float y = drawHeader(holder.cs, holder.header);
+            y = drawSeparator(holder.cs, y);
+            y = drawBulkSummary(holder, y, data, userName, document);
+
+            y = startNewPage(holder, document);
+            for (BulkValidateResultDto subject : data) {
+                y = drawSubjectDetail(holder, y, subject, document);
+            }
+
+            holder.cs.close();
+            // PDFBox cierra el stream al guardar; la respuesta la cierra el contenedor
+            document.save(new NonClosingOutputStream(counting));
         }
+        reportMetrics.record("pdf-bulk", System.nanoTime() - start, counting.getCount());
+        log.info("Informe PDF consolidado generado: {} sujetos, {} bytes en {} ms", data.size(),
+                counting.getCount(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Resumen del informe consolidado: totales y una fila por sujeto.
+     */
+    private float drawBulkSummary(ContentStreamHolder holder, float y, List<BulkValidateResultDto> data,
+            String userName, PDDocument document) throws IOException {
+        int restrictive = 0;
+        int informative = 0;
+        for (BulkValidateResultDto subject : data) {
+            if (validarCoincidencias(subject.getMatches())) {
+                restrictive++;
+            } else if (validarResultadosInformativos(subject.getMatches())) {
+                informative++;
+            }
+        }
+
+        y = drawLabelValue(holder.cs, y, "Fecha y Hora:", LocalDateTime.now().format(DATE_FMT));
+        y = drawLabelValue(holder.cs, y, "Realizado por:",
+                PdfTextLayout.sanitize(userName != null ? userName : "Usuario del sistema"));
+        y -= 10;
+        y = drawLabelValue(holder.cs, y, "Sujetos Validados:", String.valueOf(data.size()));
+        y = drawLabelValue(holder.cs, y, "Con Coincidencias:", String.valueOf(restrictive));
+        y = drawLabelValue(holder.cs, y, "Solo Informativas:", String.valueOf(informative));
+        y = drawLabelValue(holder.cs, y, "Sin Coincidencias:", String.valueOf(data.size() - restrictive - informative));
+        y = drawSeparator(holder.cs, y);
+
+        y = drawTableHeaders(holder.cs, y, SUMMARY_HEADERS, SUMMARY_COL_WIDTHS);
+        for (BulkValidateResultDto subject : data) {
+            String[] values = {
+                PdfTextLayout.sanitize(subject.getQueryDocumentNumber()),
+                PdfTextLayout.sanitize(subject.getQueryFullName()),
+                String.valueOf(subject.getMatchCount()),
+                validarCoincidencias(subject.getMatches()) ? "NO" : "SI"
+            };
+            y = drawTableRow(holder, y, values, SUMMARY_HEADERS, SUMMARY_COL_WIDTHS, document);
+        }
+        return y;
+    }
+
+    /**
+     * Detalle de un sujeto en el informe consolidado: sus datos y el resultado
+     * con la tabla de coincidencias.
+     */
+    private float drawSubjectDetail(ContentStreamHolder holder, float y, BulkValidateResultDto subject,
+            PDDocument document) throws IOException {
+        if (y - SUBJECT_MIN_HEIGHT < MARGIN + 20) {
+            y = startNewPage(holder, document);
+        }
+
+        y = drawLabelValue(holder.cs, y, "Numero de Documento:",
+                PdfTextLayout.sanitize(subject.getQueryDocumentNumber() != null
+                        ? subject.getQueryDocumentNumber()
+                        : "No proporcionado"));
+        y = drawLabelValue(holder.cs, y, "Nombre / Razon Social:",
+                PdfTextLayout.sanitize(subject.getQueryFullName() != null && !subject.getQueryFullName().isBlank()
+                        ? subject.getQueryFullName()
+                        : "No proporcionado"));
+        y -= 4;
+        y = drawResultSection(holder, y,
+                subject.getMatches() != null ? subject.getMatches() : List.of(), document);
+        return drawSeparator(holder.cs, y);
     }
 
     private static class ContentStreamHolder {
         PDPageContentStream cs;
+        final PDFormXObject header;
 
-        ContentStreamHolder(PDPageContentStream cs) {
+        ContentStreamHolder(PDPageContentStream cs, PDFormXObject header) {
             this.cs = cs;
+            this.header = header;
         }
     }
 
-    private float drawHeader(PDDocument document, PDPageContentStream cs, float y) throws IOException {
-        float headerTopY = y + HEADER_TOP_RAISE;
-        float logoTopY = headerTopY - LOGO_TOP_OFFSET;
-        float logoBottomY = logoTopY - LOGO_HEIGHT;
-        float logoCenterY = logoTopY - (LOGO_HEIGHT / 2f);
-        float titleY = logoCenterY;
-        float subtitleY = titleY - HEADER_SUBTITLE_GAP;
-
-        drawLogo(document, cs, headerTopY);
-        drawText(cs, REPORT_TITLE, PDType1Font.HELVETICA_BOLD, HEADER_TITLE_FONT_SIZE, HEADER_TEXT_X, titleY);
-        drawText(cs, REPORT_SUBTITLE, PDType1Font.HELVETICA, HEADER_SUBTITLE_FONT_SIZE, HEADER_TEXT_X, subtitleY);
-
-        float subtitleBottomY = subtitleY - HEADER_SUBTITLE_FONT_SIZE;
+    /**
+     * Dibuja el encabezado fijo (título, subtítulo y logo) en la página actual.
+     *
+     * @return posición vertical debajo del encabezado
+     */
+    private float drawHeader(PDPageContentStream cs, PDFormXObject header) throws IOException {
+        cs.drawForm(header);
+        return HEADER_BOTTOM_Y;
+    }
 
-        return Math.min(logoBottomY, subtitleBottomY) - HEADER_BOTTOM_PADDING;
+    /**
+     * Crea el encabezado fijo del informe como un Form XObject del documento,
+     * para dibujarlo en cada página sin repetir su contenido.
+     */
+    private PDFormXObject createHeaderForm(PDDocument document) throws IOException {
+        PDFormXObject form = new PDFormXObject(document);
+        form.setBBox(PDRectangle.LETTER);
+        form.setResources(new PDResources());
+
+        float headerTopY = PAGE_HEIGHT - MARGIN + HEADER_TOP_RAISE;
+        try (PDPageContentStream cs = new PDPageContentStream(document, form,
+                form.getContentStream().createOutputStream(COSName.FLATE_DECODE))) {
+            drawLogo(document, cs, headerTopY);
+            drawText(cs, REPORT_TITLE, PDType1Font.HELVETICA_BOLD, HEADER_TITLE_FONT_SIZE, HEADER_TEXT_X, HEADER_TITLE_Y);
+            drawText(cs, REPORT_SUBTITLE, PDType1Font.HELVETICA, HEADER_SUBTITLE_FONT_SIZE, HEADER_TEXT_X,
+                    HEADER_SUBTITLE_Y);
+        }
+        return form;
     }
 
     private void drawText(PDPageContentStream cs, String text, PDFont font, float fontSize, float x, float y)
@@ -111,29 +271,88 @@ public class PdfReportService {
     }
 
     private void drawLogo(PDDocument document, PDPageContentStream cs, float topY) throws IOException {
-        PDImageXObject logoImage = createLogoImage(document);
-        if (logoImage == null) {
+        if (logo == null) {
             return;
         }
 
         float logoY = topY - LOGO_HEIGHT - LOGO_TOP_OFFSET;
-        cs.drawImage(logoImage, HEADER_LOGO_X, logoY, LOGO_WIDTH, LOGO_HEIGHT);
+        cs.drawImage(logo.create(document), HEADER_LOGO_X, logoY, LOGO_WIDTH, LOGO_HEIGHT);
     }
 
-    private PDImageXObject createLogoImage(PDDocument document) {
-        try (InputStream logoInput = getClass().getClassLoader().getResourceAsStream(LOGO_RESOURCE_PATH)) {
+    private static LogoTemplate loadLogo() {
+        try (InputStream logoInput = PdfReportService.class.getClassLoader().getResourceAsStream(LOGO_RESOURCE_PATH)) {
             if (logoInput == null) {
                 log.warn("No se encontró el logo PNG en classpath: {}", LOGO_RESOURCE_PATH);
                 return null;
             }
 
-            return PDImageXObject.createFromByteArray(document, logoInput.readAllBytes(), "logo-af");
+            return LogoTemplate.of(logoInput.readAllBytes());
         } catch (IOException e) {
             log.warn("No se pudo cargar el logo para el reporte PDF", e);
             return null;
         }
     }
 
+    /**
+     * Logo ya codificado para PDF. El PNG se decodifica una sola vez; en cada
+     * documento se crea la imagen a partir del flujo codificado, sin volver a
+     * procesar los píxeles. Si el espacio de color depende del documento (por
+     * ejemplo, PNG indexado) la imagen se crea desde los bytes originales.
+     */
+    private static final class LogoTemplate {
+
+        private final byte[] png;
+        private final byte[] encoded;
+        private final COSBase filter;
+        private final COSDictionary decodeParms;
+        private final int width;
+        private final int height;
+        private final int bitsPerComponent;
+        private final PDColorSpace colorSpace;
+        private final LogoTemplate softMask;
+
+        private LogoTemplate(byte[] png, PDImageXObject image) throws IOException {
+            this.png = png;
+            COSStream stream = image.getCOSObject();
+            try (InputStream raw = stream.createRawInputStream()) {
+                this.encoded = raw.readAllBytes();
+            }
+            this.filter = stream.getDictionaryObject(COSName.FILTER);
+            this.decodeParms = stream.getDictionaryObject(COSName.DECODE_PARMS) instanceof COSDictionary parms
+                    ? parms
+                    : null;
+            this.width = image.getWidth();
+            this.height = image.getHeight();
+            this.bitsPerComponent = image.getBitsPerComponent();
+            this.colorSpace = image.getColorSpace() instanceof PDDeviceColorSpace device ? device : null;
+            PDImageXObject mask = image.getSoftMask();
+            this.softMask = mask != null ? new LogoTemplate(null, mask) : null;
+        }
+
+        private static LogoTemplate of(byte[] png) throws IOException {
+            try (PDDocument template = new PDDocument()) {
+                return new LogoTemplate(png, PDImageXObject.createFromByteArray(template, png, "logo-af"));
+            }
+        }
+
+        private PDImageXObject create(PDDocument document) throws IOException {
+            if (colorSpace == null || (softMask != null && softMask.colorSpace == null)) {
+                return PDImageXObject.createFromByteArray(document, png, "logo-af");
+            }
+            PDImageXObject image = new PDImageXObject(document, new ByteArrayInputStream(encoded), filter, width,
+                    height, bitsPerComponent, colorSpace);
+            if (decodeParms != null) {
+                COSDictionary parms = new COSDictionary();
+                parms.addAll(decodeParms);
+                image.getCOSObject().setItem(COSName.DECODE_PARMS, parms);
+            }
+            if (softMask != null) {
+                image.getCOSObject().setItem(COSName.SMASK, softMask.create(document));
+            }
+            return image;
+        }
+    }
+
     private float drawSeparator(PDPageContentStream cs, float y) throws IOException {
         y -= 5;
         cs.setLineWidth(1f);
@@ -152,15 +371,15 @@ public class PdfReportService {
         String dateTime = LocalDateTime.now().format(DATE_FMT);
 
         y = drawLabelValue(cs, y, "Fecha y Hora:", dateTime);
-        y = drawLabelValue(cs, y, "Realizado por:", sanitize(userName != null ? userName : "Usuario del sistema"));
+        y = drawLabelValue(cs, y, "Realizado por:", PdfTextLayout.sanitize(userName != null ? userName : "Usuario del sistema"));
         y -= 10;
 
         String personTypeLabel = "juridica".equalsIgnoreCase(personType) ? "Persona Juridica" : "Persona Natural";
         y = drawLabelValue(cs, y, "Tipo de Persona:", personTypeLabel);
         y = drawLabelValue(cs, y, "Numero de Documento:",
-                sanitize(documentNumber != null ? documentNumber : "No proporcionado"));
+                PdfTextLayout.sanitize(documentNumber != null ? documentNumber : "No proporcionado"));
         y = drawLabelValue(cs, y, "Nombre / Razon Social:",
-                sanitize(fullName != null && !fullName.isBlank() ? fullName : "No proporcionado"));
+                PdfTextLayout.sanitize(fullName != null && !fullName.isBlank() ? fullName : "No proporcionado"));
 
         return y;
     }
@@ -265,175 +484,101 @@ public class PdfReportService {
         return false;
     }
 
-    private float drawTableHeaders(PDPageContentStream cs, float y) throws IOException {
+    private float drawTableHeaders(PDPageContentStream cs, float y, String[] headers, float[] widths)
+            throws IOException {
         cs.setNonStrokingColor(240 / 255f, 240 / 255f, 240 / 255f);
         cs.addRect(MARGIN, y - ROW_HEIGHT + 4, CONTENT_WIDTH, ROW_HEIGHT);
         cs.fill();
         cs.setNonStrokingColor(0f, 0f, 0f);
 
         float x = MARGIN;
-        for (int i = 0; i < TABLE_HEADERS.length; i++) {
+        for (int i = 0; i < headers.length; i++) {
             cs.beginText();
             cs.setFont(PDType1Font.HELVETICA_BOLD, 8);
             cs.newLineAtOffset(x + 4, y - 8);
-            cs.showText(TABLE_HEADERS[i]);
+            cs.showText(headers[i]);
             cs.endText();
-            x += COL_WIDTHS[i];
+            x += widths[i];
         }
         return y - ROW_HEIGHT;
     }
 
     private float drawMatchesTable(ContentStreamHolder holder, float y, List<RestrictiveListEntry> matches,
             PDDocument document) throws IOException {
-        y = drawTableHeaders(holder.cs, y);
+        y = drawTableHeaders(holder.cs, y, TABLE_HEADERS, COL_WIDTHS);
 
         for (RestrictiveListEntry match : matches) {
             String[] values = {
-                sanitize(match.getIdentificacion()),
-                sanitize(match.getSdnName()),
-                sanitize(match.getNombre()),
-                sanitize(match.getTipo()),
-                sanitize(match.getComentarios2())
+                PdfTextLayout.sanitize(match.getIdentificacion()),
+                PdfTextLayout.sanitize(match.getSdnName()),
+                PdfTextLayout.sanitize(match.getNombre()),
+                PdfTextLayout.sanitize(match.getTipo()),
+                PdfTextLayout.sanitize(match.getComentarios2())
             };
-
-            List<List<String>> wrappedValues = new ArrayList<>();
-            int maxLines = 1;
-            for (int i = 0; i < values.length; i++) {
-            float maxTextWidth = COL_WIDTHS[i] - (CELL_HORIZONTAL_PADDING * 2);
-            List<String> lines = wrapText(values[i], maxTextWidth, PDType1Font.HELVETICA, TABLE_FONT_SIZE);
-            wrappedValues.add(lines);
-            maxLines = Math.max(maxLines, lines.size());
-            }
-
-            float rowHeight = Math.max(ROW_HEIGHT,
-                CELL_TOP_PADDING + CELL_BOTTOM_PADDING + ((maxLines - 1) * TABLE_LINE_HEIGHT));
-
-            if (y - rowHeight < MARGIN + 20) {
-                holder.cs.close();
-                PDPage newPage = new PDPage(PDRectangle.LETTER);
-                document.addPage(newPage);
-                holder.cs = new PDPageContentStream(document, newPage);
-                y = newPage.getMediaBox().getHeight() - MARGIN;
-                y = drawTableHeaders(holder.cs, y);
-            }
-
-            holder.cs.setLineWidth(0.5f);
-            holder.cs.setStrokingColor(220 / 255f, 220 / 255f, 220 / 255f);
-            holder.cs.moveTo(MARGIN, y + 4);
-            holder.cs.lineTo(PAGE_WIDTH - MARGIN, y + 4);
-            holder.cs.stroke();
-            holder.cs.setStrokingColor(0f, 0f, 0f);
-
-            float x = MARGIN;
-            for (int i = 0; i < wrappedValues.size(); i++) {
-                List<String> lines = wrappedValues.get(i);
-                for (int lineIndex = 0; lineIndex < lines.size(); lineIndex++) {
-                    holder.cs.beginText();
-                    holder.cs.setFont(PDType1Font.HELVETICA, TABLE_FONT_SIZE);
-                    holder.cs.newLineAtOffset(x + CELL_HORIZONTAL_PADDING,
-                            y - CELL_TOP_PADDING - (lineIndex * TABLE_LINE_HEIGHT));
-                    holder.cs.showText(lines.get(lineIndex));
-                    holder.cs.endText();
-                }
-                x += COL_WIDTHS[i];
-            }
-            y -= rowHeight;
+            y = drawTableRow(holder, y, values, TABLE_HEADERS, COL_WIDTHS, document);
         }
 
         return y;
     }
 
-    private List<String> wrapText(String text, float maxWidth, PDFont font, float fontSize) throws IOException {
-        List<String> lines = new ArrayList<>();
-        String sanitized = sanitize(text);
-
-        if (sanitized.isBlank()) {
-            lines.add("");
-            return lines;
+    /**
+     * Dibuja una fila de tabla partiendo el texto de cada celda. Si la fila no
+     * cabe en la página continúa en una nueva, repitiendo los títulos de la
+     * tabla.
+     */
+    private float drawTableRow(ContentStreamHolder holder, float y, String[] values, String[] headers,
+            float[] widths, PDDocument document) throws IOException {
+        List<List<String>> wrappedValues = new ArrayList<>();
+        int maxLines = 1;
+        for (int i = 0; i < values.length; i++) {
+            float maxTextWidth = widths[i] - (CELL_HORIZONTAL_PADDING * 2);
+            List<String> lines = PdfTextLayout.HELVETICA.wrap(values[i], maxTextWidth, TABLE_FONT_SIZE);
+            wrappedValues.add(lines);
+            maxLines = Math.max(maxLines, lines.size());
         }
 
-        String[] paragraphs = sanitized.split("\\R");
-        for (String paragraph : paragraphs) {
-            String trimmed = paragraph.trim();
-            if (trimmed.isEmpty()) {
-                lines.add("");
-                continue;
-            }
-
-            String currentLine = "";
-            String[] words = trimmed.split("\\s+");
-
-            for (String word : words) {
-                String candidate = currentLine.isEmpty() ? word : currentLine + " " + word;
-                if (getTextWidth(candidate, font, fontSize) <= maxWidth) {
-                    currentLine = candidate;
-                    continue;
-                }
-
-                if (!currentLine.isEmpty()) {
-                    lines.add(currentLine);
-                    currentLine = "";
-                }
-
-                if (getTextWidth(word, font, fontSize) <= maxWidth) {
-                    currentLine = word;
-                    continue;
-                }
-
-                List<String> chunks = splitLongWord(word, maxWidth, font, fontSize);
-                if (chunks.size() > 1) {
-                    lines.addAll(chunks.subList(0, chunks.size() - 1));
-                }
-                currentLine = chunks.get(chunks.size() - 1);
-            }
-
-            if (!currentLine.isEmpty()) {
-                lines.add(currentLine);
-            }
-        }
+        float rowHeight = Math.max(ROW_HEIGHT,
+                CELL_TOP_PADDING + CELL_BOTTOM_PADDING + ((maxLines - 1) * TABLE_LINE_HEIGHT));
 
-        if (lines.isEmpty()) {
-            lines.add("");
+        if (y - rowHeight < MARGIN + 20) {
+            y = startNewPage(holder, document);
+            y = drawTableHeaders(holder.cs, y, headers, widths);
         }
 
-        return lines;
-    }
+        holder.cs.setLineWidth(0.5f);
+        holder.cs.setStrokingColor(220 / 255f, 220 / 255f, 220 / 255f);
+        holder.cs.moveTo(MARGIN, y + 4);
+        holder.cs.lineTo(PAGE_WIDTH - MARGIN, y + 4);
+        holder.cs.stroke();
+        holder.cs.setStrokingColor(0f, 0f, 0f);
 
-    private List<String> splitLongWord(String word, float maxWidth, PDFont font, float fontSize) throws IOException {
-        List<String> chunks = new ArrayList<>();
-        StringBuilder chunk = new StringBuilder();
-
-        for (int i = 0; i < word.length(); i++) {
-            String candidate = chunk.toString() + word.charAt(i);
-            if (!chunk.isEmpty() && getTextWidth(candidate, font, fontSize) > maxWidth) {
-                chunks.add(chunk.toString());
-                chunk = new StringBuilder().append(word.charAt(i));
-            } else {
-                chunk.append(word.charAt(i));
+        float x = MARGIN;
+        for (int i = 0; i < wrappedValues.size(); i++) {
+            List<String> lines = wrappedValues.get(i);
+            for (int lineIndex = 0; lineIndex < lines.size(); lineIndex++) {
+                holder.cs.beginText();
+                holder.cs.setFont(PDType1Font.HELVETICA, TABLE_FONT_SIZE);
+                holder.cs.newLineAtOffset(x + CELL_HORIZONTAL_PADDING,
+                        y - CELL_TOP_PADDING - (lineIndex * TABLE_LINE_HEIGHT));
+                holder.cs.showText(lines.get(lineIndex));
+                holder.cs.endText();
             }
+            x += widths[i];
         }
-
-        if (!chunk.isEmpty()) {
-            chunks.add(chunk.toString());
-        }
-
-        if (chunks.isEmpty()) {
-            chunks.add("");
-        }
-
-        return chunks;
-    }
-
-    private float getTextWidth(String text, PDFont font, float fontSize) throws IOException {
-        if (text == null || text.isEmpty()) {
-            return 0f;
-        }
-        return (font.getStringWidth(text) / 1000f) * fontSize;
+        return y - rowHeight;
     }
 
-    private String sanitize(String text) {
-        if (text == null)
-            return "";
-        return text.replaceAll("[\\p{Cntrl}&&[^\t]]", "").replace("\t", " ");
+    /**
+     * Cierra la página actual y abre una nueva con el encabezado.
+     *
+     * @return posición vertical debajo del encabezado
+     */
+    private float startNewPage(ContentStreamHolder holder, PDDocument document) throws IOException {
+        holder.cs.close();
+        PDPage newPage = new PDPage(PDRectangle.LETTER);
+        document.addPage(newPage);
+        holder.cs = new PDPageContentStream(document, newPage);
+        float y = drawHeader(holder.cs, holder.header);
+        return drawSeparator(holder.cs, y);
     }
 }
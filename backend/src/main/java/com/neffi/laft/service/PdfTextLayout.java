@@ -0,0 +1,247 @@
+package com.neffi.laft.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+
+/**
+ * Medición y partición de texto para los informes PDF. El ancho de cada
+ * carácter se calcula una sola vez por fuente, de modo que medir una línea no
+ * vuelve a codificar el texto con PDFBox y la partición en líneas recorre cada
+ * palabra una sola vez.
+ * <p>
+ * Los anchos se obtienen con {@link PDFont#getStringWidth(String)} y se suman
+ * en el mismo orden, por lo que las líneas resultantes son idénticas a medir
+ * cada candidata con PDFBox. Los caracteres que la fuente no puede codificar
+ * se delegan a PDFBox, que lanza la misma excepción que al dibujarlos.
+ */
+final class PdfTextLayout {
+
+    static final PdfTextLayout HELVETICA = new PdfTextLayout(PDType1Font.HELVETICA);
+
+    static final PdfTextLayout HELVETICA_BOLD = new PdfTextLayout(PDType1Font.HELVETICA_BOLD);
+
+    /** Caracteres con tabla de anchos; cubre WinAnsiEncoding (el mayor es U+2122). */
+    private static final int TABLE_SIZE = 0x2200;
+
+    private static final Pattern LINE_BREAK = Pattern.compile("\\R");
+
+    private final PDFont font;
+
+    /** Ancho en unidades de glifo por carácter; NaN si la fuente no lo codifica. */
+    private final float[] widths = new float[TABLE_SIZE];
+
+    private PdfTextLayout(PDFont font) {
+        this.font = font;
+        Arrays.fill(widths, Float.NaN);
+        for (char c = 0; c < TABLE_SIZE; c++) {
+            try {
+                widths[c] = font.getStringWidth(String.valueOf(c));
+            } catch (IllegalArgumentException | IOException e) {
+                // Sin glifo en la codificación de la fuente
+            }
+        }
+    }
+
+    PDFont font() {
+        return font;
+    }
+
+    /**
+     * Ancho del texto en puntos para el tamaño de fuente indicado.
+     */
+    float width(String text, float fontSize) throws IOException {
+        if (text == null || text.isEmpty()) {
+            return 0f;
+        }
+        return toPoints(advance(0f, text), fontSize);
+    }
+
+    /**
+     * Parte el texto en líneas que no superan el ancho máximo. Las palabras más
+     * anchas que una línea se cortan por caracteres.
+     */
+    List<String> wrap(String text, float maxWidth, float fontSize) throws IOException {
+        List<String> lines = new ArrayList<>();
+        String sanitized = sanitize(text);
+
+        if (sanitized.isBlank()) {
+            lines.add("");
+            return lines;
+        }
+
+        float space = glyphWidth(' ');
+        for (String paragraph : paragraphs(sanitized)) {
+            String trimmed = paragraph.trim();
+            if (trimmed.isEmpty()) {
+                lines.add("");
+                continue;
+            }
+
+            StringBuilder currentLine = new StringBuilder();
+            float currentUnits = 0f;
+
+            for (String word : words(trimmed)) {
+                if (currentLine.length() > 0) {
+                    float candidateUnits = advance(currentUnits + space, word);
+                    if (toPoints(candidateUnits, fontSize) <= maxWidth) {
+                        currentLine.append(' ').append(word);
+                        currentUnits = candidateUnits;
+                        continue;
+                    }
+                    lines.add(currentLine.toString());
+                    currentLine.setLength(0);
+                }
+
+                float wordUnits = advance(0f, word);
+                if (toPoints(wordUnits, fontSize) <= maxWidth) {
+                    currentLine.append(word);
+                    currentUnits = wordUnits;
+                    continue;
+                }
+
+                currentUnits = splitLongWord(word, maxWidth, fontSize, lines, currentLine);
+            }
+
+            if (currentLine.length() > 0) {
+                lines.add(currentLine.toString());
+            }
+        }
+
+        if (lines.isEmpty()) {
+            lines.add("");
+        }
+
+        return lines;
+    }
+
+    /**
+     * Separa el texto en párrafos. Tras {@link #sanitize(String)} solo pueden
+     * quedar los saltos de línea Unicode, que son raros, así que la expresión
+     * regular se usa únicamente cuando aparecen.
+     */
+    private static String[] paragraphs(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return LINE_BREAK.split(text);
+            }
+        }
+        return new String[] { text };
+    }
+
+    /**
+     * Separa un texto sin espacios al inicio ni al final en palabras, igual que
+     * {@code split("\\s+")}.
+     */
+    private static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i < text.length(); i++) {
+            if (isWhitespace(text.charAt(i))) {
+                if (start >= 0) {
+                    words.add(text.substring(start, i));
+                    start = -1;
+                }
+            } else if (start < 0) {
+                start = i;
+            }
+        }
+        if (start >= 0) {
+            words.add(text.substring(start));
+        }
+        return words;
+    }
+
+    /** Equivalente a {@code \s}: espacio, tabulador, saltos de línea, tabulador vertical y avance de página. */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /**
+     * Corta una palabra por caracteres. Agrega a {@code lines} todos los trozos
+     * menos el último, que queda en {@code lastChunk} como inicio de la línea
+     * siguiente.
+     *
+     * @return ancho en unidades de glifo del último trozo
+     */
+    private float splitLongWord(String word, float maxWidth, float fontSize, List<String> lines,
+            StringBuilder lastChunk) throws IOException {
+        int chunkStart = 0;
+        float chunkUnits = 0f;
+
+        for (int i = 0; i < word.length(); i++) {
+            float candidateUnits = chunkUnits + glyphWidth(word.charAt(i));
+            if (i > chunkStart && toPoints(candidateUnits, fontSize) > maxWidth) {
+                lines.add(word.substring(chunkStart, i));
+                chunkStart = i;
+                chunkUnits = glyphWidth(word.charAt(i));
+            } else {
+                chunkUnits = candidateUnits;
+            }
+        }
+
+        lastChunk.append(word, chunkStart, word.length());
+        return chunkUnits;
+    }
+
+    /**
+     * Elimina los caracteres de control, salvo el tabulador que se reemplaza por
+     * un espacio. Si no hay nada que cambiar retorna el mismo texto.
+     */
+    static String sanitize(String text) {
+        if (text == null) {
+            return "";
+        }
+        int i = 0;
+        while (i < text.length() && !isControl(text.charAt(i))) {
+            i++;
+        }
+        if (i == text.length()) {
+            return text;
+        }
+
+        StringBuilder sb = new StringBuilder(text.length());
+        sb.append(text, 0, i);
+        for (; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\t') {
+                sb.append(' ');
+            } else if (!isControl(c)) {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /** Equivalente a {@code \p{Cntrl}}: caracteres de control ASCII. */
+    private static boolean isControl(char c) {
+        return c < 0x20 || c == 0x7F;
+    }
+
+    private float advance(float units, String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            units += glyphWidth(text.charAt(i));
+        }
+        return units;
+    }
+
+    private float glyphWidth(char c) throws IOException {
+        if (c < TABLE_SIZE) {
+            float width = widths[c];
+            if (!Float.isNaN(width)) {
+                return width;
+            }
+        }
+        return font.getStringWidth(String.valueOf(c));
+    }
+
+    private static float toPoints(float units, float fontSize) {
+        return (units / 1000f) * fontSize;
+    }
+}
@@ -0,0 +1,55 @@
+package com.neffi.laft.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Métricas de generación de informes: tiempo de generación
+ * ({@code laft.report.generation}) y tamaño del archivo
+ * ({@code laft.report.size}), etiquetadas por formato.
+ */
+@Component
+public class ReportMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    private final Map<String, DistributionSummary> sizes = new ConcurrentHashMap<>();
+
+    public ReportMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Registra una generación de informe.
+     *
+     * @param format formato del informe (pdf, xlsx)
+     * @param nanos  duración de la generación en nanosegundos
+     * @param bytes  tamaño del archivo generado
+     */
+    public void record(String format, long nanos, long bytes) {
+        timers.computeIfAbsent(format, f -> Timer.builder("laft.report.generation")
+                .description("Tiempo de generación de informes")
+                .tag("format", f)
+                .publishPercentileHistogram()
+                .register(meterRegistry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+        sizes.computeIfAbsent(format, f -> DistributionSummary.builder("laft.report.size")
+                .description("Tamaño de los informes generados")
+                .baseUnit("bytes")
+                .tag("format", f)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1_024d)
+                .maximumExpectedValue(1_073_741_824d)
+                .register(meterRegistry))
+                .record(bytes);
+    }
+}
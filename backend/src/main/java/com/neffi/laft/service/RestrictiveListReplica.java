@@ -0,0 +1,380 @@
+package com.neffi.laft.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.neffi.laft.dto.NameMatchDto;
+import com.neffi.laft.dto.RestrictiveListEntry;
+import com.neffi.laft.dto.ValidateClientDto;
+import com.neffi.laft.repository.RestrictiveListRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Réplica local y opcional de las listas restrictivas para consultas de solo
+ * lectura (prevalidaciones, vistas previas, triaje). No reemplaza a
+ * BUT_VALIDAR_LISTAS: no registra auditoría y no aplica sus reglas, solo busca
+ * por identificación, por los tokens del nombre y, si se habilita, por nombres
+ * aproximados con {@link FuzzyNameMatcher}.
+ * <p>
+ * La copia se sincroniza en segundo plano con las filas cuya
+ * {@code FECHA_ACTUALIZACION} cambió desde la última sincronización y se
+ * reemplaza atómicamente. Una fila modificada reemplaza a la que tiene la misma
+ * lista y entidad ({@code CODIGO_LISTA} y {@code ENT_NUM}), aunque se haya
+ * corregido su identificación o su nombre; la fuente debe tener una fila por
+ * entidad de cada lista. Las filas sin entidad se identifican por lista,
+ * identificación y nombre. Las filas borradas no se detectan por fecha, por eso
+ * la copia se recarga completa cada
+ * {@code app.restrictiveList.replica.full-reload-interval}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RestrictiveListReplica {
+
+    private final RestrictiveListRepository restrictiveListRepository;
+
+    @Value("${app.restrictiveList.replica.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.restrictiveList.replica.full-reload-interval:PT6H}")
+    private Duration fullReloadInterval;
+
+    @Value("${app.restrictiveList.replica.max-results:100}")
+    private int maxResults;
+
+    /** Construye el índice de nombres aproximados al cargar la réplica y habilita su búsqueda. */
+    @Value("${app.restrictiveList.replica.fuzzy.enabled:false}")
+    private boolean fuzzyEnabled;
+
+    @Value("${app.restrictiveList.replica.fuzzy.min-score:0.88}")
+    private double fuzzyMinScore;
+
+    /** Filas modificadas a partir de las cuales se integran en la copia base. */
+    @Value("${app.restrictiveList.replica.compact-threshold:10000}")
+    private int compactThreshold;
+
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    private volatile ReplicaView view = ReplicaView.EMPTY;
+
+    private volatile boolean ready;
+
+    private volatile Instant lastSync;
+
+    private volatile Instant lastFullLoad;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Indica si la réplica ya tiene una copia completa de las listas. */
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    /**
+     * Sincronización periódica: la primera vez y cada
+     * {@code full-reload-interval} se recarga la copia completa; en las demás
+     * solo se leen las filas actualizadas. Si falla se conserva la copia
+     * anterior.
+     */
+    @Scheduled(initialDelayString = "${app.restrictiveList.replica.initial-delay:PT10S}",
+            fixedDelayString = "${app.restrictiveList.replica.sync-interval:PT1M}")
+    public void scheduledSync() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            sync();
+        } catch (RuntimeException e) {
+            log.warn("No se pudo sincronizar la réplica de listas restrictivas; se conserva la copia anterior", e);
+        }
+    }
+
+    /**
+     * Sincroniza la réplica con la base de datos. Se serializa con un lock y no
+     * con {@code synchronized} porque la lectura bloquea en JDBC y, con hilos
+     * virtuales, un monitor fijaría el hilo portador durante la consulta.
+     *
+     * @return filas nuevas o modificadas
+     */
+    public int sync() {
+        syncLock.lock();
+        try {
+            Instant now = Instant.now();
+            if (!ready || view.version() == null || lastFullLoad.plus(fullReloadInterval).isBefore(now)) {
+                return fullLoad(now);
+            }
+            return incrementalSync(now);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private int fullLoad(Instant now) {
+        long start = System.nanoTime();
+        RestrictiveListSnapshot.Builder builder = new RestrictiveListSnapshot.Builder(false);
+        int rows = restrictiveListRepository.streamListEntries(null, builder::add);
+        RestrictiveListSnapshot base = builder.build();
+        if (fuzzyEnabled) {
+            base.nameMatcher();
+        }
+
+        view = new ReplicaView(base, new BitSet(), RestrictiveListSnapshot.EMPTY);
+        ready = true;
+        lastSync = now;
+        lastFullLoad = now;
+        log.info("Réplica de listas restrictivas cargada: {} filas, {} tokens, versión {} en {} ms",
+                base.size(), base.tokenCount(), base.version(), (System.nanoTime() - start) / 1_000_000);
+        return rows;
+    }
+
+    /**
+     * Lee las filas actualizadas desde la versión de la réplica. Las filas
+     * nuevas o modificadas se guardan en una copia pequeña aparte, y las filas
+     * que reemplazan se marcan en la copia base, sin reconstruirla. Cuando las
+     * filas modificadas superan {@code compact-threshold} se integran en una
+     * nueva copia base.
+     */
+    private int incrementalSync(Instant now) {
+        long start = System.nanoTime();
+        ReplicaView current = view;
+
+        // La consulta incluye la fecha de la versión; las filas que no cambiaron se descartan
+        List<RestrictiveListEntry> changed = new ArrayList<>();
+        restrictiveListRepository.streamListEntries(current.version(), entry -> {
+            if (!current.contains(entry)) {
+                changed.add(entry);
+            }
+        });
+        lastSync = now;
+        if (changed.isEmpty()) {
+            return 0;
+        }
+
+        RestrictiveListSnapshot.Builder builder = new RestrictiveListSnapshot.Builder(true);
+        changed.forEach(builder::add);
+        builder.addUnchanged(current.changes);
+        BitSet replaced = (BitSet) current.replaced.clone();
+        for (RestrictiveListEntry entry : changed) {
+            current.base.findRows(entry).forEach(replaced::set);
+        }
+
+        ReplicaView updated;
+        if (builder.size() >= compactThreshold) {
+            RestrictiveListSnapshot.Builder compacted = new RestrictiveListSnapshot.Builder(false);
+            compacted.addAll(current.base, replaced);
+            compacted.addAll(builder.build(), new BitSet());
+            RestrictiveListSnapshot base = compacted.build();
+            if (fuzzyEnabled) {
+                base.nameMatcher();
+            }
+            updated = new ReplicaView(base, new BitSet(), RestrictiveListSnapshot.EMPTY);
+        } else {
+            updated = new ReplicaView(current.base, replaced, builder.build());
+        }
+        view = updated;
+        log.info("Réplica de listas restrictivas actualizada: {} filas modificadas, {} filas, versión {} en {} ms",
+                changed.size(), updated.size(), updated.version(), (System.nanoTime() - start) / 1_000_000);
+        return changed.size();
+    }
+
+    /**
+     * Busca en la réplica las filas cuya identificación coincide con la
+     * consultada o cuyo nombre contiene todos los tokens del nombre consultado.
+     *
+     * @param dto datos del cliente
+     * @return coincidencias, hasta {@code app.restrictiveList.replica.max-results}
+     * @throws IllegalStateException si la réplica no está habilitada o aún no
+     *                               se ha cargado
+     */
+    public List<RestrictiveListEntry> search(ValidateClientDto dto) {
+        checkReady();
+        ReplicaView current = view;
+        String name = fullName(dto);
+
+        List<RestrictiveListEntry> results = new ArrayList<>();
+        current.collect(current.changes, null, dto.getP_IDENTIFICACION(), name, maxResults, results);
+        current.collect(current.base, current.replaced, dto.getP_IDENTIFICACION(), name, maxResults, results);
+        return results;
+    }
+
+    /**
+     * Busca en la réplica los nombres parecidos al del cliente, sin importar el
+     * orden de nombres y apellidos, las tildes ni errores de digitación.
+     *
+     * @param dto datos del cliente; solo se usan los nombres y apellidos
+     * @return coincidencias con puntaje de al menos
+     *         {@code app.restrictiveList.replica.fuzzy.min-score}, de mayor a
+     *         menor puntaje y hasta {@code app.restrictiveList.replica.max-results}
+     * @throws IllegalStateException si la réplica o la búsqueda aproximada no
+     *                               están habilitadas, o la réplica aún no se ha
+     *                               cargado
+     */
+    public List<NameMatchDto> searchSimilarNames(ValidateClientDto dto) {
+        if (!fuzzyEnabled) {
+            throw new IllegalStateException("La búsqueda aproximada de nombres no está habilitada");
+        }
+        checkReady();
+        ReplicaView current = view;
+
+        List<NameMatchDto> results = new ArrayList<>();
+        current.collectSimilar(current.changes, null, dto, maxResults, fuzzyMinScore, results);
+        current.collectSimilar(current.base, current.replaced, dto, maxResults, fuzzyMinScore, results);
+        results.sort(Comparator.comparingDouble(NameMatchDto::getScore).reversed());
+        return results.size() > maxResults ? new ArrayList<>(results.subList(0, maxResults)) : results;
+    }
+
+    private void checkReady() {
+        if (!isReady()) {
+            throw new IllegalStateException(enabled
+                    ? "La réplica de listas restrictivas aún no se ha cargado"
+                    : "La réplica de listas restrictivas no está habilitada");
+        }
+    }
+
+    private static String fullName(ValidateClientDto dto) {
+        StringJoiner joiner = new StringJoiner(" ");
+        for (String part : new String[] { dto.getP_NOMBRE_1(), dto.getP_NOMBRE_2(), dto.getP_APELLIDO_1(),
+                dto.getP_APELLIDO_2() }) {
+            if (part != null && !part.isBlank()) {
+                joiner.add(part);
+            }
+        }
+        return joiner.toString();
+    }
+
+    public int size() {
+        return view.size();
+    }
+
+    /** Segundos desde la última sincronización exitosa; -1 si nunca se ha sincronizado. */
+    public long secondsSinceSync() {
+        Instant last = lastSync;
+        return last != null ? Duration.between(last, Instant.now()).getSeconds() : -1;
+    }
+
+    public Map<String, Object> stats() {
+        ReplicaView current = view;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("ready", isReady());
+        stats.put("rows", current.size());
+        stats.put("pendingChanges", current.changes.size());
+        stats.put("tokens", current.base.tokenCount());
+        stats.put("fuzzyEnabled", fuzzyEnabled);
+        stats.put("version", current.version());
+        stats.put("lastSync", lastSync);
+        stats.put("lastFullLoad", lastFullLoad);
+        return stats;
+    }
+
+    /**
+     * Estado de la réplica que se reemplaza completo en cada sincronización: la
+     * copia base, las filas de la base reemplazadas y la copia con las filas
+     * nuevas o modificadas.
+     */
+    private static final class ReplicaView {
+
+        static final ReplicaView EMPTY = new ReplicaView(RestrictiveListSnapshot.EMPTY, new BitSet(),
+                RestrictiveListSnapshot.EMPTY);
+
+        final RestrictiveListSnapshot base;
+        final BitSet replaced;
+        final RestrictiveListSnapshot changes;
+        final int size;
+        final LocalDateTime version;
+
+        ReplicaView(RestrictiveListSnapshot base, BitSet replaced, RestrictiveListSnapshot changes) {
+            this.base = base;
+            this.replaced = replaced;
+            this.changes = changes;
+            this.size = base.size() - replaced.cardinality() + changes.size();
+            LocalDateTime baseVersion = base.version();
+            LocalDateTime changesVersion = changes.version();
+            this.version = changesVersion != null && (baseVersion == null || changesVersion.isAfter(baseVersion))
+                    ? changesVersion
+                    : baseVersion;
+        }
+
+        int size() {
+            return size;
+        }
+
+        LocalDateTime version() {
+            return version;
+        }
+
+        /** Indica si la réplica ya tiene una fila idéntica a la entrada. */
+        boolean contains(RestrictiveListEntry entry) {
+            for (int row : changes.findRows(entry)) {
+                if (changes.entry(row).equals(entry)) {
+                    return true;
+                }
+            }
+            for (int row : base.findRows(entry)) {
+                if (!replaced.get(row) && base.entry(row).equals(entry)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Agrega a {@code results} las filas de una copia que coinciden por
+         * identificación o por nombre, sin repetir filas y hasta {@code limit}.
+         */
+        void collect(RestrictiveListSnapshot snapshot, BitSet excluded, String identificacion, String name,
+                int limit, List<RestrictiveListEntry> results) {
+            Set<Integer> rows = new LinkedHashSet<>(snapshot.findByIdentificacion(identificacion));
+            rows.addAll(snapshot.findByName(name, limit));
+            for (int row : rows) {
+                if (results.size() >= limit) {
+                    return;
+                }
+                if (excluded == null || !excluded.get(row)) {
+                    results.add(snapshot.entry(row));
+                }
+            }
+        }
+
+        /**
+         * Agrega a {@code results} las filas de una copia con nombre parecido al
+         * del cliente. Se piden filas de más para compensar las excluidas.
+         */
+        void collectSimilar(RestrictiveListSnapshot snapshot, BitSet excluded, ValidateClientDto dto, int limit,
+                double minScore, List<NameMatchDto> results) {
+            if (snapshot.size() == 0) {
+                return;
+            }
+            int wanted = excluded == null ? limit : limit + Math.min(excluded.cardinality(), limit);
+            List<FuzzyNameMatcher.Match> matches = snapshot.nameMatcher().match(dto.getP_NOMBRE_1(),
+                    dto.getP_NOMBRE_2(), dto.getP_APELLIDO_1(), dto.getP_APELLIDO_2(), wanted, minScore);
+            for (FuzzyNameMatcher.Match match : matches) {
+                if (excluded == null || !excluded.get(match.index())) {
+                    results.add(NameMatchDto.builder()
+                            .score(match.score())
+                            .entry(snapshot.entry(match.index()))
+                            .build());
+                }
+            }
+        }
+    }
+}
@@ -1,10 +1,34 @@
 package com.neffi.laft.service;
 
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
@@ -16,18 +40,27 @@ import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.neffi.laft.dto.BulkJobStatusDto;
+import com.neffi.laft.dto.BulkRunSummaryDto;
 import com.neffi.laft.dto.BulkValidateResultDto;
 import com.neffi.laft.dto.ButValidarListasParams;
 import com.neffi.laft.dto.RestrictiveListEntry;
 import com.neffi.laft.dto.TiposDocumentosDTO;
 import com.neffi.laft.dto.ValidateClientDto;
+import com.neffi.laft.enums.BulkInputFormat;
+import com.neffi.laft.enums.BulkJobState;
 import com.neffi.laft.enums.BulkTemplateColumn;
+import com.neffi.laft.exception.AdmissionRejectedException;
 import com.neffi.laft.repository.RestrictiveListRepository;
 import com.neffi.laft.utils.Utils;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -36,8 +69,6 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class RestrictiveListService {
 
-    private static final DateTimeFormatter REPORT_DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
-
     private static final String[] BULK_TEMPLATE_COLUMNS = BulkTemplateColumn.headers();
 
     @Value("${app.restrictiveList.validationProcessName}")
@@ -49,25 +80,115 @@ public class RestrictiveListService {
     @Value("${app.restrictiveList.returnsLinf}")
     private String retornaLinf;
 
+    @Value("${app.bulk.jobs.max-concurrent:2}")
+    private int maxConcurrentJobs;
+
+    @Value("${app.bulk.jobs.queue-capacity:20}")
+    private int jobQueueCapacity;
+
     private final RestrictiveListRepository restrictiveListRepository;
 
     private final TiposDocumentosService tiposDocumentosService;
 
+    private final ScreeningResultCache screeningResultCache;
+
+    private final BulkValidationEngine bulkValidationEngine;
+
+    private final ScreeningAdmission screeningAdmission;
+
+    private final BulkWorkbookReader bulkWorkbookReader;
+
+    private final BulkTextReader bulkTextReader;
+
+    private final BulkJobStore bulkJobStore;
+
     private final Utils utils;
 
+    private final Map<String, BulkJob> activeJobs = new ConcurrentHashMap<>();
+
+    private final AtomicInteger jobThreadCounter = new AtomicInteger();
+
+    private ThreadPoolExecutor bulkJobExecutor;
+
+    private volatile boolean shuttingDown;
+
+    private byte[] bulkTemplate;
+
+    private String bulkTemplateETag;
+
     /**
      * Valida un cliente contra las listas restrictivas ejecutando la función
-     * BUT_VALIDAR_LISTAS con los parámetros proporcionados.
+     * BUT_VALIDAR_LISTAS con los parámetros proporcionados. La consulta se
+     * admite en el carril interactivo de {@link ScreeningAdmission}.
      * 
      * @param dto
      * @param requestUrl
      * @return
+     * @throws AdmissionRejectedException si el carril interactivo está saturado
      */
     public List<RestrictiveListEntry> validateClient(ValidateClientDto dto, String requestUrl) {
+        String usuario = utils.getCurrentUsername();
+        return screeningAdmission.interactive(() -> validateClient(dto, requestUrl, usuario));
+    }
+
+    private List<RestrictiveListEntry> validateClient(ValidateClientDto dto, String requestUrl, String usuario) {
         log.info("Validando cliente - Documento: {}, Nombre: {}",
                 dto.getP_IDENTIFICACION(), dto.getP_NOMBRE_1());
 
-        ButValidarListasParams params = new ButValidarListasParams(
+        ButValidarListasParams params = buildParams(dto, requestUrl, usuario);
+        List<RestrictiveListEntry> results = screeningResultCache.get(params);
+        if (results != null) {
+            log.info("Encontradas {} coincidencias (caché)", results.size());
+            return results;
+        }
+
+        results = completeScreening(params, restrictiveListRepository.butValidarListas(params));
+
+        log.info("Encontradas {} coincidencias", results.size());
+        return results;
+    }
+
+    /**
+     * Valida un lote de clientes con una sola llamada a la base de datos. La
+     * auditoría registrada es la misma que la de validar cada cliente por
+     * separado. Un lote de un solo cliente también espera cupo como lote
+     * masivo, no en el carril interactivo.
+     * 
+     * @param dtos
+     * @param requestUrl
+     * @param usuario
+     * @return coincidencias de cada cliente, en el mismo orden
+     */
+    public List<List<RestrictiveListEntry>> validateClients(List<ValidateClientDto> dtos, String requestUrl,
+            String usuario) {
+        log.info("Validando lote de {} clientes", dtos.size());
+
+        List<List<RestrictiveListEntry>> results = new ArrayList<>(dtos.size());
+        List<ButValidarListasParams> missParams = new ArrayList<>();
+        List<Integer> missIndexes = new ArrayList<>();
+        for (int i = 0; i < dtos.size(); i++) {
+            ButValidarListasParams params = buildParams(dtos.get(i), requestUrl, usuario);
+            List<RestrictiveListEntry> cached = screeningResultCache.get(params);
+            results.add(cached);
+            if (cached == null) {
+                missParams.add(params);
+                missIndexes.add(i);
+            }
+        }
+
+        if (!missParams.isEmpty()) {
+            List<List<RestrictiveListEntry>> screened = restrictiveListRepository.butValidarListasBatch(missParams);
+            for (int i = 0; i < screened.size(); i++) {
+                results.set(missIndexes.get(i), completeScreening(missParams.get(i), screened.get(i)));
+            }
+        }
+        log.debug("Lote validado - {} consultas a la base de datos, {} desde caché",
+                missParams.size(), dtos.size() - missParams.size());
+        return results;
+    }
+
+    private ButValidarListasParams buildParams(ValidateClientDto dto, String requestUrl, String usuario) {
+        return new ButValidarListasParams(
                 dto.getP_IDENTIFICACION(),
                 dto.getP_NOMBRE_1(),
                 dto.getP_NOMBRE_2(),
@@ -75,12 +196,27 @@ public class RestrictiveListService {
                 dto.getP_APELLIDO_2(),
                 proceso,
                 retornaLinf,
-                utils.getCurrentUsername(),
+                usuario,
                 requestUrl,
                 descripcionEvento);
+    }
 
-        List<RestrictiveListEntry> results = restrictiveListRepository.butValidarListas(params);
+    /**
+     * Homologa el tipo de documento de las coincidencias y guarda el resultado en
+     * la caché. Una consulta fallida (null) se retorna sin coincidencias y no se
+     * guarda en caché.
+     */
+    private List<RestrictiveListEntry> completeScreening(ButValidarListasParams params,
+            List<RestrictiveListEntry> results) {
+        if (results == null) {
+            return new ArrayList<>();
+        }
+        homologateTipoDocumento(results);
+        screeningResultCache.put(params, results);
+        return results;
+    }
 
+    private void homologateTipoDocumento(List<RestrictiveListEntry> results) {
         results.forEach(entry -> {
             if (entry.getTipoDocumento() != null) {
                 try {
@@ -93,79 +229,390 @@ public class RestrictiveListService {
                 }
             }
         });
+    }
 
-        log.info("Encontradas {} coincidencias", results.size());
+    /**
+     * Valida masivamente los clientes de un archivo Excel y retorna todos los
+     * resultados juntos.
+     * 
+     * @param file
+     * @param requestUrl
+     * @param summary    recibe el resumen de la ejecución al terminar
+     * @return
+     * @throws AdmissionRejectedException si ya hay demasiadas validaciones
+     *                                     masivas síncronas en curso
+     * @throws Exception
+     * @see #streamBulk(InputStream, String, String, Consumer)
+     */
+    public List<BulkValidateResultDto> validateBulk(MultipartFile file, String requestUrl,
+            Consumer<BulkRunSummaryDto> summary) throws Exception {
+        List<BulkValidateResultDto> results = new ArrayList<>();
+        screeningAdmission.acquireBulkRequest();
+        try (InputStream is = file.getInputStream()) {
+            summary.accept(streamBulk(is, file.getOriginalFilename(), requestUrl, results::add));
+        } finally {
+            screeningAdmission.releaseBulkRequest();
+        }
         return results;
     }
 
-    public List<BulkValidateResultDto> validateBulk(MultipartFile file, String requestUrl) throws Exception {
-        log.info("Validación masiva - archivo: {}", file.getOriginalFilename());
-        List<BulkValidateResultDto> results = new ArrayList<>();
+    /**
+     * Valida masivamente los clientes de un archivo y entrega cada resultado en
+     * cuanto se obtiene. El formato (XLSX, CSV o NDJSON) se determina por la
+     * extensión del nombre del archivo. Las filas se leen en streaming con
+     * {@link BulkWorkbookReader} o {@link BulkTextReader} y la consulta contra las listas se delega al
+     * {@link BulkValidationEngine}, que conserva el orden original de las filas.
+     * Las filas repetidas no se vuelven a consultar, pero su auditoría se
+     * registra igual que la de un acierto en caché.
+     * <p>
+     * El llamador debe tener un cupo de
+     * {@link ScreeningAdmission#acquireBulkRequest()}.
+     * 
+     * @param input      contenido del archivo
+     * @param fileName   nombre del archivo, para el formato y el log
+     * @param requestUrl
+     * @param sink       recibe los resultados en el orden de las filas
+     * @return resumen de la ejecución
+     * @throws IOException
+     */
+    public BulkRunSummaryDto streamBulk(InputStream input, String fileName, String requestUrl,
+            Consumer<BulkValidateResultDto> sink) throws IOException {
+        log.info("Validación masiva - archivo: {}", fileName);
+        String usuario = utils.getCurrentUsername();
+
+        BulkRunSummaryDto run;
+        try (BulkValidationEngine.Pipeline pipeline = bulkValidationEngine.open(usuario,
+                dtos -> validateClients(dtos, requestUrl, usuario),
+                dto -> screeningResultCache.audit(buildParams(dto, requestUrl, usuario)),
+                sink)) {
+
+            readBulkInput(input, BulkInputFormat.fromFileName(fileName), new BulkRowHandler() {
+                @Override
+                public void header(String[] headers) {
+                    validateBulkTemplateColumnCount(headers);
+                }
 
-        try (InputStream is = file.getInputStream();
-                Workbook workbook = new XSSFWorkbook(is)) {
+                @Override
+                public void row(int rowNumber, String[] cells) {
+                    pipeline.accept(rowNumber, cells);
+                }
+            });
 
-            Sheet sheet = workbook.getSheetAt(0);
-            validateBulkTemplateColumnCount(sheet);
-            int firstDataRow = 1;
+            run = pipeline.finish();
+        }
 
-            for (int i = firstDataRow; i <= sheet.getLastRowNum(); i++) {
-                Row row = sheet.getRow(i);
-                if (row == null)
-                    continue;
+        log.info("Validación masiva completada - {} registros procesados, {} consultas evitadas por filas repetidas",
+                run.getRows(), run.getCallsSaved());
+        return run;
+    }
 
-                String docNumber = getCellString(row, BulkTemplateColumn.NUMERO_DOCUMENTO);
-                String primerNombreCol = getCellString(row, BulkTemplateColumn.PRIMER_NOMBRE);
-                String razonSocialCol = getCellString(row, BulkTemplateColumn.RAZON_SOCIAL);
-                String primerNombre;
-
-                if (!primerNombreCol.isBlank()) {
-                    log.info("Fila {}: Usando Primer Nombre '{}' para documento {}", i + 1, primerNombreCol, docNumber);
-                    primerNombre = primerNombreCol;
-                } else if (!razonSocialCol.isBlank()) {
-                    log.info("Fila {}: Usando Razón Social '{}' para documento {}", i + 1, razonSocialCol, docNumber);
-                    primerNombre = razonSocialCol;
-                } 
-                else {
-                    log.warn("Fila {}: No se proporcionó ni Primer Nombre ni Razón Social. Se omite esta fila.", i + 1);
-                    primerNombre = "";
-                }
+    /**
+     * Registra un trabajo asíncrono de validación masiva. El archivo se guarda en
+     * disco y el trabajo queda en cola en el pool de trabajos; el estado se puede
+     * consultar con {@link #getBulkJob(String)}.
+     * <p>
+     * Los resultados y el estado se escriben juntos al terminar de entregar cada
+     * lote. Si el proceso se detiene, el trabajo se reanuda después de la última
+     * fila escrita: solo se vuelven a consultar, y a auditar, las filas de los
+     * lotes que estaban en vuelo, como máximo
+     * {@link BulkValidationEngine#getWindow()} lotes de
+     * {@code app.bulk.screening-batch-size} filas.
+     * 
+     * @param file
+     * @param requestUrl
+     * @return estado inicial del trabajo
+     * @throws AdmissionRejectedException si la cola de trabajos está llena
+     * @throws IOException
+     */
+    public BulkJobStatusDto submitBulkJob(MultipartFile file, String requestUrl) throws IOException {
+        String jobId;
+        try (InputStream is = file.getInputStream()) {
+            jobId = bulkJobStore.create(is, BulkInputFormat.fromFileName(file.getOriginalFilename()));
+        }
+
+        BulkJob job = new BulkJob(BulkJobStatusDto.builder()
+                .jobId(jobId)
+                .fileName(file.getOriginalFilename())
+                .state(BulkJobState.QUEUED)
+                .usuario(utils.getCurrentUsername())
+                .terminal(requestUrl)
+                .createdAt(LocalDateTime.now())
+                .build());
+        bulkJobStore.save(job.snapshot());
+
+        try {
+            enqueue(job);
+        } catch (RejectedExecutionException e) {
+            bulkJobStore.delete(jobId);
+            throw new AdmissionRejectedException("La cola de validaciones masivas está llena. Intente más tarde.");
+        }
+
+        log.info("Trabajo de validación masiva {} registrado - archivo: {}", jobId, file.getOriginalFilename());
+        return job.snapshot();
+    }
+
+    /**
+     * Consulta el estado y progreso de un trabajo de validación masiva del
+     * usuario actual.
+     * 
+     * @param jobId
+     * @return
+     * @throws NoSuchElementException si el trabajo no existe o es de otro usuario
+     */
+    public BulkJobStatusDto getBulkJob(String jobId) {
+        BulkJob active = activeJobs.get(jobId);
+        BulkJobStatusDto status = active != null ? active.snapshot() : bulkJobStore.load(jobId).orElse(null);
+        // Un trabajo de otro usuario se reporta como inexistente para no revelar sus identificadores
+        if (status == null || !Objects.equals(status.getUsuario(), utils.getCurrentUsername())) {
+            throw new NoSuchElementException("Trabajo de validación masiva no encontrado: " + jobId);
+        }
+        return status;
+    }
+
+    /**
+     * Cancela un trabajo en cola o en ejecución del usuario actual. Las filas ya
+     * procesadas se conservan en los resultados.
+     * 
+     * @param jobId
+     * @return estado del trabajo
+     * @throws NoSuchElementException si el trabajo no existe o es de otro usuario
+     */
+    public BulkJobStatusDto cancelBulkJob(String jobId) {
+        BulkJobStatusDto owned = getBulkJob(jobId);
+        BulkJob active = activeJobs.get(jobId);
+        if (active == null) {
+            return owned;
+        }
 
-                String segundoNombre = getCellString(row, BulkTemplateColumn.SEGUNDO_NOMBRE);
-                String primerApellido = getCellString(row, BulkTemplateColumn.PRIMER_APELLIDO);
-                String segundoApellido = getCellString(row, BulkTemplateColumn.SEGUNDO_APELLIDO);
-
-                String fullName;
-
-                fullName = String.join(" ",
-                        java.util.Arrays.stream(
-                                new String[] { primerNombre, segundoNombre, primerApellido, segundoApellido })
-                                .filter(s -> !s.isBlank())
-                                .toArray(String[]::new));
-
-                ValidateClientDto dto = ValidateClientDto.builder()
-                        .p_IDENTIFICACION(docNumber)
-                        .p_NOMBRE_1(primerNombre)
-                        .p_NOMBRE_2(segundoNombre)
-                        .p_APELLIDO_1(primerApellido)
-                        .p_APELLIDO_2(segundoApellido)
-                        .build();
-
-                List<RestrictiveListEntry> matches = validateClient(dto, requestUrl);
-
-                results.add(BulkValidateResultDto.builder()
-                        .queryDocumentNumber(docNumber)
-                        .queryFullName(fullName)
-                        .matchCount(matches.size())
-                        .matches(matches)
-                        .build());
+        log.info("Cancelando trabajo de validación masiva {}", jobId);
+        active.cancelled = true;
+        if (active.future != null && active.future.cancel(false)) {
+            // El trabajo seguía en cola y no llegará a ejecutarse
+            activeJobs.remove(jobId);
+            active.update(status -> {
+                status.setState(BulkJobState.CANCELLED);
+                status.setFinishedAt(LocalDateTime.now());
+            });
+            bulkJobStore.save(active.snapshot());
+        }
+        return active.snapshot();
+    }
+
+    /**
+     * Escribe los resultados de un trabajo terminado como arreglo JSON. No
+     * verifica el dueño: se invoca después de {@link #getBulkJob(String)}, en el
+     * hilo que escribe la respuesta.
+     * 
+     * @param jobId
+     * @param out
+     * @throws IOException
+     */
+    public void writeBulkJobResults(String jobId, OutputStream out) throws IOException {
+        bulkJobStore.writeResultsArray(jobId, out);
+    }
+
+    @PostConstruct
+    void startBulkJobExecutor() {
+        bulkJobExecutor = new ThreadPoolExecutor(maxConcurrentJobs, maxConcurrentJobs, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(jobQueueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "bulk-job-" + jobThreadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    void stopBulkJobExecutor() {
+        shuttingDown = true;
+        bulkJobExecutor.shutdownNow();
+    }
+
+    /**
+     * Reanuda los trabajos que quedaron en cola o en ejecución cuando la
+     * aplicación se detuvo.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeBulkJobs() {
+        for (BulkJobStatusDto status : bulkJobStore.loadAll()) {
+            if (status.getState() == null || status.getState().isFinished()) {
+                continue;
             }
+            log.info("Reanudando trabajo de validación masiva {} desde la fila {}",
+                    status.getJobId(), status.getRowsDone());
+            try {
+                enqueue(new BulkJob(status.toBuilder().state(BulkJobState.QUEUED).build()));
+            } catch (RejectedExecutionException e) {
+                log.warn("No se pudo reanudar el trabajo {}: cola llena", status.getJobId());
+            }
+        }
+    }
+
+    private void enqueue(BulkJob job) {
+        activeJobs.put(job.jobId, job);
+        try {
+            job.future = bulkJobExecutor.submit(() -> runBulkJob(job));
+        } catch (RejectedExecutionException e) {
+            activeJobs.remove(job.jobId);
+            throw e;
         }
+    }
 
-        log.info("Validación masiva completada - {} registros procesados", results.size());
+    private void runBulkJob(BulkJob job) {
+        String jobId = job.jobId;
+        try {
+            BulkJobStatusDto recovered = bulkJobStore.recoverProgress(job.snapshot());
+            long rowsToSkip = recovered.getRowsDone();
+            BulkInputFormat format = BulkInputFormat.fromFileName(recovered.getFileName());
+            Path input = bulkJobStore.inputFile(jobId, format);
+
+            if (recovered.getRowsTotal() == null) {
+                long[] total = { 0 };
+                readBulkInput(input, format, new BulkRowHandler() {
+                    @Override
+                    public void header(String[] headers) {
+                        validateBulkTemplateColumnCount(headers);
+                    }
+
+                    @Override
+                    public void row(int rowNumber, String[] cells) {
+                        total[0]++;
+                    }
+                });
+                recovered.setRowsTotal(total[0]);
+            }
 
-        return results;
+            job.update(status -> {
+                status.setRowsTotal(recovered.getRowsTotal());
+                status.setRowsDone(recovered.getRowsDone());
+                status.setMatches(recovered.getMatches());
+                status.setState(BulkJobState.RUNNING);
+                status.setStartedAt(LocalDateTime.now());
+            });
+            job.resumedRows = rowsToSkip;
+            bulkJobStore.save(job.snapshot());
+
+            String usuario = recovered.getUsuario();
+            String terminal = recovered.getTerminal();
+
+            try (BufferedWriter writer = bulkJobStore.openResults(jobId);
+                    BulkValidationEngine.Pipeline pipeline = bulkValidationEngine.open(usuario,
+                            dtos -> validateClients(dtos, terminal, usuario),
+                            dto -> {
+                                if (!screeningResultCache.audit(buildParams(dto, terminal, usuario))) {
+                                    return false;
+                                }
+                                job.update(status -> status.setCallsSaved(status.getCallsSaved() + 1));
+                                return true;
+                            },
+                            result -> {
+                                bulkJobStore.appendResult(writer, result);
+                                job.update(status -> {
+                                    status.setRowsDone(status.getRowsDone() + 1);
+                                    status.setMatches(status.getMatches() + result.getMatchCount());
+                                });
+                            },
+                            () -> persistProgress(job, writer))) {
+
+                long[] skipped = { 0 };
+                readBulkInput(input, format, new BulkRowHandler() {
+                    @Override
+                    public void header(String[] headers) {
+                        validateBulkTemplateColumnCount(headers);
+                    }
+
+                    @Override
+                    public void row(int rowNumber, String[] cells) {
+                        if (job.cancelled || Thread.currentThread().isInterrupted()) {
+                            throw new CancellationException("Trabajo cancelado");
+                        }
+                        if (skipped[0] < rowsToSkip) {
+                            skipped[0]++;
+                            return;
+                        }
+                        pipeline.accept(rowNumber, cells);
+                    }
+                });
+
+                pipeline.finish();
+                writer.flush();
+            }
+
+            job.finish(BulkJobState.COMPLETED, null);
+            log.info("Trabajo de validación masiva {} completado - {} registros procesados",
+                    jobId, job.snapshot().getRowsDone());
+        } catch (CancellationException e) {
+            if (shuttingDown) {
+                log.info("Trabajo de validación masiva {} interrumpido por apagado; se reanudará al iniciar", jobId);
+            } else {
+                job.finish(BulkJobState.CANCELLED, null);
+                log.info("Trabajo de validación masiva {} cancelado", jobId);
+            }
+        } catch (Exception e) {
+            if (shuttingDown) {
+                log.info("Trabajo de validación masiva {} interrumpido por apagado; se reanudará al iniciar", jobId);
+            } else {
+                log.error("Error en el trabajo de validación masiva {}", jobId, e);
+                job.finish(BulkJobState.FAILED, e.getMessage());
+            }
+        } finally {
+            bulkJobStore.save(job.snapshot());
+            activeJobs.remove(jobId);
+        }
+    }
+
+    /**
+     * Escribe en disco los resultados entregados y el estado del trabajo. Se
+     * invoca al terminar cada lote para que la reanudación, que parte de los
+     * resultados escritos, no vuelva a consultar filas ya entregadas.
+     */
+    private void persistProgress(BulkJob job, BufferedWriter writer) {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        bulkJobStore.save(job.snapshot());
+    }
+
+    /**
+     * Genera una sola vez la plantilla de validación masiva, que no cambia
+     * mientras la aplicación está en ejecución. El ETag se deriva del contenido
+     * de cada parte del libro (hojas, estilos, validaciones), sin las fechas del
+     * ZIP ni las propiedades del documento, para que cambie con cualquier cambio
+     * de la plantilla y sea el mismo en todas las instancias y después de
+     * reiniciar.
+     */
+    @PostConstruct
+    void renderBulkTemplate() throws IOException, NoSuchAlgorithmException {
+        try (Workbook workbook = generateBulkTemplate();
+                ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            workbook.write(out);
+            bulkTemplate = out.toByteArray();
+        }
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(bulkTemplate))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                // docProps/core.xml lleva la fecha de creación del libro
+                if (entry.getName().startsWith("docProps/")) {
+                    continue;
+                }
+                digest.update(entry.getName().getBytes(StandardCharsets.UTF_8));
+                digest.update(zip.readAllBytes());
+            }
+        }
+        bulkTemplateETag = "\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+    }
 
+    /**
+     * @return contenido de la plantilla de validación masiva en XLSX; el
+     *         arreglo es compartido y no debe modificarse
+     */
+    public byte[] getBulkTemplate() {
+        return bulkTemplate;
+    }
+
+    public String getBulkTemplateETag() {
+        return bulkTemplateETag;
     }
 
     /**
@@ -196,19 +643,38 @@ public class RestrictiveListService {
         return workbook;
     }
 
+    /**
+     * Lee el archivo de validación masiva con el lector de su formato.
+     */
+    private void readBulkInput(InputStream input, BulkInputFormat format, BulkRowHandler handler)
+            throws IOException {
+        if (format == BulkInputFormat.XLSX) {
+            bulkWorkbookReader.read(input, handler);
+        } else {
+            bulkTextReader.read(input, format, handler);
+        }
+    }
+
+    private void readBulkInput(Path input, BulkInputFormat format, BulkRowHandler handler) throws IOException {
+        if (format == BulkInputFormat.XLSX) {
+            bulkWorkbookReader.read(input, handler);
+        } else {
+            bulkTextReader.read(input, format, handler);
+        }
+    }
+
     /**
      * Metodo para validar que la plantilla de validación masiva tenga el número
      * correcto de columnas.
      * 
-     * @param sheet
+     * @param headers celdas de la fila de encabezados, o null si no existe
      */
-    private void validateBulkTemplateColumnCount(Sheet sheet) {
-        Row headerRow = sheet.getRow(0);
-        if (headerRow == null) {
+    private void validateBulkTemplateColumnCount(String[] headers) {
+        if (headers == null) {
             throw new IllegalArgumentException("El archivo no contiene fila de encabezados.");
         }
 
-        int actualColumns = headerRow.getLastCellNum();
+        int actualColumns = headers.length;
         int expectedColumns = BULK_TEMPLATE_COLUMNS.length;
 
         if (actualColumns != expectedColumns) {
@@ -220,156 +686,48 @@ public class RestrictiveListService {
     }
 
     /**
-     * Genera un Workbook Excel con los resultados de la validación masiva.
-     * Incluye dos hojas: Resumen con los datos principales y Detalles con todas las
-     * coincidencias.
-     * 
-     * @param results Lista de resultados de validateBulk
-     * @return Workbook Excel con los resultados
+     * Estado en memoria de un trabajo activo. Las actualizaciones se hacen bajo el
+     * monitor del trabajo y las consultas reciben una copia.
      */
-    public Workbook generateBulkReportExcel(List<BulkValidateResultDto> results) {
-        log.debug("Generando reporte Excel para {} registros", results.size());
-        Workbook workbook = new XSSFWorkbook();
-
-        // Crear estilos
-        CellStyle headerStyle = createHeaderStyle(workbook);
-
-        // Crear hoja de Resumen
-        Sheet summarySheet = workbook.createSheet("Resumen");
-        createSummarySheet(summarySheet, results, headerStyle);
-
-        // Crear hoja de Detalles
-        Sheet detailsSheet = workbook.createSheet("Detalles");
-        createDetailsSheet(detailsSheet, results, headerStyle);
-
-        return workbook;
-    }
-
-    private CellStyle createHeaderStyle(Workbook workbook) {
-        CellStyle style = workbook.createCellStyle();
-        Font font = workbook.createFont();
-        font.setBold(true);
-        font.setColor(IndexedColors.WHITE.getIndex());
-        style.setFont(font);
-        style.setFillForegroundColor(IndexedColors.BLUE.getIndex());
-        style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-        return style;
-    }
-
-    private void createSummarySheet(Sheet sheet, List<BulkValidateResultDto> results,
-            CellStyle headerStyle) {
-        CellStyle metadataLabelStyle = sheet.getWorkbook().createCellStyle();
-        Font metadataLabelFont = sheet.getWorkbook().createFont();
-        metadataLabelFont.setBold(true);
-        metadataLabelStyle.setFont(metadataLabelFont);
-
-        // Metadatos en A1:B3
-        Row processedRow = sheet.createRow(0);
-        Cell processedLabelCell = processedRow.createCell(0);
-        processedLabelCell.setCellValue("Registros Procesados");
-        processedLabelCell.setCellStyle(metadataLabelStyle);
-        processedRow.createCell(1).setCellValue(results.size());
-
-        Row reportDateRow = sheet.createRow(1);
-        Cell reportDateLabelCell = reportDateRow.createCell(0);
-        reportDateLabelCell.setCellValue("Fecha de generación del informe");
-        reportDateLabelCell.setCellStyle(metadataLabelStyle);
-        reportDateRow.createCell(1).setCellValue(LocalDateTime.now().format(REPORT_DATE_FORMAT));
-
-        Row userRow = sheet.createRow(2);
-        Cell userLabelCell = userRow.createCell(0);
-        userLabelCell.setCellValue("Usuario generador");
-        userLabelCell.setCellStyle(metadataLabelStyle);
-        userRow.createCell(1).setCellValue(utils.getCurrentUsername());
-
-        // Headers
-        Row headerRow = sheet.createRow(4);
-        String[] headers = { "Número Documento", "Nombre Completo", "Coincidencias" };
-        for (int i = 0; i < headers.length; i++) {
-            Cell cell = headerRow.createCell(i);
-            cell.setCellValue(headers[i]);
-            cell.setCellStyle(headerStyle);
-            sheet.setColumnWidth(i, 5000);
-        }
-
-        // Datos
-        int rowNum = 5;
-        for (BulkValidateResultDto result : results) {
-            Row row = sheet.createRow(rowNum++);
-
-            Cell docCell = row.createCell(0);
-            docCell.setCellValue(result.getQueryDocumentNumber());
-
-            Cell nameCell = row.createCell(1);
-            nameCell.setCellValue(result.getQueryFullName());
-
-            Cell matchCell = row.createCell(2);
-            matchCell.setCellValue(result.getMatchCount());
-        }
-
-        // Autoajustar ancho de columnas
-        for (int i = 0; i < headers.length; i++) {
-            sheet.autoSizeColumn(i);
-        }
-    }
-
-    private void createDetailsSheet(Sheet sheet, List<BulkValidateResultDto> results,
-            CellStyle headerStyle) {
-        // Headers
-        Row headerRow = sheet.createRow(0);
-        String[] headers = { "Documento Consultado", "Nombre Consultado", "Código Lista",
-                "Nombre (Lista)", "Tipo", "Identificación (Lista)", "Comentarios" };
-        for (int i = 0; i < headers.length; i++) {
-            Cell cell = headerRow.createCell(i);
-            cell.setCellValue(headers[i]);
-            cell.setCellStyle(headerStyle);
-            sheet.setColumnWidth(i, 5000);
+    private static final class BulkJob {
+        private final String jobId;
+        private final BulkJobStatusDto status;
+        private volatile boolean cancelled;
+        private volatile Future<?> future;
+        private long resumedRows;
+        private long startedNanos;
+
+        private BulkJob(BulkJobStatusDto status) {
+            this.jobId = status.getJobId();
+            this.status = status;
         }
 
-        // Datos
-        int rowNum = 1;
-        for (BulkValidateResultDto result : results) {
-            for (RestrictiveListEntry match : result.getMatches()) {
-                Row row = sheet.createRow(rowNum++);
-
-                int colNum = 0;
-
-                row.createCell(colNum++).setCellValue(result.getQueryDocumentNumber());
-                row.createCell(colNum++).setCellValue(result.getQueryFullName());
-                row.createCell(colNum++)
-                        .setCellValue(match.getCodigoLista() != null ? match.getCodigoLista().toString() : "");
-                row.createCell(colNum++).setCellValue(match.getNombre() != null ? match.getNombre() : "");
-                row.createCell(colNum++).setCellValue(match.getTipo() != null ? match.getTipo() : "");
-                row.createCell(colNum++)
-                        .setCellValue(match.getIdentificacion() != null ? match.getIdentificacion() : "");
-                row.createCell(colNum++).setCellValue(match.getComentarios() != null ? match.getComentarios() : "");
+        private synchronized void update(Consumer<BulkJobStatusDto> change) {
+            BulkJobState before = status.getState();
+            change.accept(status);
+            if (before != BulkJobState.RUNNING && status.getState() == BulkJobState.RUNNING) {
+                startedNanos = System.nanoTime();
             }
         }
 
-        // Autoajustar ancho de columnas
-        for (int i = 0; i < headers.length; i++) {
-            sheet.autoSizeColumn(i);
+        private synchronized void finish(BulkJobState state, String error) {
+            status.setState(state);
+            status.setError(error);
+            status.setFinishedAt(LocalDateTime.now());
+            status.setEtaSeconds(null);
         }
-    }
 
-    private String getCellString(Row row, BulkTemplateColumn column) {
-        return getCellString(row, column.index());
-    }
-
-    private String getCellString(Row row, int col) {
-        Cell cell = row.getCell(col);
-        if (cell == null)
-            return "";
-        return switch (cell.getCellType()) {
-            case STRING -> cell.getStringCellValue().trim();
-            case NUMERIC -> {
-                double val = cell.getNumericCellValue();
-                if (val == Math.floor(val)) {
-                    yield String.valueOf((long) val);
+        private synchronized BulkJobStatusDto snapshot() {
+            BulkJobStatusDto copy = status.toBuilder().build();
+            if (status.getState() == BulkJobState.RUNNING && status.getRowsTotal() != null) {
+                long processedNow = status.getRowsDone() - resumedRows;
+                long remaining = status.getRowsTotal() - status.getRowsDone();
+                if (processedNow > 0) {
+                    long elapsed = System.nanoTime() - startedNanos;
+                    copy.setEtaSeconds(TimeUnit.NANOSECONDS.toSeconds(elapsed / processedNow * remaining));
                 }
-                yield String.valueOf(val);
             }
-            default -> "";
-        };
+            return copy;
+        }
     }
 }
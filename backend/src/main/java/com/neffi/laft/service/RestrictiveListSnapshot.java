@@ -0,0 +1,515 @@
+package com.neffi.laft.service;
+
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+import com.neffi.laft.dto.RestrictiveListEntry;
+
+/**
+ * Copia inmutable de las listas restrictivas, guardada por columnas en arreglos
+ * de primitivos. Las columnas de texto con pocos valores distintos (nombre de
+ * la lista, tipo, usuario, comentarios...) se guardan como índices a un
+ * diccionario.
+ * <p>
+ * Tiene tres índices: uno por hash sobre {@code IDENTIFICACION}, uno por hash
+ * sobre la clave estable de la fila ({@code CODIGO_LISTA} y {@code ENT_NUM}),
+ * que usan los cambios incrementales, y uno de tokens sobre {@code SDN_NAME}
+ * con las filas de cada token ordenadas, para intersectarlas por búsqueda
+ * binaria.
+ * La búsqueda aproximada de nombres usa un {@link FuzzyNameMatcher} que se
+ * construye solo si se pide.
+ */
+final class RestrictiveListSnapshot {
+
+    static final RestrictiveListSnapshot EMPTY = new Builder(false).build();
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private static final int NOMBRE = 0;
+    private static final int TIPO = 1;
+    private static final int PERMITE_IDENTIFICACION = 2;
+    private static final int PERMITE_HOMONIMIA = 3;
+    private static final int TIPO_DOCUMENTO = 4;
+    private static final int USUARIO = 5;
+    private static final int COMENTARIOS = 6;
+    private static final int COMENTARIOS2 = 7;
+    private static final int TIPO_LISTA = 8;
+    private static final int DESCRI_TIPO_LISTA = 9;
+    private static final int DICTIONARY_COLUMNS = 10;
+
+    private final int size;
+    private final long[] codigoLista;
+    private final long[] prioridadValidacion;
+    private final long[] entNum;
+    /** Segundos UTC de FECHA_ACTUALIZACION; {@link Long#MIN_VALUE} si es nula. */
+    private final long[] fechaSeconds;
+    private final int[] fechaNanos;
+    private final String[] identificacion;
+    private final String[] sdnName;
+    /** Índice al diccionario de cada columna; -1 si el valor es nulo. */
+    private final int[][] codes;
+    private final String[][] dictionaries;
+
+    /** Índice por identificación: primera fila de cada cubeta y siguiente fila de la misma cubeta. */
+    private final int[] idBuckets;
+    private final int[] idNext;
+    private final int[] idHashes;
+
+    /** Índice por lista y entidad, con la misma forma que el de identificación. */
+    private final int[] entityBuckets;
+    private final int[] entityNext;
+
+    /** Índice de tokens: tokens ordenados y, por token, sus filas en {@code postings}. */
+    private final String[] tokens;
+    private final int[] tokenOffsets;
+    private final int[] postings;
+
+    private final LocalDateTime version;
+
+    /** Índice de nombres aproximados; se construye la primera vez que se usa. */
+    private volatile FuzzyNameMatcher nameMatcher;
+
+    private RestrictiveListSnapshot(Builder builder) {
+        size = builder.size;
+        codigoLista = Arrays.copyOf(builder.codigoLista, size);
+        prioridadValidacion = Arrays.copyOf(builder.prioridadValidacion, size);
+        entNum = Arrays.copyOf(builder.entNum, size);
+        fechaSeconds = Arrays.copyOf(builder.fechaSeconds, size);
+        fechaNanos = Arrays.copyOf(builder.fechaNanos, size);
+        identificacion = Arrays.copyOf(builder.identificacion, size);
+        sdnName = Arrays.copyOf(builder.sdnName, size);
+        codes = new int[DICTIONARY_COLUMNS][];
+        dictionaries = new String[DICTIONARY_COLUMNS][];
+        for (int c = 0; c < DICTIONARY_COLUMNS; c++) {
+            codes[c] = Arrays.copyOf(builder.codes[c], size);
+            dictionaries[c] = builder.dictionaries.get(c).toArray(new String[0]);
+        }
+
+        int buckets = Integer.highestOneBit(Math.max(2 * size, 16) - 1) << 1;
+        idBuckets = new int[buckets];
+        Arrays.fill(idBuckets, -1);
+        idNext = new int[size];
+        idHashes = new int[size];
+        // Se inserta en orden inverso para que cada cubeta quede en orden de fila
+        for (int row = size - 1; row >= 0; row--) {
+            String id = normalizeId(identificacion[row]);
+            if (id.isEmpty()) {
+                idNext[row] = -1;
+                continue;
+            }
+            int hash = id.hashCode();
+            int bucket = hash & (buckets - 1);
+            idHashes[row] = hash;
+            idNext[row] = idBuckets[bucket];
+            idBuckets[bucket] = row;
+        }
+
+        entityBuckets = new int[buckets];
+        Arrays.fill(entityBuckets, -1);
+        entityNext = new int[size];
+        for (int row = size - 1; row >= 0; row--) {
+            if (entNum[row] == 0) {
+                entityNext[row] = -1;
+                continue;
+            }
+            int bucket = entityHash(codigoLista[row], entNum[row]) & (buckets - 1);
+            entityNext[row] = entityBuckets[bucket];
+            entityBuckets[bucket] = row;
+        }
+
+        String[][] rowTokens = new String[size][];
+        Map<String, Integer> counts = new HashMap<>();
+        for (int row = 0; row < size; row++) {
+            rowTokens[row] = tokenize(sdnName[row]).toArray(new String[0]);
+            for (String token : rowTokens[row]) {
+                counts.merge(token, 1, Integer::sum);
+            }
+        }
+
+        // Por token: posición de escritura en postings y número de filas
+        TreeMap<String, int[]> slots = new TreeMap<>();
+        counts.forEach((token, count) -> slots.put(token, new int[] { 0, count }));
+        tokens = slots.keySet().toArray(new String[0]);
+        tokenOffsets = new int[tokens.length + 1];
+        int offset = 0;
+        int index = 0;
+        for (int[] slot : slots.values()) {
+            tokenOffsets[index++] = offset;
+            slot[0] = offset;
+            offset += slot[1];
+        }
+        tokenOffsets[tokens.length] = offset;
+        postings = new int[offset];
+        for (int row = 0; row < size; row++) {
+            for (String token : rowTokens[row]) {
+                postings[slots.get(token)[0]++] = row;
+            }
+        }
+
+        version = builder.version;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int tokenCount() {
+        return tokens.length;
+    }
+
+    /** Fecha de actualización más reciente de las filas; null si no hay filas con fecha. */
+    LocalDateTime version() {
+        return version;
+    }
+
+    /**
+     * Filas con la misma identidad que la entrada, buscadas con los índices: la
+     * misma lista y entidad ({@code ENT_NUM}), aunque hayan cambiado la
+     * identificación o el nombre. Sin entidad, la identidad es la lista, la
+     * identificación y el nombre.
+     */
+    List<Integer> findRows(RestrictiveListEntry entry) {
+        List<Integer> rows = new ArrayList<>();
+        long lista = Builder.value(entry.getCodigoLista());
+        long entidad = Builder.value(entry.getEntNum());
+        if (entidad != 0) {
+            if (size == 0) {
+                return rows;
+            }
+            int bucket = entityHash(lista, entidad) & (entityBuckets.length - 1);
+            for (int row = entityBuckets[bucket]; row >= 0; row = entityNext[row]) {
+                if (codigoLista[row] == lista && entNum[row] == entidad) {
+                    rows.add(row);
+                }
+            }
+            return rows;
+        }
+        List<Integer> candidates = entry.getIdentificacion() != null && !normalizeId(entry.getIdentificacion()).isEmpty()
+                ? findByIdentificacion(entry.getIdentificacion())
+                : findByName(entry.getSdnName(), Integer.MAX_VALUE);
+        for (int row : candidates) {
+            if (codigoLista[row] == lista && entNum[row] == entidad
+                    && Objects.equals(identificacion[row], entry.getIdentificacion())
+                    && Objects.equals(sdnName[row], entry.getSdnName())) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Filas cuya identificación coincide, sin distinguir puntos, guiones,
+     * espacios ni mayúsculas.
+     */
+    List<Integer> findByIdentificacion(String value) {
+        List<Integer> rows = new ArrayList<>();
+        String id = normalizeId(value);
+        if (id.isEmpty() || size == 0) {
+            return rows;
+        }
+        int hash = id.hashCode();
+        for (int row = idBuckets[hash & (idBuckets.length - 1)]; row >= 0; row = idNext[row]) {
+            if (idHashes[row] == hash && id.equals(normalizeId(identificacion[row]))) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Filas cuyo {@code SDN_NAME} contiene todos los tokens del nombre
+     * consultado, hasta {@code limit} filas.
+     */
+    List<Integer> findByName(String name, int limit) {
+        List<Integer> rows = new ArrayList<>();
+        Set<String> queryTokens = tokenize(name);
+        if (queryTokens.isEmpty()) {
+            return rows;
+        }
+
+        int[] starts = new int[queryTokens.size()];
+        int[] ends = new int[queryTokens.size()];
+        int shortest = 0;
+        int i = 0;
+        for (String token : queryTokens) {
+            int t = Arrays.binarySearch(tokens, token);
+            if (t < 0) {
+                return rows;
+            }
+            starts[i] = tokenOffsets[t];
+            ends[i] = tokenOffsets[t + 1];
+            if (ends[i] - starts[i] < ends[shortest] - starts[shortest]) {
+                shortest = i;
+            }
+            i++;
+        }
+
+        for (int p = starts[shortest]; p < ends[shortest] && rows.size() < limit; p++) {
+            int row = postings[p];
+            boolean all = true;
+            for (int other = 0; other < starts.length && all; other++) {
+                all = other == shortest || Arrays.binarySearch(postings, starts[other], ends[other], row) >= 0;
+            }
+            if (all) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Índice de búsqueda aproximada sobre {@code SDN_NAME}; la posición de cada
+     * coincidencia es la fila.
+     */
+    FuzzyNameMatcher nameMatcher() {
+        FuzzyNameMatcher matcher = nameMatcher;
+        if (matcher == null) {
+            synchronized (this) {
+                matcher = nameMatcher;
+                if (matcher == null) {
+                    matcher = new FuzzyNameMatcher(sdnName);
+                    nameMatcher = matcher;
+                }
+            }
+        }
+        return matcher;
+    }
+
+    /**
+     * Crea la entrada de una fila con los mismos campos que retorna
+     * BUT_VALIDAR_LISTAS.
+     */
+    RestrictiveListEntry entry(int row) {
+        return RestrictiveListEntry.builder()
+                .codigoLista(codigoLista[row])
+                .nombre(value(NOMBRE, row))
+                .tipo(value(TIPO, row))
+                .prioridadValidacion(prioridadValidacion[row])
+                .permiteIdentificacion(value(PERMITE_IDENTIFICACION, row))
+                .permiteHomonimia(value(PERMITE_HOMONIMIA, row))
+                .tipoDocumento(value(TIPO_DOCUMENTO, row))
+                .identificacion(identificacion[row])
+                .sdnName(sdnName[row])
+                .usuario(value(USUARIO, row))
+                .fechaActualizacion(fechaSeconds[row] == Long.MIN_VALUE
+                        ? null
+                        : LocalDateTime.ofEpochSecond(fechaSeconds[row], fechaNanos[row], ZoneOffset.UTC))
+                .comentarios(value(COMENTARIOS, row))
+                .comentarios2(value(COMENTARIOS2, row))
+                .entNum(entNum[row])
+                .tipoLista(value(TIPO_LISTA, row))
+                .descriTipoLista(value(DESCRI_TIPO_LISTA, row))
+                .build();
+    }
+
+    private String value(int column, int row) {
+        int code = codes[column][row];
+        return code < 0 ? null : dictionaries[column][code];
+    }
+
+    /**
+     * Identidad de una fila para aplicar cambios incrementales: una fila
+     * modificada reemplaza a la que tiene la misma lista y entidad, o sin
+     * entidad, la misma lista, identificación y nombre.
+     */
+    private String key(int row) {
+        return key(codigoLista[row], entNum[row], identificacion[row], sdnName[row]);
+    }
+
+    private static String key(long codigoLista, long entNum, String identificacion, String sdnName) {
+        if (entNum != 0) {
+            return codigoLista + "\u0001" + entNum;
+        }
+        return codigoLista + "\u0001\u0001" + identificacion + "\u0001" + sdnName;
+    }
+
+    private static int entityHash(long codigoLista, long entNum) {
+        return Long.hashCode(codigoLista * 31 + entNum);
+    }
+
+    static String normalizeId(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(Character.toUpperCase(c));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Tokens de un nombre: en mayúsculas, sin tildes y separados por cualquier
+     * carácter que no sea letra o dígito.
+     */
+    static Set<String> tokenize(String value) {
+        Set<String> result = new HashSet<>();
+        if (value == null || value.isBlank()) {
+            return result;
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("")
+                .toUpperCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean letter = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                result.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Construye una copia nueva a partir de filas leídas de la base de datos y,
+     * en una sincronización incremental, de las filas de la copia anterior que
+     * no cambiaron.
+     */
+    static final class Builder {
+
+        private int size;
+        private long[] codigoLista = new long[16];
+        private long[] prioridadValidacion = new long[16];
+        private long[] entNum = new long[16];
+        private long[] fechaSeconds = new long[16];
+        private int[] fechaNanos = new int[16];
+        private String[] identificacion = new String[16];
+        private String[] sdnName = new String[16];
+        private final int[][] codes = new int[DICTIONARY_COLUMNS][16];
+        private final List<List<String>> dictionaries = new ArrayList<>();
+        private final List<Map<String, Integer>> dictionaryCodes = new ArrayList<>();
+        /** Identidades de las filas agregadas; solo en sincronizaciones incrementales. */
+        private final Set<String> keys;
+        private LocalDateTime version;
+
+        /**
+         * @param incremental si es true se lleva la identidad de las filas
+         *                    agregadas, para omitir después las filas
+         *                    reemplazadas de la copia anterior
+         */
+        Builder(boolean incremental) {
+            keys = incremental ? new HashSet<>() : null;
+            for (int c = 0; c < DICTIONARY_COLUMNS; c++) {
+                dictionaries.add(new ArrayList<>());
+                dictionaryCodes.add(new HashMap<>());
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * Agrega una fila. En una sincronización incremental, si ya se agregó
+         * una fila con la misma identidad la nueva se omite.
+         */
+        void add(RestrictiveListEntry entry) {
+            if (keys != null && !keys.add(key(value(entry.getCodigoLista()), value(entry.getEntNum()),
+                    entry.getIdentificacion(), entry.getSdnName()))) {
+                return;
+            }
+            append(entry);
+        }
+
+        /**
+         * Agrega las filas de una copia anterior que no fueron reemplazadas por
+         * las filas ya agregadas.
+         */
+        void addUnchanged(RestrictiveListSnapshot previous) {
+            for (int row = 0; row < previous.size; row++) {
+                if (keys == null || !keys.contains(previous.key(row))) {
+                    append(previous.entry(row));
+                }
+            }
+        }
+
+        /**
+         * Agrega las filas de una copia, salvo las marcadas en {@code excluded}.
+         */
+        void addAll(RestrictiveListSnapshot source, BitSet excluded) {
+            for (int row = excluded.nextClearBit(0); row < source.size; row = excluded.nextClearBit(row + 1)) {
+                append(source.entry(row));
+            }
+        }
+
+        private void append(RestrictiveListEntry entry) {
+            int row = nextRow();
+            codigoLista[row] = value(entry.getCodigoLista());
+            prioridadValidacion[row] = value(entry.getPrioridadValidacion());
+            entNum[row] = value(entry.getEntNum());
+            LocalDateTime fecha = entry.getFechaActualizacion();
+            fechaSeconds[row] = fecha != null ? fecha.toEpochSecond(ZoneOffset.UTC) : Long.MIN_VALUE;
+            fechaNanos[row] = fecha != null ? fecha.getNano() : 0;
+            identificacion[row] = entry.getIdentificacion();
+            sdnName[row] = entry.getSdnName();
+            encode(NOMBRE, row, entry.getNombre());
+            encode(TIPO, row, entry.getTipo());
+            encode(PERMITE_IDENTIFICACION, row, entry.getPermiteIdentificacion());
+            encode(PERMITE_HOMONIMIA, row, entry.getPermiteHomonimia());
+            encode(TIPO_DOCUMENTO, row, entry.getTipoDocumento());
+            encode(USUARIO, row, entry.getUsuario());
+            encode(COMENTARIOS, row, entry.getComentarios());
+            encode(COMENTARIOS2, row, entry.getComentarios2());
+            encode(TIPO_LISTA, row, entry.getTipoLista());
+            encode(DESCRI_TIPO_LISTA, row, entry.getDescriTipoLista());
+            if (fecha != null && (version == null || fecha.isAfter(version))) {
+                version = fecha;
+            }
+        }
+
+        RestrictiveListSnapshot build() {
+            return new RestrictiveListSnapshot(this);
+        }
+
+        private int nextRow() {
+            if (size == codigoLista.length) {
+                int capacity = size * 2;
+                codigoLista = Arrays.copyOf(codigoLista, capacity);
+                prioridadValidacion = Arrays.copyOf(prioridadValidacion, capacity);
+                entNum = Arrays.copyOf(entNum, capacity);
+                fechaSeconds = Arrays.copyOf(fechaSeconds, capacity);
+                fechaNanos = Arrays.copyOf(fechaNanos, capacity);
+                identificacion = Arrays.copyOf(identificacion, capacity);
+                sdnName = Arrays.copyOf(sdnName, capacity);
+                for (int c = 0; c < DICTIONARY_COLUMNS; c++) {
+                    codes[c] = Arrays.copyOf(codes[c], capacity);
+                }
+            }
+            return size++;
+        }
+
+        private void encode(int column, int row, String value) {
+            if (value == null) {
+                codes[column][row] = -1;
+                return;
+            }
+            List<String> dictionary = dictionaries.get(column);
+            codes[column][row] = dictionaryCodes.get(column).computeIfAbsent(value, v -> {
+                dictionary.add(v);
+                return dictionary.size() - 1;
+            });
+        }
+
+        private static long value(Long value) {
+            return value != null ? value : 0L;
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.neffi.laft.service;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.neffi.laft.config.BulkExecutorConfig;
+import com.neffi.laft.exception.AdmissionRejectedException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Control de admisión de las consultas a BUT_VALIDAR_LISTAS, con un carril para
+ * las validaciones individuales y otro para las masivas:
+ * <ul>
+ * <li>interactivo: como máximo {@code app.admission.interactive.max-concurrent}
+ * validaciones a la vez; las demás esperan en orden de llegada hasta
+ * {@code app.admission.interactive.max-wait} y luego se rechazan;</li>
+ * <li>masivo: los lotes de todas las validaciones masivas, síncronas y
+ * asíncronas, se encolan por usuario y se despachan por turnos, uno por
+ * usuario, al pool {@code bulkScreeningExecutor}. Nunca hay más lotes en
+ * ejecución que el paralelismo masivo, que deja libres
+ * {@code app.bulk.reserved-connections} conexiones del pool para el carril
+ * interactivo.</li>
+ * </ul>
+ * Además, como cada carga masiva síncrona ocupa un hilo de Tomcat mientras
+ * dura, solo se admiten {@code app.admission.bulk.max-concurrent-requests} a la
+ * vez.
+ * <p>
+ * Métricas por carril ({@code lane=interactive|bulk}):
+ * {@code laft.admission.queue.depth}, {@code laft.admission.active},
+ * {@code laft.admission.wait} y {@code laft.admission.rejected}.
+ */
+@Slf4j
+@Component
+public class ScreeningAdmission {
+
+    private static final String INTERACTIVE = "interactive";
+
+    private static final String BULK = "bulk";
+
+    private final ExecutorService bulkExecutor;
+
+    private final int bulkParallelism;
+
+    private final Semaphore interactivePermits;
+
+    private final int interactiveMaxConcurrent;
+
+    private final Duration interactiveMaxWait;
+
+    private final Semaphore bulkRequests;
+
+    /** Lotes pendientes de cada usuario; protegido por {@code this}. */
+    private final Map<String, ArrayDeque<BulkTask<?>>> bulkQueues = new HashMap<>();
+
+    /** Usuarios con lotes pendientes, en orden de turno; protegido por {@code this}. */
+    private final ArrayDeque<String> bulkTurns = new ArrayDeque<>();
+
+    private int bulkQueued;
+
+    private int bulkRunning;
+
+    private final Timer interactiveWait;
+
+    private final Timer bulkWait;
+
+    private final Counter interactiveRejected;
+
+    private final Counter bulkRejected;
+
+    public ScreeningAdmission(
+            @Qualifier(BulkExecutorConfig.BULK_SCREENING_EXECUTOR) ExecutorService bulkExecutor,
+            @Qualifier(BulkExecutorConfig.BULK_SCREENING_PARALLELISM) Integer bulkParallelism,
+            @Value("${app.admission.interactive.max-concurrent:10}") int interactiveMaxConcurrent,
+            @Value("${app.admission.interactive.max-wait:PT2S}") Duration interactiveMaxWait,
+            @Value("${app.admission.bulk.max-concurrent-requests:2}") int bulkMaxConcurrentRequests,
+            MeterRegistry meterRegistry) {
+        this.bulkExecutor = bulkExecutor;
+        this.bulkParallelism = bulkParallelism;
+        this.interactiveMaxConcurrent = Math.max(1, interactiveMaxConcurrent);
+        this.interactivePermits = new Semaphore(this.interactiveMaxConcurrent, true);
+        this.interactiveMaxWait = interactiveMaxWait;
+        this.bulkRequests = new Semaphore(Math.max(1, bulkMaxConcurrentRequests));
+
+        Gauge.builder("laft.admission.queue.depth", interactivePermits, Semaphore::getQueueLength)
+                .description("Consultas esperando turno en el carril")
+                .tag("lane", INTERACTIVE)
+                .register(meterRegistry);
+        Gauge.builder("laft.admission.queue.depth", this, ScreeningAdmission::bulkQueued)
+                .description("Consultas esperando turno en el carril")
+                .tag("lane", BULK)
+                .register(meterRegistry);
+        Gauge.builder("laft.admission.active", this, admission -> admission.interactiveMaxConcurrent
+                - admission.interactivePermits.availablePermits())
+                .description("Consultas en ejecución en el carril")
+                .tag("lane", INTERACTIVE)
+                .register(meterRegistry);
+        Gauge.builder("laft.admission.active", this, ScreeningAdmission::bulkRunning)
+                .description("Consultas en ejecución en el carril")
+                .tag("lane", BULK)
+                .register(meterRegistry);
+        this.interactiveWait = Timer.builder("laft.admission.wait")
+                .description("Tiempo de espera antes de ejecutar una consulta")
+                .tag("lane", INTERACTIVE)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.bulkWait = Timer.builder("laft.admission.wait")
+                .description("Tiempo de espera antes de ejecutar una consulta")
+                .tag("lane", BULK)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.interactiveRejected = Counter.builder("laft.admission.rejected")
+                .description("Consultas rechazadas por falta de capacidad")
+                .tag("lane", INTERACTIVE)
+                .register(meterRegistry);
+        this.bulkRejected = Counter.builder("laft.admission.rejected")
+                .description("Consultas rechazadas por falta de capacidad")
+                .tag("lane", BULK)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Ejecuta una validación individual en el carril interactivo.
+     *
+     * @param work validación a ejecutar
+     * @return resultado de la validación
+     * @throws AdmissionRejectedException si no hubo capacidad dentro del tiempo
+     *                                     de espera máximo
+     */
+    public <T> T interactive(Supplier<T> work) {
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = interactivePermits.tryAcquire(interactiveMaxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Validación interrumpida mientras esperaba turno");
+        }
+        interactiveWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (!acquired) {
+            interactiveRejected.increment();
+            log.warn("Validación rechazada: {} validaciones en curso y {} en espera",
+                    interactiveMaxConcurrent, interactivePermits.getQueueLength());
+            throw new AdmissionRejectedException("El servicio de validación está ocupado. Intente más tarde.");
+        }
+        try {
+            return work.get();
+        } finally {
+            interactivePermits.release();
+        }
+    }
+
+    /**
+     * Reserva un cupo para una validación masiva síncrona. Debe liberarse con
+     * {@link #releaseBulkRequest()}.
+     *
+     * @throws AdmissionRejectedException si ya hay demasiadas validaciones
+     *                                     masivas síncronas en curso
+     */
+    public void acquireBulkRequest() {
+        if (!bulkRequests.tryAcquire()) {
+            bulkRejected.increment();
+            throw new AdmissionRejectedException(
+                    "Hay demasiadas validaciones masivas en curso. Intente más tarde o use un trabajo asíncrono.");
+        }
+    }
+
+    public void releaseBulkRequest() {
+        bulkRequests.release();
+    }
+
+    /**
+     * Encola un lote de una validación masiva en el turno del usuario indicado.
+     *
+     * @param usuario usuario dueño de la validación masiva
+     * @param task    lote a ejecutar
+     * @return resultado futuro del lote; cancelarlo antes de su turno lo retira
+     *         de la ejecución
+     */
+    public <T> Future<T> submitBulk(String usuario, Callable<T> task) {
+        BulkTask<T> bulkTask = new BulkTask<>(task);
+        synchronized (this) {
+            String key = usuario != null ? usuario : "";
+            ArrayDeque<BulkTask<?>> queue = bulkQueues.get(key);
+            if (queue == null) {
+                queue = new ArrayDeque<>();
+                bulkQueues.put(key, queue);
+                bulkTurns.addLast(key);
+            }
+            queue.addLast(bulkTask);
+            bulkQueued++;
+        }
+        dispatchBulk();
+        return bulkTask;
+    }
+
+    synchronized int bulkQueued() {
+        return bulkQueued;
+    }
+
+    synchronized int bulkRunning() {
+        return bulkRunning;
+    }
+
+    /**
+     * Despacha lotes mientras haya cupo, tomando el siguiente lote del usuario
+     * de turno y pasando el turno al siguiente usuario.
+     */
+    private void dispatchBulk() {
+        while (true) {
+            BulkTask<?> next;
+            synchronized (this) {
+                if (bulkRunning >= bulkParallelism || bulkTurns.isEmpty()) {
+                    return;
+                }
+                String key = bulkTurns.pollFirst();
+                ArrayDeque<BulkTask<?>> queue = bulkQueues.get(key);
+                next = queue.pollFirst();
+                if (queue.isEmpty()) {
+                    bulkQueues.remove(key);
+                } else {
+                    bulkTurns.addLast(key);
+                }
+                bulkQueued--;
+                bulkRunning++;
+            }
+            try {
+                bulkExecutor.execute(next);
+            } catch (RejectedExecutionException e) {
+                next.reject(e);
+                synchronized (this) {
+                    bulkRunning--;
+                }
+            }
+        }
+    }
+
+    private void bulkTaskDone() {
+        synchronized (this) {
+            bulkRunning--;
+        }
+        dispatchBulk();
+    }
+
+    private final class BulkTask<T> extends FutureTask<T> {
+
+        private final long queuedAt = System.nanoTime();
+
+        private BulkTask(Callable<T> callable) {
+            super(callable);
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (!isDone()) {
+                    bulkWait.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                    super.run();
+                }
+            } finally {
+                bulkTaskDone();
+            }
+        }
+
+        private void reject(RejectedExecutionException e) {
+            setException(e);
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.neffi.laft.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.neffi.laft.dto.ButValidarListasParams;
+import com.neffi.laft.dto.RestrictiveListEntry;
+import com.neffi.laft.repository.RestrictiveListRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Caché de resultados de BUT_VALIDAR_LISTAS. Las entradas expiran por tiempo y
+ * por tamaño, y la caché completa se invalida cuando cambia la versión de las
+ * listas (la fecha de actualización más reciente).
+ * <p>
+ * Un acierto en la caché no omite la auditoría: la consulta se registra de
+ * forma asíncrona con {@link RestrictiveListRepository#registrarAuditoria},
+ * que ejecuta la sentencia liviana {@code app.restrictiveList.cache.audit-sql};
+ * sin esa sentencia la caché no se puede habilitar. Una auditoría fallida se
+ * reintenta hasta registrarse. Si la cola de auditorías está llena, el acierto
+ * se trata como un fallo y la consulta va a la base de datos, que registra su
+ * propia auditoría.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ScreeningResultCache {
+
+    private final RestrictiveListRepository restrictiveListRepository;
+
+    @Value("${app.restrictiveList.cache.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.restrictiveList.cache.max-entries:10000}")
+    private long maxEntries;
+
+    @Value("${app.restrictiveList.cache.ttl:PT10M}")
+    private Duration ttl;
+
+    @Value("${app.restrictiveList.cache.audit-sql:}")
+    private String auditSql;
+
+    @Value("${app.restrictiveList.cache.audit-queue-capacity:10000}")
+    private int auditQueueCapacity;
+
+    @Value("${app.restrictiveList.cache.audit-max-backoff:PT30S}")
+    private Duration auditMaxBackoff;
+
+    private Cache<Key, List<RestrictiveListEntry>> cache;
+
+    private ThreadPoolExecutor auditExecutor;
+
+    private volatile LocalDateTime listsVersion;
+
+    @PostConstruct
+    void init() {
+        if (enabled && !isAuditAvailable()) {
+            throw new IllegalStateException("app.restrictiveList.cache.enabled requiere "
+                    + "app.restrictiveList.cache.audit-sql: sin una auditoría liviana un acierto cuesta lo "
+                    + "mismo que llamar BUT_VALIDAR_LISTAS");
+        }
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        AtomicInteger counter = new AtomicInteger();
+        // Si la cola se llena la auditoría se rechaza y quien la pidió consulta la base de datos
+        auditExecutor = new ThreadPoolExecutor(2, 2, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(auditQueueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "screening-audit-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        // Se espera a que terminen las auditorías pendientes
+        auditExecutor.shutdown();
+        if (!auditExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+            // Interrumpe los reintentos en curso, que registran cada auditoría perdida
+            int pending = auditExecutor.shutdownNow().size();
+            log.error("Quedaron {} auditorías de caché sin registrar", pending);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Indica si se puede auditar una consulta sin llamar la función, es decir, si
+     * se configuró {@code app.restrictiveList.cache.audit-sql}.
+     */
+    public boolean isAuditAvailable() {
+        return auditSql != null && !auditSql.isBlank();
+    }
+
+    /**
+     * Busca el resultado de una consulta. Si hay acierto, registra la auditoría de
+     * forma asíncrona y retorna una copia de las coincidencias.
+     *
+     * @param params parámetros de la consulta, incluido el usuario auditado
+     * @return coincidencias en caché, o {@code null} si no hay acierto o la cola
+     *         de auditorías está llena
+     */
+    public List<RestrictiveListEntry> get(ButValidarListasParams params) {
+        if (!enabled) {
+            return null;
+        }
+        List<RestrictiveListEntry> cached = cache.getIfPresent(Key.of(params));
+        if (cached == null) {
+            return null;
+        }
+        return audit(params) ? copy(cached) : null;
+    }
+
+    /**
+     * Registra de forma asíncrona la auditoría de una consulta resuelta sin ir a
+     * la base de datos, por ejemplo una fila repetida de una validación masiva.
+     *
+     * @param params parámetros de la consulta, incluido el usuario auditado
+     * @return false si no hay auditoría liviana o la cola está llena; en ese caso
+     *         la consulta debe ir a la base de datos
+     */
+    public boolean audit(ButValidarListasParams params) {
+        if (!isAuditAvailable()) {
+            return false;
+        }
+        try {
+            auditExecutor.execute(() -> auditWithRetry(params));
+            return true;
+        } catch (RejectedExecutionException e) {
+            log.warn("Cola de auditorías llena ({}); la consulta se envía a la base de datos", auditQueueCapacity);
+            return false;
+        }
+    }
+
+    /**
+     * Registra una auditoría reintentando con espera exponencial hasta
+     * {@code app.restrictiveList.cache.audit-max-backoff} mientras falle.
+     */
+    private void auditWithRetry(ButValidarListasParams params) {
+        long backoff = 500;
+        for (int attempt = 1;; attempt++) {
+            try {
+                restrictiveListRepository.registrarAuditoria(params);
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Intento {} de auditoría fallido - Documento: {}; se reintenta en {} ms",
+                        attempt, params.getIdentificacion(), backoff, e);
+            }
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.error("Auditoría no registrada por apagado - Documento: {}, Usuario: {}",
+                        params.getIdentificacion(), params.getUsuario());
+                return;
+            }
+            backoff = Math.min(backoff * 2, auditMaxBackoff.toMillis());
+        }
+    }
+
+    public void put(ButValidarListasParams params, List<RestrictiveListEntry> results) {
+        if (enabled) {
+            cache.put(Key.of(params), copy(results));
+        }
+    }
+
+    /**
+     * Verifica periódicamente la versión de las listas e invalida la caché si
+     * cambió. Si la versión no se puede consultar, la caché también se invalida.
+     */
+    @Scheduled(initialDelayString = "${app.restrictiveList.cache.version-check-interval:PT1M}",
+            fixedDelayString = "${app.restrictiveList.cache.version-check-interval:PT1M}")
+    public void checkListsVersion() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            LocalDateTime current = restrictiveListRepository.findListsVersion();
+            if (!Objects.equals(current, listsVersion)) {
+                log.info("Cambió la versión de las listas restrictivas ({} -> {}); se invalida la caché",
+                        listsVersion, current);
+                listsVersion = current;
+                cache.invalidateAll();
+            }
+        } catch (RuntimeException e) {
+            log.warn("No se pudo verificar la versión de las listas; se invalida la caché", e);
+            listsVersion = null;
+            cache.invalidateAll();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadListsVersion() {
+        checkListsVersion();
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Caché subyacente, expuesta para registrar sus métricas.
+     */
+    public Cache<?, ?> nativeCache() {
+        return cache;
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    public int pendingAudits() {
+        return auditExecutor.getQueue().size();
+    }
+
+    public LocalDateTime getListsVersion() {
+        return listsVersion;
+    }
+
+    private static List<RestrictiveListEntry> copy(List<RestrictiveListEntry> entries) {
+        List<RestrictiveListEntry> copy = new ArrayList<>(entries.size());
+        for (RestrictiveListEntry entry : entries) {
+            copy.add(entry.toBuilder().build());
+        }
+        return copy;
+    }
+
+    /**
+     * Llave de la caché: identificación y partes del nombre normalizadas, y el
+     * indicador de listas informativas.
+     */
+    private record Key(String identificacion, String nombre1, String nombre2, String apellido1,
+            String apellido2, String retornaLinf) {
+
+        private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+        private static Key of(ButValidarListasParams params) {
+            return new Key(normalize(params.getIdentificacion()), normalize(params.getNombre1()),
+                    normalize(params.getNombre2()), normalize(params.getApellido1()),
+                    normalize(params.getApellido2()), normalize(params.getRetornaLinf()));
+        }
+
+        private static String normalize(String value) {
+            if (value == null) {
+                return "";
+            }
+            return WHITESPACE.matcher(value.trim()).replaceAll(" ").toUpperCase(Locale.ROOT);
+        }
+    }
+}
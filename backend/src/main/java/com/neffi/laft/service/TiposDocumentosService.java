@@ -1,9 +1,18 @@
 package com.neffi.laft.service;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.LongAdder;
 
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import com.neffi.laft.dto.TiposDocumentosDTO;
 import com.neffi.laft.model.TiposDocumentos;
@@ -15,15 +24,93 @@ import lombok.extern.slf4j.Slf4j;
 /**
  * Servicio para la gestión de tipos de documentos.
  * Proporciona métodos para consultar y manipular los datos de la tabla TIPOS_DOCUMENTOS.
+ * Las consultas se resuelven contra un catálogo en memoria que se carga al
+ * iniciar y se recarga periódicamente, sin acceder a la base de datos. Si la
+ * primera carga falla se reintenta con espera exponencial y, mientras tanto,
+ * las consultas que no están en el catálogo se buscan en la base de datos.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
-@Transactional(readOnly = true)
 public class TiposDocumentosService {
 
+    private static final Duration FIRST_RETRY = Duration.ofSeconds(5);
+
+    private static final Duration MAX_RETRY = Duration.ofMinutes(2);
+
     private final TiposDocumentosRepository tiposDocumentosRepository;
 
+    private final TaskScheduler taskScheduler;
+
+    /** Catálogo en memoria; se reemplaza completo en cada recarga. */
+    private volatile Catalog catalog = Catalog.EMPTY;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Carga el catálogo al iniciar la aplicación. Si la base de datos no está
+     * disponible la aplicación inicia igual y la carga se reintenta hasta que
+     * funcione.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        loadWithRetry(FIRST_RETRY);
+    }
+
+    private void loadWithRetry(Duration retry) {
+        if (catalog != Catalog.EMPTY) {
+            // La recarga periódica o la manual ya cargaron el catálogo
+            return;
+        }
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.error("No se pudo cargar el catálogo de tipos de documento; se reintenta en {}", retry, e);
+            Duration next = retry.multipliedBy(2).compareTo(MAX_RETRY) < 0 ? retry.multipliedBy(2) : MAX_RETRY;
+            taskScheduler.schedule(() -> loadWithRetry(next), Instant.now().plus(retry));
+        }
+    }
+
+    /**
+     * Recarga periódica del catálogo.
+     */
+    @Scheduled(initialDelayString = "${app.catalog.tipos-documentos.refresh-interval:PT15M}",
+            fixedDelayString = "${app.catalog.tipos-documentos.refresh-interval:PT15M}")
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("No se pudo recargar el catálogo de tipos de documento; se conserva la versión anterior", e);
+        }
+    }
+
+    /**
+     * Lee la tabla TIPOS_DOCUMENTOS y reemplaza atómicamente el catálogo en
+     * memoria, indexado por código y por código de homologación.
+     *
+     * @return número de tipos de documento cargados
+     */
+    public int refresh() {
+        List<TiposDocumentos> entities = tiposDocumentosRepository.findAll();
+        Map<Long, TiposDocumentosDTO> byCodigo = new HashMap<>();
+        Map<String, TiposDocumentosDTO> byCodHomologa = new HashMap<>();
+
+        for (TiposDocumentos entity : entities) {
+            TiposDocumentosDTO dto = convertToDTO(entity);
+            byCodigo.put(dto.getCodigo(), dto);
+            if (dto.getCodHomologa() != null) {
+                byCodHomologa.putIfAbsent(dto.getCodHomologa(), dto);
+            }
+        }
+
+        catalog = new Catalog(Map.copyOf(byCodigo), Map.copyOf(byCodHomologa));
+        log.info("Catálogo de tipos de documento cargado: {} registros (aciertos: {}, fallos: {})",
+                byCodigo.size(), hits.sum(), misses.sum());
+        return byCodigo.size();
+    }
+
     /**
      * Obtiene un tipo de documento por su código.
      *
@@ -33,20 +120,45 @@ public class TiposDocumentosService {
      */
     public TiposDocumentosDTO getTiposDocumentosById(Long codigo) {
         log.debug("Buscando tipo de documento con código: {}", codigo);
-        TiposDocumentos tiposDocumentos = tiposDocumentosRepository.findById(codigo)
-                .orElseThrow(() -> new NoSuchElementException("Tipo de documento no encontrado con código: " + codigo));
-        return convertToDTO(tiposDocumentos);
+        TiposDocumentosDTO tiposDocumentos = codigo != null ? catalog.byCodigo().get(codigo) : null;
+        if (tiposDocumentos == null && codigo != null && catalog == Catalog.EMPTY) {
+            tiposDocumentos = tiposDocumentosRepository.findById(codigo).map(this::convertToDTO).orElse(null);
+        }
+        if (tiposDocumentos == null) {
+            misses.increment();
+            throw new NoSuchElementException("Tipo de documento no encontrado con código: " + codigo);
+        }
+        hits.increment();
+        return tiposDocumentos;
     }
 
     public TiposDocumentosDTO getTiposDocumentosByCodHomologa(String codHomologa) {
         log.debug("Buscando tipo de documento con código de homologación: {}", codHomologa);
-        TiposDocumentos tiposDocumentos = tiposDocumentosRepository.findByCodHomologa(codHomologa);
+        TiposDocumentosDTO tiposDocumentos = codHomologa != null ? catalog.byCodHomologa().get(codHomologa) : null;
+        if (tiposDocumentos == null && codHomologa != null && catalog == Catalog.EMPTY) {
+            TiposDocumentos entity = tiposDocumentosRepository.findByCodHomologa(codHomologa);
+            tiposDocumentos = entity != null ? convertToDTO(entity) : null;
+        }
         if (tiposDocumentos == null) {
+            misses.increment();
             throw new NoSuchElementException("Tipo de documento no encontrado con código de homologación: " + codHomologa);
         }
-        return convertToDTO(tiposDocumentos);
+        hits.increment();
+        return tiposDocumentos;
      }
 
+    public long getCatalogHits() {
+        return hits.sum();
+    }
+
+    public long getCatalogMisses() {
+        return misses.sum();
+    }
+
+    public int getCatalogSize() {
+        return catalog.byCodigo().size();
+    }
+
     /**
      * Convierte una entidad TiposDocumentos a su correspondiente DTO.
      *
@@ -62,4 +174,8 @@ public class TiposDocumentosService {
                 .codHomologaSifi(tiposDocumentos.getCodHomologaSifi())
                 .build();
     }
+
+    private record Catalog(Map<Long, TiposDocumentosDTO> byCodigo, Map<String, TiposDocumentosDTO> byCodHomologa) {
+        private static final Catalog EMPTY = new Catalog(Map.of(), Map.of());
+    }
 }
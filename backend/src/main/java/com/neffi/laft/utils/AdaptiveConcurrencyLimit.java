@@ -0,0 +1,206 @@
+package com.neffi.laft.utils;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Límite de concurrencia adaptativo por gradiente de latencia. Compara la
+ * latencia reciente (media móvil corta) con la latencia de referencia (media
+ * móvil larga): si la reciente sube, el gradiente {@code referencia / reciente}
+ * baja de 1 y el límite se reduce hasta la mitad por ajuste; mientras la
+ * latencia se mantiene, el límite crece en {@code √límite}. Cada ajuste se
+ * suaviza para que una muestra aislada no mueva el límite.
+ * <p>
+ * Si la latencia reciente es menos de la mitad de la de referencia (la base de
+ * datos se recuperó), la referencia se reduce poco a poco para no conservar una
+ * lentitud que ya pasó. Cuando hay menos operaciones en curso que la mitad del
+ * límite, las muestras no ajustan el límite: no indican cuánta concurrencia se
+ * soporta.
+ * <p>
+ * Las operaciones que no caben esperan como máximo el tiempo indicado y en
+ * cola no hay más operaciones que el límite actual; las demás se rechazan de
+ * inmediato.
+ * <p>
+ * Las operaciones en segundo plano (lotes de la validación masiva) tienen su
+ * propia cola y no pueden ocupar los {@code interactiveReserved} cupos
+ * reservados a las interactivas, que además pasan primero cuando se libera un
+ * cupo. Si el límite baja hasta la reserva, el segundo plano conserva un cupo
+ * para seguir avanzando y las interactivas pueden usar sus cupos reservados
+ * por encima del límite.
+ */
+public final class AdaptiveConcurrencyLimit {
+
+    /** Muestras de la media móvil de la latencia reciente. */
+    private static final int SHORT_WINDOW = 10;
+
+    /** Muestras de la media móvil de la latencia de referencia. */
+    private static final int LONG_WINDOW = 600;
+
+    /** Aumento de latencia tolerado antes de reducir el límite. */
+    private static final double TOLERANCE = 1.5;
+
+    /** Peso de cada nuevo límite calculado sobre el límite actual. */
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final int interactiveReserved;
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+
+    private final Condition available = lock.newCondition();
+
+    private double estimatedLimit;
+
+    private double shortRtt;
+
+    private double longRtt;
+
+    private long samples;
+
+    private volatile int limit;
+
+    private volatile int inFlight;
+
+    private int interactiveInFlight;
+
+    private int backgroundInFlight;
+
+    private int interactiveWaiting;
+
+    private int backgroundWaiting;
+
+    public AdaptiveConcurrencyLimit(int minLimit, int maxLimit, int initialLimit, int interactiveReserved) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.interactiveReserved = Math.max(0, interactiveReserved);
+        this.estimatedLimit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Obtiene un cupo, esperando como máximo {@code maxWait} si no hay. Debe
+     * liberarse con {@link #release(long, int, boolean)}.
+     *
+     * @param background true para una operación en segundo plano, que no puede
+     *                   tomar los cupos reservados a las interactivas
+     * @return false si no hubo cupo a tiempo o la cola de espera está llena
+     */
+    public boolean tryAcquire(Duration maxWait, boolean background) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            if (canAcquire(background)) {
+                acquired(background);
+                return true;
+            }
+            if ((background ? backgroundWaiting : interactiveWaiting) >= limit) {
+                return false;
+            }
+            long remaining = maxWait.toNanos();
+            if (background) {
+                backgroundWaiting++;
+            } else {
+                interactiveWaiting++;
+            }
+            try {
+                while (!canAcquire(background)) {
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    remaining = available.awaitNanos(remaining);
+                }
+            } finally {
+                if (background) {
+                    backgroundWaiting--;
+                } else {
+                    interactiveWaiting--;
+                }
+            }
+            acquired(background);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean canAcquire(boolean background) {
+        if (!background) {
+            return inFlight < limit || interactiveInFlight < interactiveReserved;
+        }
+        return interactiveWaiting == 0
+                && inFlight < limit
+                && backgroundInFlight < Math.max(1, limit - interactiveReserved);
+    }
+
+    private void acquired(boolean background) {
+        if (background) {
+            backgroundInFlight++;
+        } else {
+            interactiveInFlight++;
+        }
+        inFlight++;
+    }
+
+    /**
+     * Libera un cupo y ajusta el límite con la latencia observada.
+     *
+     * @param elapsedNanos duración de la operación, sin la espera por el cupo
+     * @param calls        llamadas hechas en la operación; la latencia se
+     *                     normaliza por llamada para comparar lotes con
+     *                     llamadas individuales
+     * @param background   el mismo valor usado al obtener el cupo
+     */
+    public void release(long elapsedNanos, int calls, boolean background) {
+        lock.lock();
+        try {
+            update((double) elapsedNanos / Math.max(1, calls));
+            if (background) {
+                backgroundInFlight--;
+            } else {
+                interactiveInFlight--;
+            }
+            inFlight--;
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    private void update(double rtt) {
+        samples++;
+        shortRtt = average(shortRtt, rtt, SHORT_WINDOW);
+        longRtt = average(longRtt, rtt, LONG_WINDOW);
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+        if (inFlight < estimatedLimit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+        double target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        estimatedLimit = estimatedLimit * (1 - SMOOTHING) + target * SMOOTHING;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Media móvil exponencial; durante las primeras muestras es el promedio
+     * simple para no partir de cero.
+     */
+    private double average(double current, double sample, int window) {
+        long weight = Math.min(samples, window);
+        return current + (sample - current) / weight;
+    }
+}
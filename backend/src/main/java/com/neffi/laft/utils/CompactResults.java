@@ -0,0 +1,120 @@
+package com.neffi.laft.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.MediaType;
+
+import com.neffi.laft.dto.BulkValidateResultDto;
+import com.neffi.laft.dto.CompactBulkResultDto;
+import com.neffi.laft.dto.CompactMatchDto;
+import com.neffi.laft.dto.CompactValidationDto;
+import com.neffi.laft.dto.ListMetadataDto;
+import com.neffi.laft.dto.RestrictiveListEntry;
+
+/**
+ * Forma compacta de los resultados de validación ({@link CompactValidationDto})
+ * y negociación de los formatos que la usan. El cliente la pide con
+ * {@code Accept}: {@link #COMPACT_JSON} para JSON, o {@code application/cbor} y
+ * {@code application/x-jackson-smile} para las codificaciones binarias. Sin
+ * esos tipos la respuesta conserva el formato original.
+ */
+public final class CompactResults {
+
+    public static final String COMPACT_JSON_VALUE = "application/vnd.neffi.laft.compact+json";
+
+    public static final MediaType COMPACT_JSON = MediaType.parseMediaType(COMPACT_JSON_VALUE);
+
+    public static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    private static final List<MediaType> COMPACT_TYPES = List.of(COMPACT_JSON, MediaType.APPLICATION_CBOR, SMILE);
+
+    private CompactResults() {
+    }
+
+    /**
+     * @param accept encabezado {@code Accept} de la solicitud
+     * @return {@code true} si el cliente acepta alguno de los formatos compactos
+     */
+    public static boolean isRequested(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return false;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        // Solo por tipo explícito: un comodín como */* no cambia la forma de la respuesta
+        return accepted.stream()
+                .anyMatch(type -> COMPACT_TYPES.stream().anyMatch(type::equalsTypeAndSubtype));
+    }
+
+    /**
+     * Forma compacta de las coincidencias de una validación individual.
+     */
+    public static CompactValidationDto of(List<RestrictiveListEntry> entries) {
+        Map<Long, ListMetadataDto> lists = new HashMap<>();
+        return CompactValidationDto.builder()
+                .matches(matches(entries, lists))
+                .lists(lists)
+                .build();
+    }
+
+    /**
+     * Forma compacta de los resultados de una validación masiva, con un único
+     * diccionario de listas para todas las filas.
+     */
+    public static CompactValidationDto ofBulk(List<BulkValidateResultDto> results) {
+        Map<Long, ListMetadataDto> lists = new HashMap<>();
+        List<CompactBulkResultDto> rows = new ArrayList<>(results.size());
+        for (BulkValidateResultDto result : results) {
+            rows.add(CompactBulkResultDto.builder()
+                    .queryDocumentNumber(result.getQueryDocumentNumber())
+                    .queryFullName(result.getQueryFullName())
+                    .matchCount(result.getMatchCount())
+                    .matches(matches(result.getMatches(), lists))
+                    .build());
+        }
+        return CompactValidationDto.builder()
+                .results(rows)
+                .lists(lists)
+                .build();
+    }
+
+    private static List<CompactMatchDto> matches(List<RestrictiveListEntry> entries,
+            Map<Long, ListMetadataDto> lists) {
+        if (entries == null) {
+            return null;
+        }
+        List<CompactMatchDto> matches = new ArrayList<>(entries.size());
+        for (RestrictiveListEntry entry : entries) {
+            if (entry.getCodigoLista() != null) {
+                lists.computeIfAbsent(entry.getCodigoLista(), codigo -> ListMetadataDto.builder()
+                        .nombre(entry.getNombre())
+                        .tipoLista(entry.getTipoLista())
+                        .descriTipoLista(entry.getDescriTipoLista())
+                        .permiteHomonimia(entry.getPermiteHomonimia())
+                        .permiteIdentificacion(entry.getPermiteIdentificacion())
+                        .build());
+            }
+            matches.add(CompactMatchDto.builder()
+                    .codigoLista(entry.getCodigoLista())
+                    .tipo(entry.getTipo())
+                    .prioridadValidacion(entry.getPrioridadValidacion())
+                    .tipoDocumento(entry.getTipoDocumento())
+                    .identificacion(entry.getIdentificacion())
+                    .sdnName(entry.getSdnName())
+                    .usuario(entry.getUsuario())
+                    .fechaActualizacion(entry.getFechaActualizacion())
+                    .comentarios(entry.getComentarios())
+                    .comentarios2(entry.getComentarios2())
+                    .entNum(entry.getEntNum())
+                    .build());
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,26 @@
+package com.neffi.laft.utils;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Stream que no cierra el stream subyacente, para entregarlo a librerías que
+ * cierran el stream al terminar de escribir (por ejemplo, la respuesta HTTP).
+ */
+public class NonClosingOutputStream extends FilterOutputStream {
+
+    public NonClosingOutputStream(OutputStream out) {
+        super(out);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+}
@@ -0,0 +1,53 @@
+package com.neffi.laft.utils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Acceso a los hilos virtuales de Java 21 desde código compilado para Java 17.
+ * Las llamadas se resuelven por reflexión una sola vez; en un JDK sin hilos
+ * virtuales {@link #isSupported()} retorna {@code false}.
+ */
+public final class VirtualThreads {
+
+    private static final Method OF_VIRTUAL = Runtime.version().feature() >= 21 ? lookup("ofVirtual") : null;
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * Crea un ejecutor que inicia un hilo virtual por tarea, con nombres
+     * {@code prefijo + número}.
+     *
+     * @throws IllegalStateException si el JDK no tiene hilos virtuales
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String prefix) {
+        if (!isSupported()) {
+            throw new IllegalStateException("Los hilos virtuales requieren Java 21 o superior");
+        }
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = OF_VIRTUAL.invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 1L);
+            ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No se pudo crear el ejecutor de hilos virtuales", e);
+        }
+    }
+
+    private static Method lookup(String name) {
+        try {
+            return Thread.class.getMethod(name);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
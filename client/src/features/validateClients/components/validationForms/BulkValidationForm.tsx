@@ -8,7 +8,6 @@ import { useToast } from "@/shared/hooks/use-toast";
 
 import { useValidationStore } from "../../stores/validateClients.store";
 import { useValidateClient } from "../../hooks/useValidateClient";
-import type { BulkResult } from "../../types/validateClients.types";
 import { hasPermission } from "@/shared/lib/permissions";
 import { apiRequest } from "@/shared/lib/queryClient";
 
@@ -65,8 +64,8 @@ const BulkValidationForm: FunctionComponent<BulkValidationFormProps> = () => {
     }
 
     bulkMutation.mutate(selectedFile, {
-      onSuccess: (data: BulkResult[]) => {
-        setBulkResults(data);
+      onSuccess: ({ results: data, resultId }) => {
+        setBulkResults(data, resultId);
         setResults(null);
         setSearchContext({
           type: "bulk",
@@ -12,6 +12,7 @@ import { Tooltip, TooltipContent, TooltipTrigger } from "@/shared/ui/tooltip";
 
 const BulkResults: FunctionComponent = () => {
   const bulkResults = useValidationStore((s) => s.bulkResults);
+  const bulkResultId = useValidationStore((s) => s.bulkResultId);
   const { excelMutation } = useValidateClient();
   const { toast } = useToast();
 
@@ -34,7 +35,7 @@ const BulkResults: FunctionComponent = () => {
       return;
     }
 
-    excelMutation.mutate(bulkResults, {
+    excelMutation.mutate({ results: bulkResults, resultId: bulkResultId }, {
       onSuccess: (blob) => {
 
         const url = URL.createObjectURL(blob);
@@ -13,8 +13,9 @@ export const validateBulk = async (file: File) => {
 	formData.append("file", file);
 
 	const res = await apiRequest("POST", "/api/laft/validate/bulk", formData);
-  
-	return res.json();
+	const results: BulkResult[] = await res.json();
+
+	return { results, resultId: res.headers.get("X-Bulk-Result-Id") };
 };
 
 export const downloadValidationPdf = async (data: RestrictiveListMatch[]) => {
@@ -22,7 +23,17 @@ export const downloadValidationPdf = async (data: RestrictiveListMatch[]) => {
 	return res.blob();
 };
 
-export const downloadValidationExcel = async (data: BulkResult[]) => {
-	const res = await apiRequest("POST", "/api/laft/validate/report/excel", data);
+// Con el identificador de los resultados guardados en el servidor no se vuelven a enviar;
+// si ya expiraron (404) se envían los resultados que conserva el navegador
+export const downloadValidationExcel = async ({ results, resultId }: { results: BulkResult[]; resultId?: string | null }) => {
+	if (resultId) {
+		try {
+			const res = await apiRequest("GET", `/api/laft/validate/report/excel/${encodeURIComponent(resultId)}`);
+			return res.blob();
+		} catch (err: any) {
+			if (!String(err?.message).startsWith("404")) throw err;
+		}
+	}
+	const res = await apiRequest("POST", "/api/laft/validate/report/excel", results);
 	return res.blob();
 };
\ No newline at end of file
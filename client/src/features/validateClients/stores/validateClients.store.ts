@@ -21,6 +21,8 @@ interface ValidationState {
 	// ----- Bulk -----
 	selectedFile: File | null;
 	bulkResults: BulkResult[] | null;
+	// Identificador de los resultados guardados en el servidor (X-Bulk-Result-Id)
+	bulkResultId: string | null;
 
 	// ----- UI -----
 	searchContext: {
@@ -44,7 +46,7 @@ interface ValidationState {
 	setResults: (data: RestrictiveListMatch[] | null) => void;
 
 	setSelectedFile: (file: File | null) => void;
-	setBulkResults: (data: BulkResult[] | null) => void;
+	setBulkResults: (data: BulkResult[] | null, resultId?: string | null) => void;
 
 	setSearchContext: (ctx: {
 		type: "individual" | "bulk";
@@ -73,6 +75,7 @@ export const useValidationStore = create<ValidationState>((set) => ({
 
 	selectedFile: null,
 	bulkResults: null,
+	bulkResultId: null,
 
 	searchContext: null,
 
@@ -90,7 +93,7 @@ export const useValidationStore = create<ValidationState>((set) => ({
 	setResults: (data) => set({ results: data }),
 
 	setSelectedFile: (file) => set({ selectedFile: file }),
-	setBulkResults: (data) => set({ bulkResults: data }),
+	setBulkResults: (data, resultId = null) => set({ bulkResults: data, bulkResultId: resultId }),
 
 	setSearchContext: (ctx) => set({ searchContext: ctx }),
 
@@ -112,6 +115,7 @@ export const useValidationStore = create<ValidationState>((set) => ({
 		set({
 			selectedFile: null,
 			bulkResults: null,
+			bulkResultId: null,
 		}),
 
 	resetAll: () =>
@@ -127,6 +131,7 @@ export const useValidationStore = create<ValidationState>((set) => ({
 			results: null,
 			selectedFile: null,
 			bulkResults: null,
+			bulkResultId: null,
 			searchContext: null,
 		}),
 }));